@@ -0,0 +1,78 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.solver.student.BranchAndBound;
+import de.uos.inf.ko.knapsack.solver.student.CachingSolver;
+import de.uos.inf.ko.knapsack.solver.student.SolutionCache;
+
+/**
+ * The CachingSolver around the BranchAndBound: a miss with an empty cache, i.e. the fingerprint,
+ * the solve and the store, and a hit with a cache that already holds the optimum. The instances
+ * with 10 items are left out, since a per-invocation setup distorts runs of a few microseconds.
+ *
+ * @author
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingBenchmark {
+  @Param({"00100-1", "01000-1", "05000-1"})
+  public String file;
+
+  private Instance instance;
+  private CachingSolver warm;
+
+  /**
+   * A solver with a new, empty cache for every invocation.
+   */
+  @State(Scope.Thread)
+  public static class Cold {
+    private CachingSolver solver;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+      solver = create();
+    }
+  }
+
+  private static CachingSolver create() {
+    return new CachingSolver(new BranchAndBound(), true, new SolutionCache(1 << 20));
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    instance = Solvers.read(file);
+    warm = create();
+    warm.solve(instance);
+  }
+
+  @Benchmark
+  public Solution miss(Cold cold) {
+    return cold.solver.solve(instance);
+  }
+
+  @Benchmark
+  public Solution hit() {
+    return warm.solve(instance);
+  }
+}
@@ -0,0 +1,84 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+import de.uos.inf.ko.knapsack.solver.student.Bounds;
+import de.uos.inf.ko.knapsack.solver.student.GreedyHeuristic;
+
+/**
+ * The building blocks of the solvers: reading an instance, setting and copying solutions, sorting
+ * the items and the fractional bounds at the root.
+ *
+ * @author
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoreBenchmark {
+  @Param({"00010-1", "00100-1", "01000-1", "05000-1", "10000-1"})
+  public String file;
+
+  private Instance instance;
+  private Solution solution;
+  private Bounds bounds;
+
+  @Setup
+  public void setup() throws IOException {
+    instance = Solvers.read(file);
+    solution = new GreedyHeuristic().solve(instance);
+    bounds = new Bounds(instance);
+  }
+
+  @Benchmark
+  public Instance readInstance() throws IOException {
+    return Reader.readInstance(Solvers.path(file));
+  }
+
+  @Benchmark
+  public Solution setSolution() {
+    final Solution packed = new Solution(instance);
+    for (int i = 0; i < instance.getSize(); i++) {
+      packed.set(i, 1);
+    }
+    return packed;
+  }
+
+  @Benchmark
+  public Solution copySolution() {
+    return new Solution(solution);
+  }
+
+  @Benchmark
+  public Bounds sortItems() {
+    return new Bounds(instance);
+  }
+
+  @Benchmark
+  public long dantzigBound() {
+    return bounds.dantzig(0, instance.getCapacity());
+  }
+
+  @Benchmark
+  public long martelloTothBound() {
+    return bounds.martelloToth(0, instance.getCapacity());
+  }
+}
@@ -0,0 +1,75 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.solver.student.BranchAndBoundWorker;
+import de.uos.inf.ko.knapsack.solver.student.DistributedBranchAndBound;
+
+/**
+ * Solves the bundled instances with a {@link DistributedBranchAndBound} and a growing number of
+ * worker processes on this host.
+ *
+ * @author
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistributedBenchmark {
+  @Param({"1", "2", "4"})
+  public int workers;
+
+  @Param({"00100-1", "01000-1", "05000-1"})
+  public String file;
+
+  private final List<Process> processes = new ArrayList<>();
+  private DistributedBranchAndBound coordinator;
+  private Instance instance;
+
+  @Setup
+  public void setup() throws IOException, InterruptedException {
+    instance = Solvers.read(file);
+    coordinator = new DistributedBranchAndBound();
+    for (int i = 0; i < workers; i++) {
+      processes.add(BranchAndBoundWorker.start(coordinator.getPort()));
+    }
+    if (!coordinator.awaitWorkers(workers, 30000)) {
+      throw new IllegalStateException("Workers did not connect");
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    coordinator.close();
+    for (Process process : processes) {
+      process.destroy();
+    }
+    processes.clear();
+  }
+
+  @Benchmark
+  public SolveResult solve() {
+    return coordinator.solve(instance, new SolveControl());
+  }
+}
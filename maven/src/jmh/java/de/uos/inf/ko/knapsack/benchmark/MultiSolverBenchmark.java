@@ -0,0 +1,81 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uos.inf.ko.knapsack.multi.MultiInstance;
+import de.uos.inf.ko.knapsack.multi.MultiSolution;
+import de.uos.inf.ko.knapsack.multi.MultiSolverInterface;
+import de.uos.inf.ko.knapsack.solver.student.MultiBranchAndBound;
+import de.uos.inf.ko.knapsack.solver.student.MultiSurrogateGreedy;
+
+/**
+ * Solves random multidimensional instances; there are no bundled ones.
+ *
+ * @author
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiSolverBenchmark {
+  @Param({"MultiBranchAndBound", "MultiSurrogateGreedy"})
+  public String solver;
+
+  @Param({"10", "20", "30"})
+  public int size;
+
+  @Param({"2", "5"})
+  public int dimensions;
+
+  private MultiSolverInterface instanceSolver;
+  private MultiInstance instance;
+
+  @Setup
+  public void setup() {
+    switch (solver) {
+      case "MultiBranchAndBound":
+        instanceSolver = new MultiBranchAndBound();
+        break;
+      case "MultiSurrogateGreedy":
+        instanceSolver = new MultiSurrogateGreedy();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown solver " + solver);
+    }
+
+    final Random random = new Random(23);
+    instance = new MultiInstance(size, dimensions);
+    for (int i = 0; i < size; i++) {
+      final int[] weights = new int[dimensions];
+      int sum = 0;
+      for (int d = 0; d < dimensions; d++) {
+        weights[d] = random.nextInt(30);
+        sum += weights[d];
+      }
+      instance.set(i, sum / dimensions + random.nextInt(20), weights);
+    }
+    for (int d = 0; d < dimensions; d++) {
+      instance.setCapacity(d, 7 * size);
+    }
+  }
+
+  @Benchmark
+  public MultiSolution solve() {
+    return instanceSolver.solve(instance);
+  }
+}
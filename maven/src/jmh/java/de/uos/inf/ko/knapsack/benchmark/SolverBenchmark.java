@@ -0,0 +1,58 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolverInterface;
+
+/**
+ * Solves the bundled instances with every solver that handles them within seconds. Larger
+ * instances can be chosen on the command line, e.g. -p file=10000-1. The CachingSolver is
+ * measured by the {@link CachingBenchmark}, since repeated solves of one instance only hit its
+ * cache.
+ *
+ * @author
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+  @Param({"BoundedKnapsack", "BranchAndBound", "ConstraintProgramming", "FractionalSolver",
+      "GeneticAlgorithm", "GreedyHeuristic", "LargeNeighbourhoodSearch", "NemhauserUllmann",
+      "ReducedSolver", "SimulatedAnnealing", "SolverDispatcher", "SolverPortfolio",
+      "SubsetSumSolver", "UnboundedKnapsack"})
+  public String solver;
+
+  @Param({"00010-1", "00100-1", "01000-1"})
+  public String file;
+
+  private SolverInterface<?> instanceSolver;
+  private Instance instance;
+
+  @Setup
+  public void setup() throws IOException {
+    instanceSolver = Solvers.create(solver);
+    instance = Solvers.read(file);
+  }
+
+  @Benchmark
+  public Object solve() {
+    return instanceSolver.solve(instance);
+  }
+}
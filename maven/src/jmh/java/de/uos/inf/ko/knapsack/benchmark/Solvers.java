@@ -0,0 +1,90 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.io.IOException;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolverInterface;
+import de.uos.inf.ko.knapsack.reader.Reader;
+import de.uos.inf.ko.knapsack.solver.student.BoundedKnapsack;
+import de.uos.inf.ko.knapsack.solver.student.BranchAndBound;
+import de.uos.inf.ko.knapsack.solver.student.ConstraintProgramming;
+import de.uos.inf.ko.knapsack.solver.student.Enumeration;
+import de.uos.inf.ko.knapsack.solver.student.FractionalSolver;
+import de.uos.inf.ko.knapsack.solver.student.GeneticAlgorithm;
+import de.uos.inf.ko.knapsack.solver.student.GreedyHeuristic;
+import de.uos.inf.ko.knapsack.solver.student.LargeNeighbourhoodSearch;
+import de.uos.inf.ko.knapsack.solver.student.NemhauserUllmann;
+import de.uos.inf.ko.knapsack.solver.student.ReducedSolver;
+import de.uos.inf.ko.knapsack.solver.student.SimulatedAnnealing;
+import de.uos.inf.ko.knapsack.solver.student.SolverDispatcher;
+import de.uos.inf.ko.knapsack.solver.student.SolverPortfolio;
+import de.uos.inf.ko.knapsack.solver.student.SubsetSumSolver;
+import de.uos.inf.ko.knapsack.solver.student.TabuSearch;
+import de.uos.inf.ko.knapsack.solver.student.UnboundedKnapsack;
+
+/**
+ * Creates the solvers and reads the instances of the benchmarks by name.
+ *
+ * @author
+ */
+final class Solvers {
+  private static final String PATH = "./src/test/resources/knapsack/";
+
+  private Solvers() {
+  }
+
+  /**
+   * Returns the path of a bundled instance, e.g. "01000-1" for rucksack01000-1.txt. The benchmarks
+   * run in the directory of the pom.
+   */
+  static String path(String file) {
+    return PATH + "rucksack" + file + ".txt";
+  }
+
+  static Instance read(String file) throws IOException {
+    return Reader.readInstance(path(file));
+  }
+
+  /**
+   * Creates a solver by the name of its class. The large neighbourhood search is limited by
+   * iterations instead of time, so its runtime reflects its work.
+   */
+  static SolverInterface<?> create(String name) {
+    switch (name) {
+      case "BoundedKnapsack":
+        return new BoundedKnapsack();
+      case "BranchAndBound":
+        return new BranchAndBound();
+      case "ConstraintProgramming":
+        return new ConstraintProgramming();
+      case "Enumeration":
+        return new Enumeration();
+      case "FractionalSolver":
+        return new FractionalSolver();
+      case "GeneticAlgorithm":
+        return new GeneticAlgorithm();
+      case "GreedyHeuristic":
+        return new GreedyHeuristic();
+      case "LargeNeighbourhoodSearch":
+        return new LargeNeighbourhoodSearch(Long.MAX_VALUE, 200, 60, 10, 42);
+      case "NemhauserUllmann":
+        return new NemhauserUllmann();
+      case "ReducedSolver":
+        return new ReducedSolver(new BranchAndBound());
+      case "SimulatedAnnealing":
+        return new SimulatedAnnealing();
+      case "SolverDispatcher":
+        return new SolverDispatcher();
+      case "SolverPortfolio":
+        return new SolverPortfolio();
+      case "SubsetSumSolver":
+        return new SubsetSumSolver();
+      case "TabuSearch":
+        return new TabuSearch();
+      case "UnboundedKnapsack":
+        return new UnboundedKnapsack();
+      default:
+        throw new IllegalArgumentException("Unknown solver " + name);
+    }
+  }
+}
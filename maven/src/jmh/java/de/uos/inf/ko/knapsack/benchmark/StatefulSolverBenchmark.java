@@ -0,0 +1,84 @@
+package de.uos.inf.ko.knapsack.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.solver.student.CapacitySweep;
+import de.uos.inf.ko.knapsack.solver.student.SolverSession;
+import de.uos.inf.ko.knapsack.solver.student.StreamingKnapsack;
+
+/**
+ * The solvers that do not implement the SolverInterface: a CapacitySweep up to the capacity of
+ * the instance, a SolverSession that solves again after a change of a random item or after adding
+ * and removing an item, and a StreamingKnapsack that reads all items as a stream. The session is
+ * solved once in the setup, so only the incremental work is measured.
+ *
+ * @author
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatefulSolverBenchmark {
+  @Param({"00100-1", "01000-1", "05000-1"})
+  public String file;
+
+  private Instance instance;
+  private SolverSession session;
+  private Random random;
+
+  @Setup
+  public void setup() throws IOException {
+    instance = Solvers.read(file);
+    session = new SolverSession(instance);
+    session.solve();
+    random = new Random(42);
+  }
+
+  @Benchmark
+  public Solution capacitySweep() {
+    return new CapacitySweep(instance).getSolution(instance.getCapacity());
+  }
+
+  @Benchmark
+  public Solution sessionChange() {
+    final int id = random.nextInt(instance.getSize());
+    session.setValue(id, instance.getValue(id) + random.nextInt(2));
+    return session.solve();
+  }
+
+  @Benchmark
+  public Solution sessionAddRemove() {
+    final int id = session.addItem(instance.getValue(0), instance.getWeight(0));
+    session.solve();
+    session.removeItem(id);
+    return session.solve();
+  }
+
+  @Benchmark
+  public StreamingKnapsack.StreamSolution stream() {
+    final StreamingKnapsack knapsack = new StreamingKnapsack(instance.getCapacity(), 16,
+        new StreamingKnapsack.SampledThreshold(), 42);
+    for (int i = 0; i < instance.getSize(); i++) {
+      knapsack.offer(instance.getValue(i), instance.getWeight(i));
+    }
+    return knapsack.getSolution();
+  }
+}
@@ -0,0 +1,32 @@
+package de.uos.inf.ko.knapsack;
+
+/**
+ * A knapsack solver that can be stopped at any time and still returns its best solution.
+ *
+ * The solver publishes every improvement to the {@link SolveControl}, may use the value of its best
+ * solution to prune (e.g. found by other solvers working with the same control), and returns soon
+ * after the deadline of the control has passed or the control has been cancelled. The result
+ * contains the best solution of the control and a proven upper bound, which equals the value of
+ * the solution if the solver completed an exact search.
+ */
+public interface AnytimeSolver extends SolverInterface<Solution> {
+  /**
+   * Compute a solution for the given instance until the control asks to stop
+   *
+   * @param instance The given knapsack instance
+   * @param control The deadline, the cancellation flag and the best known solution
+   * @return The best solution of the control together with a proven upper bound
+   */
+  SolveResult solve(Instance instance, SolveControl control);
+
+  /**
+   * Compute a solution for the given instance without a deadline
+   *
+   * @param instance The given knapsack instance
+   * @return The solution
+   */
+  @Override
+  default Solution solve(Instance instance) {
+    return solve(instance, new SolveControl()).getSolution();
+  }
+}
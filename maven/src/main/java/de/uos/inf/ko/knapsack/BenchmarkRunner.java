@@ -0,0 +1,451 @@
+package de.uos.inf.ko.knapsack;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a grid of solvers and instances and measures every cell repeatedly.
+ *
+ * The instances are read once by the caller and shared by all cells. The cells run on a fixed
+ * number of threads; every cell creates its own solver, runs it a number of times for warm-up and
+ * then measures the given number of runs with {@link System#nanoTime()}. Every run is limited by
+ * the timeout: an {@link AnytimeSolver} is stopped by the deadline of its {@link SolveControl};
+ * any other solver runs on a separate thread that is abandoned once the timeout has passed, since
+ * it cannot be stopped. A cell whose run takes longer than the timeout or fails is not run again.
+ *
+ * A cell reports the minimum, the median and the 95th percentile of the runtimes, the best value
+ * over its runs and the gap to the best known value of the instance. The best known value is the
+ * maximum of the given values and of all binary solutions found in the grid. It also keeps the
+ * {@link SolveStats} of its last measured run. The results can be written as CSV or JSON.
+ *
+ * @author
+ */
+public class BenchmarkRunner {
+  /**
+   * The outcome of a cell
+   */
+  public enum Status {
+    OK, TIMEOUT, FAILED, SKIPPED
+  }
+
+  /**
+   * The measurements of one solver on one instance.
+   */
+  public static class Cell {
+    private final String solver;
+    private final Instance instance;
+    private Status status = Status.OK;
+    private String error = "";
+    private double value = Double.NaN;
+    private boolean binary = true;
+    private long best = -1;
+    private long[] nanos = new long[0];
+    private SolveStats stats = new SolveStats();
+
+    Cell(String solver, Instance instance) {
+      this.solver = solver;
+      this.instance = instance;
+    }
+
+    public String getSolver() {
+      return solver;
+    }
+
+    public Instance getInstance() {
+      return instance;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    /**
+     * Returns the message of a failed cell, or an empty string
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * Returns the best value of the measured runs, NaN if there are none
+     */
+    public double getValue() {
+      return value;
+    }
+
+    /**
+     * Returns the best known value of the instance, -1 if there is none
+     */
+    public long getBestKnown() {
+      return best;
+    }
+
+    /**
+     * Returns the relative gap of the value to the best known value, NaN if either is unknown
+     */
+    public double getGap() {
+      return best <= 0 || Double.isNaN(value) ? Double.NaN : (best - value) / best;
+    }
+
+    /**
+     * Returns the number of measured runs
+     */
+    public int getRuns() {
+      return nanos.length;
+    }
+
+    public long getMinNanos() {
+      return percentile(0);
+    }
+
+    public long getMedianNanos() {
+      return percentile(0.5);
+    }
+
+    public long getP95Nanos() {
+      return percentile(0.95);
+    }
+
+    /**
+     * Returns the statistics of the last measured run, empty if there is none
+     */
+    public SolveStats getStats() {
+      return stats;
+    }
+
+    /**
+     * Returns a percentile of the runtimes by the nearest-rank method, -1 if there are none.
+     */
+    private long percentile(double p) {
+      if (nanos.length == 0) {
+        return -1;
+      }
+      final int rank = (int) Math.ceil(p * nanos.length);
+      return nanos[Math.max(0, rank - 1)];
+    }
+  }
+
+  /**
+   * The solution of a run together with its statistics.
+   */
+  private static class Run {
+    private final GenericSolution<?> solution;
+    private final SolveStats stats;
+
+    Run(GenericSolution<?> solution, SolveStats stats) {
+      this.solution = solution;
+      this.stats = stats != null ? stats : new SolveStats();
+    }
+  }
+
+  /**
+   * A solver factory with the maximum number of items it is run on.
+   */
+  private static class Entry {
+    private final Supplier<? extends SolverInterface<? extends GenericSolution<?>>> factory;
+    private final int maxItems;
+
+    Entry(Supplier<? extends SolverInterface<? extends GenericSolution<?>>> factory, int maxItems) {
+      this.factory = factory;
+      this.maxItems = maxItems;
+    }
+  }
+
+  private final int threads;
+  private final int warmup;
+  private final int repetitions;
+  private final long timeout;
+
+  private final List<Entry> solvers = new ArrayList<>();
+  private final List<Instance> instances = new ArrayList<>();
+  private final Map<Instance, Long> bestKnown = new HashMap<>();
+
+  /**
+   * Creates a runner.
+   *
+   * @param threads the number of cells run at the same time
+   * @param warmup the number of runs per cell before the measurement
+   * @param repetitions the number of measured runs per cell
+   * @param timeout the time limit per run in milliseconds
+   */
+  public BenchmarkRunner(int threads, int warmup, int repetitions, long timeout) {
+    if (threads < 1 || repetitions < 1) {
+      throw new IllegalArgumentException("At least one thread and one repetition are needed");
+    }
+    if (warmup < 0 || timeout < 1) {
+      throw new IllegalArgumentException("Negative warm-up or timeout");
+    }
+    this.threads = threads;
+    this.warmup = warmup;
+    this.repetitions = repetitions;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Adds a solver for all instances.
+   *
+   * @param factory creates the solver of each cell
+   */
+  public void addSolver(Supplier<? extends SolverInterface<? extends GenericSolution<?>>> factory) {
+    addSolver(factory, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Adds a solver for the instances up to a size; the cells of larger instances are skipped.
+   *
+   * @param factory creates the solver of each cell
+   * @param maxItems the maximum number of items
+   */
+  public void addSolver(Supplier<? extends SolverInterface<? extends GenericSolution<?>>> factory,
+      int maxItems) {
+    solvers.add(new Entry(factory, maxItems));
+  }
+
+  public void addInstance(Instance instance) {
+    instances.add(instance);
+  }
+
+  /**
+   * Adds an instance with the value of its best known solution, e.g. a proven optimum.
+   *
+   * @param instance the instance
+   * @param value the best known value
+   */
+  public void addInstance(Instance instance, long value) {
+    instances.add(instance);
+    bestKnown.put(instance, value);
+  }
+
+  /**
+   * Runs all cells and waits for them.
+   *
+   * @return the cells, by solver and then by instance in the order they were added
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public List<Cell> run() throws InterruptedException {
+    final ExecutorService pool = Executors.newFixedThreadPool(threads, BenchmarkRunner::daemon);
+    // runs solvers that cannot be stopped, so a cell can give up on them
+    final ExecutorService runs = Executors.newCachedThreadPool(BenchmarkRunner::daemon);
+    final List<Cell> cells = new ArrayList<>();
+    final List<Callable<Cell>> tasks = new ArrayList<>();
+    try {
+      for (Entry entry : solvers) {
+        for (Instance instance : instances) {
+          tasks.add(() -> run(entry, instance, runs));
+        }
+      }
+      for (Future<Cell> future : pool.invokeAll(tasks)) {
+        cells.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Benchmark failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+      runs.shutdownNow();
+    }
+
+    final Map<Instance, Long> best = new HashMap<>(bestKnown);
+    for (Cell cell : cells) {
+      if (cell.binary && !Double.isNaN(cell.value)) {
+        best.merge(cell.instance, (long) cell.value, Math::max);
+      }
+    }
+    for (Cell cell : cells) {
+      cell.best = best.getOrDefault(cell.instance, -1L);
+    }
+    return cells;
+  }
+
+  private static Thread daemon(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "benchmark");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private Cell run(Entry entry, Instance instance, ExecutorService runs) {
+    final SolverInterface<? extends GenericSolution<?>> solver = entry.factory.get();
+    final Cell cell = new Cell(solver.getName(), instance);
+    if (instance.getSize() > entry.maxItems) {
+      cell.status = Status.SKIPPED;
+      return cell;
+    }
+
+    final long[] nanos = new long[repetitions];
+    int measured = 0;
+    for (int run = 0; run < warmup + repetitions; run++) {
+      final long start = System.nanoTime();
+      final Run result;
+      try {
+        result = solve(solver, instance, runs);
+      } catch (TimeoutException e) {
+        cell.status = Status.TIMEOUT;
+        break;
+      } catch (RuntimeException e) {
+        cell.status = Status.FAILED;
+        cell.error = e.toString();
+        break;
+      }
+      final long elapsed = System.nanoTime() - start;
+
+      final GenericSolution<?> solution = result.solution;
+      if (solution == null || !solution.isFeasible()) {
+        cell.status = Status.FAILED;
+        cell.error = "infeasible solution";
+        break;
+      }
+      if (run >= warmup) {
+        nanos[measured++] = elapsed;
+        final double value = solution.getValue().doubleValue();
+        cell.value = Double.isNaN(cell.value) ? value : Math.max(cell.value, value);
+        cell.binary &= solution.isBinary();
+        cell.stats = result.stats;
+      }
+      if (elapsed >= timeout * 1000000) {
+        // an anytime solver has been stopped by its deadline
+        cell.status = Status.TIMEOUT;
+        break;
+      }
+    }
+    cell.nanos = Arrays.copyOf(nanos, measured);
+    Arrays.sort(cell.nanos);
+    return cell;
+  }
+
+  private Run solve(SolverInterface<? extends GenericSolution<?>> solver, Instance instance,
+      ExecutorService runs) throws TimeoutException {
+    if (solver instanceof AnytimeSolver) {
+      final SolveResult result =
+          ((AnytimeSolver) solver).solve(instance, new SolveControl(timeout));
+      return new Run(result.getSolution(), result.getStats());
+    }
+    // the statistics are kept by the thread of the run
+    final Future<Run> future =
+        runs.submit(() -> new Run(solver.solve(instance), SolveStats.last()));
+    try {
+      return future.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted", e);
+    }
+  }
+
+  private static final String[] COLUMNS = {"solver", "file", "items", "capacity", "status",
+      "runs", "value", "best_known", "gap", "min_ns", "median_ns", "p95_ns", "nodes",
+      "pruned_bound", "pruned_infeasible", "pruned_dominance", "bound_evaluations",
+      "moves_evaluated", "moves_accepted", "restarts", "time_to_best_ns", "error"};
+
+  /**
+   * Returns the columns of a cell as strings, numbers without unit.
+   */
+  private static String[] columns(Cell cell) {
+    return new String[] {cell.solver, String.valueOf(cell.instance.getFilename()),
+        String.valueOf(cell.instance.getSize()), String.valueOf(cell.instance.getCapacity()),
+        cell.status.name(), String.valueOf(cell.getRuns()), number(cell.value),
+        String.valueOf(cell.best), number(cell.getGap()), String.valueOf(cell.getMinNanos()),
+        String.valueOf(cell.getMedianNanos()), String.valueOf(cell.getP95Nanos()),
+        String.valueOf(cell.stats.getNodes()),
+        String.valueOf(cell.stats.getPrunes(SolveStats.Prune.BOUND)),
+        String.valueOf(cell.stats.getPrunes(SolveStats.Prune.INFEASIBLE)),
+        String.valueOf(cell.stats.getPrunes(SolveStats.Prune.DOMINANCE)),
+        String.valueOf(cell.stats.getBoundEvaluations()),
+        String.valueOf(cell.stats.getMovesEvaluated()),
+        String.valueOf(cell.stats.getMovesAccepted()), String.valueOf(cell.stats.getRestarts()),
+        String.valueOf(cell.stats.getTimeToBest()), cell.error};
+  }
+
+  private static String number(double x) {
+    if (Double.isNaN(x)) {
+      return "";
+    }
+    return x == Math.rint(x) && Math.abs(x) < 1e15 ? String.valueOf((long) x)
+        : String.format(Locale.ROOT, "%.6g", x);
+  }
+
+  /**
+   * Writes the cells as CSV with a header line.
+   *
+   * @param cells the cells
+   * @param out the output
+   * @throws IOException if writing fails
+   */
+  public static void writeCsv(List<Cell> cells, Writer out) throws IOException {
+    out.write(String.join(",", COLUMNS));
+    out.write("\n");
+    for (Cell cell : cells) {
+      final String[] values = columns(cell);
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          out.write(",");
+        }
+        final String value = values[i];
+        out.write(value.matches(".*[,\"\n].*") ? "\"" + value.replace("\"", "\"\"") + "\"" : value);
+      }
+      out.write("\n");
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the cells as a JSON array of objects; empty numbers are written as null.
+   *
+   * @param cells the cells
+   * @param out the output
+   * @throws IOException if writing fails
+   */
+  public static void writeJson(List<Cell> cells, Writer out) throws IOException {
+    out.write("[");
+    for (int c = 0; c < cells.size(); c++) {
+      final String[] values = columns(cells.get(c));
+      out.write(c > 0 ? ",\n  {" : "\n  {");
+      for (int i = 0; i < values.length; i++) {
+        out.write((i > 0 ? ", \"" : "\"") + COLUMNS[i] + "\": ");
+        final boolean text = i <= 1 || COLUMNS[i].equals("status") || COLUMNS[i].equals("error");
+        if (text) {
+          out.write(quote(values[i]));
+        } else {
+          out.write(values[i].isEmpty() ? "null" : values[i]);
+        }
+      }
+      out.write("}");
+    }
+    out.write("\n]\n");
+    out.flush();
+  }
+
+  private static String quote(String s) {
+    final StringBuilder builder = new StringBuilder("\"");
+    for (char ch : s.toCharArray()) {
+      if (ch == '"' || ch == '\\') {
+        builder.append('\\').append(ch);
+      } else if (ch < 0x20) {
+        builder.append(String.format("\\u%04x", (int) ch));
+      } else {
+        builder.append(ch);
+      }
+    }
+    return builder.append('"').toString();
+  }
+}
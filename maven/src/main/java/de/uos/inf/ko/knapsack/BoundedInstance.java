@@ -0,0 +1,80 @@
+package de.uos.inf.ko.knapsack;
+
+import java.util.Arrays;
+
+/**
+ * An instance of the bounded knapsack problem: in addition to value and weight, every item has an
+ * upper bound on its quantity. Without an explicit bound an item may be packed at most once.
+ */
+public class BoundedInstance extends Instance {
+  /**
+   * Array of upper bounds on the quantities
+   */
+  private int[] b;
+
+  /**
+   * Constructs a new instance of the bounded knapsack problem with the given number of items and
+   * capacity. All bounds are initialized to 1.
+   *
+   * @param number the number of items in the instance
+   * @param capacity the capacity of the knapsack
+   */
+  public BoundedInstance(int number, int capacity) {
+    super(number, capacity);
+    b = new int[number];
+    Arrays.fill(b, 1);
+  }
+
+  /**
+   * Set value, weight and bound for an item.
+   *
+   * @param item Item index
+   * @param value Value of item to be set
+   * @param weight Weight of item to be set
+   * @param bound Upper bound on the quantity of the item
+   */
+  public void set(int item, int value, int weight, int bound) {
+    set(item, value, weight);
+    setBound(item, bound);
+  }
+
+  /**
+   * Get the upper bound on the quantity of an item.
+   *
+   * @param item Item index
+   */
+  public int getBound(int item) {
+    return b[item];
+  }
+
+  /**
+   * Get array containing all bounds
+   */
+  public int[] getBoundArray() {
+    return b;
+  }
+
+  /**
+   * Set the upper bound on the quantity of an item.
+   *
+   * @param item Item index
+   * @param bound Upper bound to be set
+   */
+  public void setBound(int item, int bound) {
+    b[item] = bound;
+  }
+
+  /**
+   * Checks whether the quantities of a solution respect the bounds of all items.
+   *
+   * @param solution a solution of this instance
+   */
+  public boolean isWithinBounds(Solution solution) {
+    for (int i = 0; i < getSize(); i++) {
+      if (solution.get(i) < 0 || solution.get(i) > b[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -145,4 +145,17 @@ public class Instance {
   public int getSize() {
     return c.length;
   }
+
+  /**
+   * Checks whether the instance is a subset-sum instance, i.e. the value of every item equals its
+   * weight.
+   */
+  public boolean isSubsetSum() {
+    for (int i = 0; i < c.length; i++) {
+      if (c[i] != w[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
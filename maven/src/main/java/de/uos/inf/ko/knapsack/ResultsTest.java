@@ -2,9 +2,12 @@ package de.uos.inf.ko.knapsack;
 
 import de.uos.inf.ko.knapsack.reader.Reader;
 import de.uos.inf.ko.knapsack.solver.student.*;
-import de.uos.inf.ko.utils.Logger;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import de.uos.inf.ko.knapsack.solver.student.TabuSearch.*;
 
 public class ResultsTest {
@@ -63,136 +66,100 @@ public class ResultsTest {
     System.out.print(printMatrix.toString());
   }
 
-  private final static int SOLVER_NAME = 0;
-  private final static int FILE_NAME = 1;
-  private final static int ITEM_NUMBER = 2;
-  private final static int CAPACITY = 3;
-  private final static int SOLUTION_VALUE = 4;
-  private final static int SOLUTION_TIME = 5;
-
-  public static <SolutionType extends GenericSolution<?>> void runSolver(
-      SolverInterface<SolutionType> solver, Instance instance, ArrayList<String>[] valueMatrix,
-      boolean binary) {
-    // solve it
-    long start = System.currentTimeMillis();
-
-    SolutionType solution;
-    try {
-      solution = solver.solve(instance);
-    } catch (UnsupportedOperationException ex) {
-      solution = null;
-    }
-
-    long end = System.currentTimeMillis();
-
-    // insert all values in the matrix
-    valueMatrix[SOLVER_NAME].add(solver.getName());
-    valueMatrix[FILE_NAME].add(instance.getFilename());
-    valueMatrix[ITEM_NUMBER].add(String.valueOf(instance.getSize()));
-    valueMatrix[CAPACITY].add(String.valueOf(instance.getCapacity()));
-    valueMatrix[SOLUTION_VALUE].add(solution == null ? "-" : solution.getValue().toString());
-    valueMatrix[SOLUTION_TIME].add(String.format("%.3fs", (end - start) / 1000.0));
-    final int index = valueMatrix[SOLVER_NAME].size() - 1;
-
-    System.out.println("=== " + valueMatrix[SOLVER_NAME].get(index) + " ===");
-    if (instance.getSize() <= 60) {
-      System.out.println("solution = " + solution);
-    }
-    System.out.println("value = " + valueMatrix[SOLUTION_VALUE].get(index));
-    System.out.println("time = " + valueMatrix[SOLUTION_TIME].get(index));
-    if (solution != null) {
-      assert solution.getInstance() == instance : "Solution is for another instance!";
-      assert solution.isFeasible() : "Solution is not feasible!";
-      if (binary) {
-        assert solution.isBinary() : "Solution is not binary!";
-      }
-    }
-  }
-
-  public static <SolutionType extends GenericSolution<?>> void runSolver(
-      SolverInterface<SolutionType> solver, Instance instance, ArrayList<String>[] valueMatrix) {
-    runSolver(solver, instance, valueMatrix, true);
-  }
-
-  public static void main(String[] args) throws IOException {
+  /**
+   * Runs all solvers on the bundled instances and writes the measurements as CSV and JSON.
+   *
+   * The instances are read once before the measurement. The arguments are all optional: the
+   * number of threads (default: the number of processors), the number of warm-up runs (2) and of
+   * measured runs (5) per solver and instance, the time limit per run in milliseconds (10000) and
+   * the path of the output files without extension (target/results).
+   *
+   * @param args [threads [warm-up [repetitions [timeout [output]]]]]
+   * @throws IOException if an instance cannot be read or the results cannot be written
+   * @throws InterruptedException if the thread is interrupted while waiting for the results
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    final int threads =
+        args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    final int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+    final int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    final long timeout = args.length > 3 ? Long.parseLong(args[3]) : 10000;
+    final String output = args.length > 4 ? args[4] : "target/results";
 
-    Logger.enable();
+    final BenchmarkRunner runner = new BenchmarkRunner(threads, warmup, repetitions, timeout);
 
     final int FRST_ENTRY = 0;
     final int SECD_ENTRY = 1;
     int[][] instances = new int[][] {{10, 1}, {15, 1}, {20, 2}, {30, 1}, {40, 1}, {50, 1}, {60, 1},
         {100, 2}, {500, 1}, {1000, 1}// , {5000,2}, {10000,5}
     };
+    for (int i = 0; i < instances.length; i++) {
+      for (int j = 1; j <= instances[i][SECD_ENTRY]; j++) {
+        final String filename =
+            "rucksack" + String.format("%05d", instances[i][FRST_ENTRY]) + "-" + j + ".txt";
+        final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + filename);
+        instance.setFilename(filename);
+        runner.addInstance(instance);
+      }
+    }
 
-    ArrayList<SolverInterface<?>> solvers = new ArrayList<>();
-    solvers.add(new Enumeration());
-    solvers.add(new GreedyHeuristic());
-    solvers.add(new FractionalSolver());
-    solvers.add(new BranchAndBound());
-    solvers.add(new ConstraintProgramming());
-    solvers.add(new SimulatedAnnealing());
+    runner.addSolver(Enumeration::new, 20);
+    runner.addSolver(GreedyHeuristic::new);
+    runner.addSolver(FractionalSolver::new);
+    runner.addSolver(BranchAndBound::new, 100);
+    runner.addSolver(ConstraintProgramming::new, 50);
+    runner.addSolver(() -> new ReducedSolver(new BranchAndBound()));
+    runner.addSolver(NemhauserUllmann::new);
+    runner.addSolver(LargeNeighbourhoodSearch::new);
+    runner.addSolver(SolverDispatcher::new);
+    runner.addSolver(SolverPortfolio::new);
+    runner.addSolver(SimulatedAnnealing::new);
 
     for (TerminationCondition terminationCondition : TerminationCondition.values()) {
       for (AttributeType attributeType : AttributeType.values()) {
         for (AllowedSolutions allowedSolutions : AllowedSolutions.values()) {
-          solvers.add(new TabuSearch(InitialSolutionType.GREEDY, terminationCondition,
+          runner.addSolver(() -> new TabuSearch(InitialSolutionType.GREEDY, terminationCondition,
               attributeType, allowedSolutions));
         }
       }
     }
 
+    final List<BenchmarkRunner.Cell> cells = runner.run();
 
-    for (SolverInterface<?> solver : solvers) {
-      int index = 0;
-      final int COLUMN_NUMER = 6;
-      ArrayList<String>[] valueMatrix = new ArrayList[COLUMN_NUMER];
-      for (int i = 0; i < valueMatrix.length; i++) {
-        valueMatrix[i] = new ArrayList<>(20);
-      }
-
-      for (int i = 0; i < instances.length; i++) {
-        for (int j = 1; j <= instances[i][SECD_ENTRY]; j++) {
-          final String filename =
-              "rucksack" + String.format("%05d", instances[i][FRST_ENTRY]) + "-" + j + ".txt";
-          final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + filename);
-          instance.setFilename(filename);
-          System.out.println("# Instance file: " + filename);
-          System.out.println("# Number of items: " + instance.getSize());
-          System.out.println("# Capacity of knapsack: " + instance.getCapacity());
-
-
-          if (solver instanceof Enumeration && instance.getSize() > 20) {
-            break;
-          }
-          if (solver instanceof BranchAndBound && instance.getSize() > 100) {
-            break;
-          }
-          if (solver instanceof ConstraintProgramming && instance.getSize() > 50) {
-            break;
-          }
-
-
-          if (solver instanceof FractionalSolver) {
-            runSolver((SolverInterface<GenericSolution<Double>>) solver, instance, valueMatrix);
-          } else {
-            runSolver((SolverInterface<GenericSolution<Integer>>) solver, instance, valueMatrix);
-          }
-
-          // runSolver(solver, instance, valueMatrix);
-
-
-
-        }
-      }
+    final Path csv = Paths.get(output + ".csv");
+    final Path json = Paths.get(output + ".json");
+    if (csv.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(csv.toAbsolutePath().getParent());
+    }
+    try (Writer out = Files.newBufferedWriter(csv)) {
+      BenchmarkRunner.writeCsv(cells, out);
+    }
+    try (Writer out = Files.newBufferedWriter(json)) {
+      BenchmarkRunner.writeJson(cells, out);
+    }
 
-      String[] header =
-          new String[] {"solver name", "filename", "#items", "capacity", "value", "time"};
-      String[][] matrix = new String[valueMatrix.length][valueMatrix[0].size()];
-      for (int i = 0; i < valueMatrix.length; i++) {
-        matrix[i] = valueMatrix[i].toArray(new String[0]);
-      }
-      printMatrix(matrix, header);
+    String[] header = new String[] {"solver name", "filename", "#items", "status", "value", "gap",
+        "min", "median", "p95"};
+    String[][] matrix = new String[header.length][cells.size()];
+    for (int j = 0; j < cells.size(); j++) {
+      final BenchmarkRunner.Cell cell = cells.get(j);
+      matrix[0][j] = cell.getSolver();
+      matrix[1][j] = cell.getInstance().getFilename();
+      matrix[2][j] = String.valueOf(cell.getInstance().getSize());
+      matrix[3][j] = cell.getStatus().name();
+      matrix[4][j] = Double.isNaN(cell.getValue()) ? "-" : String.format("%.0f", cell.getValue());
+      matrix[5][j] =
+          Double.isNaN(cell.getGap()) ? "-" : String.format("%.2f%%", 100 * cell.getGap());
+      matrix[6][j] = seconds(cell.getMinNanos());
+      matrix[7][j] = seconds(cell.getMedianNanos());
+      matrix[8][j] = seconds(cell.getP95Nanos());
     }
+    printMatrix(matrix, header);
+    System.out.println("Results written to " + csv + " and " + json);
+  }
+
+  private static String seconds(long nanos) {
+    return nanos < 0 ? "-" : String.format("%.6fs", nanos / 1e9);
   }
 
 }
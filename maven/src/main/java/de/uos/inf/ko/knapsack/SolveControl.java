@@ -0,0 +1,168 @@
+package de.uos.inf.ko.knapsack;
+
+/**
+ * Controls a run of an {@link AnytimeSolver}: a deadline, a cancellation flag and the best known
+ * solution of the instance, which may be shared by solvers that run concurrently.
+ *
+ * Solvers publish their improvements with {@link #offer(Solution, String)}, which passes them on
+ * to the {@link Listener}, and read the value of the best solution with {@link #getValue()} to
+ * prune with it. They check {@link #shouldStop()} regularly and return their best result soon after
+ * the deadline has passed or the run has been cancelled. The value and the flag are volatile, so
+ * they are cheap enough to be read at every node of a search. An accepted improvement is recorded
+ * in the {@link SolveStats} of the thread that offers it.
+ *
+ * A child control ({@link #createChild()}) has its own best solution, e.g. for a transformed
+ * instance, but shares the deadline (or an earlier one) and is cancelled together with its parent.
+ */
+public class SolveControl {
+  /**
+   * Receives the improvements of the best solution.
+   */
+  public interface Listener {
+    /**
+     * Called by the solver thread for every new best solution, while the control is locked.
+     *
+     * @param solution the new best solution, which must not be changed
+     * @param source the name of the solver that found the solution
+     */
+    void improved(Solution solution, String source);
+  }
+
+  private final SolveControl parent;
+  private final long deadline;
+
+  private volatile long value = -1;
+  private volatile boolean cancelled = false;
+
+  private Solution solution = null;
+  private String source = null;
+  private Listener listener = null;
+
+  /**
+   * Creates a control without a deadline.
+   */
+  public SolveControl() {
+    this(null, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a control whose deadline is the given time from now.
+   *
+   * @param timeLimit the time limit in milliseconds
+   */
+  public SolveControl(long timeLimit) {
+    this(null, deadline(timeLimit));
+  }
+
+  private SolveControl(SolveControl parent, long deadline) {
+    this.parent = parent;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Creates a control with the same deadline that is cancelled together with this one. Its best
+   * solution is independent of this control.
+   */
+  public SolveControl createChild() {
+    return new SolveControl(this, deadline);
+  }
+
+  /**
+   * Creates a control that is cancelled together with this one and whose deadline is the given time
+   * from now, or the deadline of this control if that is earlier. Its best solution is independent
+   * of this control.
+   *
+   * @param timeLimit the time limit in milliseconds
+   */
+  public SolveControl createChild(long timeLimit) {
+    return new SolveControl(this, Math.min(deadline, deadline(timeLimit)));
+  }
+
+  private static long deadline(long timeLimit) {
+    return System.nanoTime() + Math.min(timeLimit, Long.MAX_VALUE / 4000000) * 1000000;
+  }
+
+  public synchronized void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Publishes a feasible solution. It replaces the best solution if its value is higher.
+   *
+   * @param solution a feasible solution, which must not be changed afterwards
+   * @param source the name of the solver that found the solution
+   * @return true if the solution is the new best solution
+   */
+  public synchronized boolean offer(Solution solution, String source) {
+    if (solution == null || solution.getValue() <= value) {
+      return false;
+    }
+    this.solution = solution;
+    this.source = source;
+    value = solution.getValue();
+    SolveStats.current().improved();
+    if (listener != null) {
+      listener.improved(solution, source);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the value of the best solution, or -1 if there is none
+   */
+  public long getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the best solution, or null if there is none
+   */
+  public synchronized Solution getSolution() {
+    return solution;
+  }
+
+  /**
+   * Returns the name of the solver that found the best solution, or null if there is none
+   */
+  public synchronized String getSource() {
+    return source;
+  }
+
+  /**
+   * Creates the result of a run from the best solution and a proven upper bound. The result holds
+   * the {@link SolveStats statistics} of the solver running on the calling thread.
+   *
+   * @param upperBound an upper bound on the value of all feasible solutions
+   */
+  public SolveResult result(long upperBound) {
+    final SolveStats stats = SolveStats.current();
+    return new SolveResult(getSolution(), getSource(), upperBound,
+        stats.isRunning() ? stats.snapshot() : new SolveStats());
+  }
+
+  /**
+   * Asks all solvers working with this control (and its children) to stop.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled || (parent != null && parent.isCancelled());
+  }
+
+  /**
+   * Checks whether the deadline has passed.
+   */
+  public boolean isExpired() {
+    return deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * Checks whether a solver should stop, i.e. whether the run has been cancelled or the deadline
+   * has passed.
+   */
+  public boolean shouldStop() {
+    return isCancelled() || isExpired();
+  }
+}
@@ -0,0 +1,88 @@
+package de.uos.inf.ko.knapsack;
+
+/**
+ * The result of a run of an {@link AnytimeSolver}: the best solution found and a proven upper bound
+ * on the value of all feasible solutions.
+ */
+public class SolveResult {
+  private final Solution solution;
+  private final String source;
+  private final long upperBound;
+  private final SolveStats stats;
+
+  /**
+   * Creates a result without statistics.
+   *
+   * @param solution the best solution
+   * @param source the name of the solver that found the solution
+   * @param upperBound an upper bound on the value of all feasible solutions
+   */
+  public SolveResult(Solution solution, String source, long upperBound) {
+    this(solution, source, upperBound, new SolveStats());
+  }
+
+  /**
+   * Creates a result.
+   *
+   * @param solution the best solution
+   * @param source the name of the solver that found the solution
+   * @param upperBound an upper bound on the value of all feasible solutions
+   * @param stats the statistics of the run
+   */
+  public SolveResult(Solution solution, String source, long upperBound, SolveStats stats) {
+    if (solution == null) {
+      throw new IllegalArgumentException("A result needs a solution");
+    }
+    this.solution = solution;
+    this.source = source;
+    this.upperBound = upperBound;
+    this.stats = stats;
+  }
+
+  public Solution getSolution() {
+    return solution;
+  }
+
+  /**
+   * Returns the name of the solver that found the solution
+   */
+  public String getSource() {
+    return source;
+  }
+
+  public long getValue() {
+    return solution.getValue();
+  }
+
+  public long getUpperBound() {
+    return upperBound;
+  }
+
+  /**
+   * Returns the statistics of the run up to the creation of the result
+   */
+  public SolveStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Checks whether the solution is proven to be optimal
+   */
+  public boolean isOptimal() {
+    return getValue() >= upperBound;
+  }
+
+  /**
+   * Returns the relative optimality gap (upper bound - value) / upper bound, 0 if the solution is
+   * optimal
+   */
+  public double getGap() {
+    return upperBound <= getValue() ? 0 : (double) (upperBound - getValue()) / upperBound;
+  }
+
+  @Override
+  public String toString() {
+    return "value " + getValue() + ", bound " + upperBound
+        + String.format(", gap %.4f%%", 100 * getGap()) + ", found by " + source;
+  }
+}
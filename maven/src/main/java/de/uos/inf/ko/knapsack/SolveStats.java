@@ -0,0 +1,271 @@
+package de.uos.inf.ko.knapsack;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Counters of a solver run: the nodes of a search and why nodes were pruned, the evaluations of
+ * bounds, the moves of a local search, the restarts and the time until the best solution was found.
+ *
+ * Every thread has one statistics object. A solver calls {@link #begin()} when it starts and
+ * {@link #end()} in a finally block when it returns; solvers called by a solver on the same thread
+ * count into the same object, which is reset only when the outermost solver begins. The counters
+ * are plain fields of an object that only its thread changes, so a solver can count in its hot
+ * loops without synchronization. A solver that runs parts of its work on other threads adds their
+ * statistics with {@link #add(SolveStats)}.
+ *
+ * The statistics of a run are returned alongside the solution: by
+ * {@link SolveResult#getStats()} for an {@link AnytimeSolver}, and by {@link #last()} after a call
+ * of {@link SolverInterface#solve(Instance)}. The time to the best solution is taken whenever a
+ * {@link SolveControl} accepts an improvement or a solver reports one with {@link #improved()}.
+ */
+public final class SolveStats {
+  /**
+   * The reasons for pruning a node
+   */
+  public enum Prune {
+    /** the bound of the node does not exceed the best value */
+    BOUND,
+    /** the node exceeds the capacity */
+    INFEASIBLE,
+    /** the node is dominated by another node */
+    DOMINANCE
+  }
+
+  private static final ThreadLocal<SolveStats> CURRENT = ThreadLocal.withInitial(SolveStats::new);
+  private static final ThreadLocal<SolveStats> LAST = new ThreadLocal<>();
+
+  private int depth = 0;
+  private long start = System.nanoTime();
+  private long nanos = 0;
+  private boolean found = false;
+  private long best;
+
+  private long nodes;
+  private final long[] prunes = new long[Prune.values().length];
+  private long boundEvaluations;
+  private long movesEvaluated;
+  private long movesAccepted;
+  private long restarts;
+
+  /**
+   * Creates empty statistics, e.g. for a result that was not computed by a solver.
+   */
+  public SolveStats() {
+  }
+
+  /**
+   * Starts counting a solver run on this thread. The statistics are reset unless the thread is
+   * already running a solver.
+   *
+   * @return the statistics of this thread
+   */
+  public static SolveStats begin() {
+    final SolveStats stats = CURRENT.get();
+    if (stats.depth++ == 0) {
+      stats.reset();
+    }
+    return stats;
+  }
+
+  /**
+   * Ends a run started by {@link #begin()}. The end of the outermost run makes its statistics
+   * available by {@link #last()}.
+   */
+  public void end() {
+    if (--depth == 0) {
+      LAST.set(snapshot());
+    }
+  }
+
+  /**
+   * Returns the statistics of this thread, which are counted into if a solver is running
+   */
+  public static SolveStats current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Returns the statistics of the last run completed on this thread, or null if there is none
+   */
+  public static SolveStats last() {
+    return LAST.get();
+  }
+
+  /**
+   * Checks whether a solver is running on the thread of these statistics
+   */
+  public boolean isRunning() {
+    return depth > 0;
+  }
+
+  private void reset() {
+    start = System.nanoTime();
+    nanos = -1;
+    found = false;
+    nodes = 0;
+    Arrays.fill(prunes, 0);
+    boundEvaluations = 0;
+    movesEvaluated = 0;
+    movesAccepted = 0;
+    restarts = 0;
+  }
+
+  /**
+   * Returns a copy of the statistics; the runtime of a running solver is the time until now.
+   */
+  public SolveStats snapshot() {
+    final SolveStats copy = new SolveStats();
+    copy.start = start;
+    copy.nanos = nanos >= 0 ? nanos : System.nanoTime() - start;
+    copy.add(this);
+    return copy;
+  }
+
+  /**
+   * Adds the counters of another run, e.g. of a part of the run done by another thread. The time to
+   * the best solution is the later of both.
+   *
+   * @param other the statistics of the other run
+   */
+  public void add(SolveStats other) {
+    nodes += other.nodes;
+    for (int i = 0; i < prunes.length; i++) {
+      prunes[i] += other.prunes[i];
+    }
+    boundEvaluations += other.boundEvaluations;
+    movesEvaluated += other.movesEvaluated;
+    movesAccepted += other.movesAccepted;
+    restarts += other.restarts;
+    if (other.found) {
+      best = found ? Math.max(best, other.best) : other.best;
+      found = true;
+    }
+  }
+
+  public void node() {
+    nodes++;
+  }
+
+  public void addNodes(long count) {
+    nodes += count;
+  }
+
+  public void prune(Prune reason) {
+    prunes[reason.ordinal()]++;
+  }
+
+  public void addPrunes(Prune reason, long count) {
+    prunes[reason.ordinal()] += count;
+  }
+
+  public void boundEvaluated() {
+    boundEvaluations++;
+  }
+
+  public void addBoundEvaluations(long count) {
+    boundEvaluations += count;
+  }
+
+  /**
+   * Counts an evaluated move of a local search.
+   *
+   * @param accepted whether the move was made
+   */
+  public void move(boolean accepted) {
+    movesEvaluated++;
+    if (accepted) {
+      movesAccepted++;
+    }
+  }
+
+  /**
+   * Counts moves of a local search.
+   *
+   * @param evaluated the number of evaluated moves
+   * @param accepted the number of moves made
+   */
+  public void addMoves(long evaluated, long accepted) {
+    movesEvaluated += evaluated;
+    movesAccepted += accepted;
+  }
+
+  public void restart() {
+    restarts++;
+  }
+
+  public void addRestarts(long count) {
+    restarts += count;
+  }
+
+  /**
+   * Records that the best solution of the run has been found now.
+   */
+  public void improved() {
+    best = System.nanoTime();
+    found = true;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the number of nodes pruned for a reason
+   */
+  public long getPrunes(Prune reason) {
+    return prunes[reason.ordinal()];
+  }
+
+  /**
+   * Returns the number of nodes pruned for any reason
+   */
+  public long getPrunes() {
+    long total = 0;
+    for (long count : prunes) {
+      total += count;
+    }
+    return total;
+  }
+
+  public long getBoundEvaluations() {
+    return boundEvaluations;
+  }
+
+  public long getMovesEvaluated() {
+    return movesEvaluated;
+  }
+
+  public long getMovesAccepted() {
+    return movesAccepted;
+  }
+
+  public long getRestarts() {
+    return restarts;
+  }
+
+  /**
+   * Returns the time from the start of the run until the best solution was found in nanoseconds,
+   * or -1 if no solution was reported
+   */
+  public long getTimeToBest() {
+    return found ? Math.max(0, best - start) : -1;
+  }
+
+  /**
+   * Returns the runtime in nanoseconds; for the statistics of a running solver, the time so far
+   */
+  public long getNanos() {
+    return nanos >= 0 ? nanos : System.nanoTime() - start;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT,
+        "%d nodes, pruned %d by bound, %d infeasible, %d dominated, %d bound evaluations, "
+            + "%d of %d moves accepted, %d restarts, best after %.3f ms of %.3f ms",
+        nodes, getPrunes(Prune.BOUND), getPrunes(Prune.INFEASIBLE), getPrunes(Prune.DOMINANCE),
+        boundEvaluations, movesAccepted, movesEvaluated, restarts, getTimeToBest() / 1e6,
+        getNanos() / 1e6);
+  }
+}
@@ -3,6 +3,10 @@ package de.uos.inf.ko.knapsack;
 /**
  * An interface for knapsack problem solvers
  *
+ * A solver keeps the state of a run local to the call of {@link #solve(Instance)}, so a single
+ * (warmed-up) instance can serve concurrent calls from several threads. Solvers that cannot do so
+ * say so in their documentation.
+ *
  * @author Stephan Beyer
  */
 public interface SolverInterface<SolutionType> {
@@ -0,0 +1,310 @@
+package de.uos.inf.ko.knapsack.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+import de.uos.inf.ko.knapsack.Instance;
+
+/**
+ * Generates random instances of the knapsack problem of the classes described by Pisinger ("Where
+ * are the hard knapsack problems?", 2005) and writes them in the format of the
+ * {@link de.uos.inf.ko.knapsack.reader.Reader Reader}.
+ *
+ * The weights are drawn uniformly from 1 to the range R, the values depend on the class (see
+ * {@link Type}). The capacity is the given fraction of the total weight. The items are derived from
+ * a SplitMix64 generator whose only state is the seed, so the same parameters always give the same
+ * instance. The file is written item by item while the items are generated and only the total
+ * weight is kept, since the capacity comes last in the format; an instance with 10^7 items needs no
+ * more memory than one with 10. The file is written to a temporary file first and moved to its
+ * place when it is complete.
+ *
+ * A capacity must fit into an int. The generator rejects parameters up front if the fraction of
+ * the largest possible total weight, i.e. the number of items times the largest weight of the
+ * class, does not. With the default range of 1000 and half of the total weight as capacity, this
+ * allows about four million items (two million spanner items); instances with 10^7 items need a
+ * smaller range, 200 suffices for all classes.
+ *
+ * @author
+ */
+public class InstanceGenerator {
+  /**
+   * The classes of instances
+   */
+  public enum Type {
+    /** values and weights are independent, uniform from 1 to R */
+    UNCORRELATED,
+    /** the value differs from the weight by at most R/10, but is at least 1 */
+    WEAKLY_CORRELATED,
+    /** the value is the weight plus R/10 */
+    STRONGLY_CORRELATED,
+    /** the weight is the value plus R/10, the values are uniform from 1 to R */
+    INVERSE_STRONGLY_CORRELATED,
+    /** the value is the weight plus R/10, give or take R/500 */
+    ALMOST_STRONGLY_CORRELATED,
+    /** the value equals the weight */
+    SUBSET_SUM,
+    /**
+     * every item is a multiple from 1 to 10 of one of two strongly correlated spanner items with
+     * weights and values scaled down by 2/10
+     */
+    SPANNER
+  }
+
+  private static final int SPANNER_ITEMS = 2;
+  private static final int SPANNER_MULTIPLIER = 10;
+
+  private final Type type;
+  private final int size;
+  private final int range;
+  private final double fraction;
+  private final long seed;
+
+  /**
+   * Receives the generated items one after the other.
+   */
+  private interface Sink {
+    void item(int value, int weight) throws IOException;
+  }
+
+  /**
+   * Creates a generator with the range 1000 and half of the total weight as capacity.
+   *
+   * @param type the class of the instance
+   * @param size the number of items
+   * @param seed the seed of the random number generator
+   */
+  public InstanceGenerator(Type type, int size, long seed) {
+    this(type, size, 1000, 0.5, seed);
+  }
+
+  /**
+   * Creates a generator.
+   *
+   * @param type the class of the instance
+   * @param size the number of items
+   * @param range the maximum weight R of the uncorrelated weights, at least 10
+   * @param fraction the capacity as a fraction of the total weight, greater than 0 and less than 1
+   * @param seed the seed of the random number generator
+   * @throws IllegalArgumentException if a parameter is out of range or the capacity may not fit
+   *         into an int
+   */
+  public InstanceGenerator(Type type, int size, int range, double fraction, long seed) {
+    if (size < 1) {
+      throw new IllegalArgumentException("An instance needs at least one item");
+    }
+    if (range < 10 || range > (1 << 26)) {
+      throw new IllegalArgumentException("The range must be between 10 and 2^26");
+    }
+    if (!(fraction > 0 && fraction < 1)) {
+      throw new IllegalArgumentException("The capacity must be a fraction of the total weight");
+    }
+    if (fraction * size * maxWeight(type, range) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The capacity of " + size + " items with weights up to "
+          + maxWeight(type, range) + " may not fit into an int, use a smaller range or fraction");
+    }
+    this.type = type;
+    this.size = size;
+    this.range = range;
+    this.fraction = fraction;
+    this.seed = seed;
+  }
+
+  /**
+   * Returns the largest weight of an item of a class.
+   */
+  private static long maxWeight(Type type, int range) {
+    switch (type) {
+      case INVERSE_STRONGLY_CORRELATED:
+        return range + range / 10;
+      case SPANNER:
+        // a multiple of the weight of a spanner item, which is rounded up
+        return (long) SPANNER_MULTIPLIER
+            * ((2 * range + SPANNER_MULTIPLIER - 1) / SPANNER_MULTIPLIER);
+      default:
+        return range;
+    }
+  }
+
+  /**
+   * Returns a name of the instance file that states its parameters, e.g.
+   * {@code strongly_correlated-0001000-r1000-s42.txt}.
+   */
+  public String getFilename() {
+    return String.format(Locale.ROOT, "%s-%07d-r%d-s%d.txt", type.name().toLowerCase(Locale.ROOT),
+        size, range, seed);
+  }
+
+  /**
+   * Generates the instance in memory.
+   *
+   * @return the instance, named by {@link #getFilename()}
+   */
+  public Instance generate() {
+    final Instance instance = new Instance(size);
+    final int[] next = {0};
+    final long weight;
+    try {
+      weight = generate((value, w) -> instance.set(next[0]++, value, w));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    instance.setCapacity(capacity(weight));
+    instance.setFilename(getFilename());
+    return instance;
+  }
+
+  /**
+   * Writes the instance to a file without keeping its items in memory.
+   *
+   * @param file the instance file, which is replaced
+   * @throws IOException if the file cannot be written
+   */
+  public void write(Path file) throws IOException {
+    final Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (Writer out = new BufferedWriter(
+          new OutputStreamWriter(Files.newOutputStream(temporary), StandardCharsets.US_ASCII),
+          1 << 16)) {
+        out.write(size + "\n");
+        final long weight = generate((value, w) -> {
+          out.write(Integer.toString(value));
+          out.write(' ');
+          out.write(Integer.toString(w));
+          out.write('\n');
+        });
+        out.write(capacity(weight) + "\n");
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Returns the capacity for a total weight, which fits into an int by the check of the
+   * constructor.
+   */
+  private int capacity(long weight) {
+    return (int) Math.max(1, (long) (fraction * weight));
+  }
+
+  /**
+   * Generates the items in order and returns their total weight.
+   */
+  private long generate(Sink sink) throws IOException {
+    final SplitMix64 random = new SplitMix64(seed);
+    final int tenth = range / 10;
+
+    // the spanner items are drawn first, then scaled down
+    final int[] spannerValues = new int[SPANNER_ITEMS];
+    final int[] spannerWeights = new int[SPANNER_ITEMS];
+    if (type == Type.SPANNER) {
+      for (int k = 0; k < SPANNER_ITEMS; k++) {
+        final int weight = random.between(1, range);
+        spannerWeights[k] = (2 * weight + SPANNER_MULTIPLIER - 1) / SPANNER_MULTIPLIER;
+        spannerValues[k] = (2 * (weight + tenth) + SPANNER_MULTIPLIER - 1) / SPANNER_MULTIPLIER;
+      }
+    }
+
+    long total = 0;
+    for (int i = 0; i < size; i++) {
+      int weight = random.between(1, range);
+      int value;
+      switch (type) {
+        case UNCORRELATED:
+          value = random.between(1, range);
+          break;
+        case WEAKLY_CORRELATED:
+          do {
+            value = weight + random.between(-tenth, tenth);
+          } while (value < 1);
+          break;
+        case STRONGLY_CORRELATED:
+          value = weight + tenth;
+          break;
+        case INVERSE_STRONGLY_CORRELATED:
+          value = weight;
+          weight = value + tenth;
+          break;
+        case ALMOST_STRONGLY_CORRELATED:
+          value = weight + tenth + random.between(-range / 500, range / 500);
+          break;
+        case SUBSET_SUM:
+          value = weight;
+          break;
+        case SPANNER:
+          final int k = random.between(0, SPANNER_ITEMS - 1);
+          final int multiplier = random.between(1, SPANNER_MULTIPLIER);
+          value = multiplier * spannerValues[k];
+          weight = multiplier * spannerWeights[k];
+          break;
+        default:
+          throw new IllegalStateException("Unknown type " + type);
+      }
+      sink.item(value, weight);
+      total += weight;
+    }
+    return total;
+  }
+
+  /**
+   * The SplitMix64 generator, whose whole state is one number.
+   */
+  private static final class SplitMix64 {
+    private long state;
+
+    SplitMix64(long seed) {
+      this.state = seed;
+    }
+
+    /**
+     * Returns a uniform random number between from and to, both inclusive.
+     */
+    int between(int from, int to) {
+      state += 0x9E3779B97F4A7C15L;
+      long z = state;
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      z = z ^ (z >>> 31);
+      return from + (int) (((z >>> 32) * (to - from + 1)) >>> 32);
+    }
+  }
+
+  /**
+   * Writes an instance file.
+   *
+   * @param args the type (e.g. {@code strongly_correlated}), the number of items and optionally the
+   *        seed (default 1), the range (1000), the capacity fraction (0.5) and the file (named by
+   *        {@link #getFilename()} in the working directory)
+   * @throws IOException if the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: InstanceGenerator type size [seed [range [fraction [file]]]]");
+      return;
+    }
+    final Type type = Type.valueOf(args[0].toUpperCase(Locale.ROOT));
+    final int size = Integer.parseInt(args[1]);
+    final long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+    final int range = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+    final double fraction = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+    final InstanceGenerator generator = new InstanceGenerator(type, size, range, fraction, seed);
+    final Path file = Paths.get(args.length > 5 ? args[5] : generator.getFilename());
+
+    final long start = System.nanoTime();
+    generator.write(file);
+    System.out.println(String.format(Locale.ROOT, "%s written in %.3fs", file,
+        (System.nanoTime() - start) / 1e9));
+  }
+}
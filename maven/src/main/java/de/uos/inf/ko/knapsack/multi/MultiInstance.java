@@ -0,0 +1,166 @@
+package de.uos.inf.ko.knapsack.multi;
+
+/**
+ * An instance of the multidimensional knapsack problem: every item has a value and a weight in each
+ * of m dimensions, and the knapsack has a capacity in each dimension.
+ *
+ * The weights are stored row-major in a single array, i.e. the m weights of an item are
+ * consecutive, so checking or updating all dimensions for one item touches a single cache line.
+ */
+public class MultiInstance {
+  private final int[] values;
+  private final int[] weights;
+  private final int[] capacities;
+  private final int m;
+
+  private String filename = "";
+
+  /**
+   * Constructs an instance with the given number of items and dimensions. All capacities are 0.
+   *
+   * @param number the number of items
+   * @param dimensions the number of dimensions
+   */
+  public MultiInstance(int number, int dimensions) {
+    values = new int[number];
+    weights = new int[number * dimensions];
+    capacities = new int[dimensions];
+    m = dimensions;
+  }
+
+  public void setFilename(String filename) {
+    this.filename = filename;
+  }
+
+  public String getFilename() {
+    return filename;
+  }
+
+  /**
+   * Set value and weights for an item.
+   *
+   * @param item Item index
+   * @param value Value of item to be set
+   * @param weights Weights of the item, one per dimension
+   */
+  public void set(int item, int value, int... weights) {
+    if (weights.length != m) {
+      throw new IllegalArgumentException(
+          "Expected " + m + " weights, but got " + weights.length);
+    }
+    values[item] = value;
+    System.arraycopy(weights, 0, this.weights, item * m, m);
+  }
+
+  /**
+   * Get value for an item.
+   *
+   * @param item Item index
+   */
+  public int getValue(int item) {
+    return values[item];
+  }
+
+  /**
+   * Get weight for an item in a dimension.
+   *
+   * @param item Item index
+   * @param dimension Dimension index
+   */
+  public int getWeight(int item, int dimension) {
+    return weights[item * m + dimension];
+  }
+
+  /**
+   * Set weight for an item in a dimension.
+   *
+   * @param item Item index
+   * @param dimension Dimension index
+   * @param weight Weight to be set
+   */
+  public void setWeight(int item, int dimension, int weight) {
+    weights[item * m + dimension] = weight;
+  }
+
+  /**
+   * Get the row-major array of all weights: the weight of item i in dimension d is at index
+   * i * getDimensions() + d.
+   */
+  public int[] getWeightArray() {
+    return weights;
+  }
+
+  /**
+   * Get capacity of the knapsack in a dimension.
+   *
+   * @param dimension Dimension index
+   */
+  public int getCapacity(int dimension) {
+    return capacities[dimension];
+  }
+
+  /**
+   * Set capacity of the knapsack in a dimension.
+   *
+   * @param dimension Dimension index
+   * @param capacity The capacity
+   */
+  public void setCapacity(int dimension, int capacity) {
+    capacities[dimension] = capacity;
+  }
+
+  /**
+   * Get number of items.
+   */
+  public int getSize() {
+    return values.length;
+  }
+
+  /**
+   * Get number of dimensions.
+   */
+  public int getDimensions() {
+    return m;
+  }
+
+  /**
+   * Checks whether an item fits into the given slack, stopping at the first dimension that is
+   * exceeded.
+   *
+   * @param item Item index
+   * @param slack the residual capacity per dimension
+   */
+  public boolean fits(int item, long[] slack) {
+    final int offset = item * m;
+    for (int d = 0; d < m; d++) {
+      if (weights[offset + d] > slack[d]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether a packing respects all capacities. The rows of the packed items are read once,
+   * in memory order, and the check stops at the first item that exceeds a capacity, since the
+   * weights are not negative.
+   *
+   * @param packed the packing, indexed by item
+   */
+  public boolean isFeasible(boolean[] packed) {
+    final long[] weight = new long[m];
+    for (int i = 0; i < values.length; i++) {
+      if (!packed[i]) {
+        continue;
+      }
+      final int offset = i * m;
+      for (int d = 0; d < m; d++) {
+        weight[d] += weights[offset + d];
+        if (weight[d] > capacities[d]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,129 @@
+package de.uos.inf.ko.knapsack.multi;
+
+/**
+ * A binary solution of a multidimensional knapsack problem.
+ *
+ * The solution keeps its value and the slack (residual capacity) of every dimension up to date, so
+ * adding, removing and checking an item take O(m) instead of O(n m).
+ */
+public class MultiSolution {
+  private final MultiInstance instance;
+  private final boolean[] packed;
+  private final long[] slack;
+  private long value = 0;
+
+  /**
+   * Creates the empty solution of an instance.
+   */
+  public MultiSolution(MultiInstance instance) {
+    this.instance = instance;
+    packed = new boolean[instance.getSize()];
+    slack = new long[instance.getDimensions()];
+    for (int d = 0; d < slack.length; d++) {
+      slack[d] = instance.getCapacity(d);
+    }
+  }
+
+  /**
+   * Copy a solution (copy constructor)
+   */
+  public MultiSolution(MultiSolution solution) {
+    instance = solution.instance;
+    packed = solution.packed.clone();
+    slack = solution.slack.clone();
+    value = solution.value;
+  }
+
+  public MultiInstance getInstance() {
+    return instance;
+  }
+
+  /**
+   * Checks whether an item is packed.
+   *
+   * @param item Item index
+   */
+  public boolean isPacked(int item) {
+    return packed[item];
+  }
+
+  /**
+   * Checks whether an unpacked item fits into the slack.
+   *
+   * @param item Item index
+   */
+  public boolean canAdd(int item) {
+    return !packed[item] && instance.fits(item, slack);
+  }
+
+  /**
+   * Packs an item. The solution may become infeasible.
+   *
+   * @param item Item index
+   */
+  public void add(int item) {
+    if (packed[item]) {
+      return;
+    }
+    packed[item] = true;
+    value += instance.getValue(item);
+    final int m = slack.length;
+    final int[] weights = instance.getWeightArray();
+    for (int d = 0; d < m; d++) {
+      slack[d] -= weights[item * m + d];
+    }
+  }
+
+  /**
+   * Unpacks an item.
+   *
+   * @param item Item index
+   */
+  public void remove(int item) {
+    if (!packed[item]) {
+      return;
+    }
+    packed[item] = false;
+    value -= instance.getValue(item);
+    final int m = slack.length;
+    final int[] weights = instance.getWeightArray();
+    for (int d = 0; d < m; d++) {
+      slack[d] += weights[item * m + d];
+    }
+  }
+
+  /**
+   * Get the solution value
+   */
+  public long getValue() {
+    return value;
+  }
+
+  /**
+   * Get the residual capacity in a dimension
+   *
+   * @param dimension Dimension index
+   */
+  public long getSlack(int dimension) {
+    return slack[dimension];
+  }
+
+  /**
+   * Get the residual capacities of all dimensions (not a copy)
+   */
+  public long[] getSlackArray() {
+    return slack;
+  }
+
+  /**
+   * Check if the solution is feasible, in O(m) from the slack.
+   */
+  public boolean isFeasible() {
+    for (long s : slack) {
+      if (s < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
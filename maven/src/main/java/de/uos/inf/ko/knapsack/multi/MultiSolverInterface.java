@@ -0,0 +1,21 @@
+package de.uos.inf.ko.knapsack.multi;
+
+/**
+ * An interface for multidimensional knapsack problem solvers
+ */
+public interface MultiSolverInterface {
+  /**
+   * Compute a solution for the given instance
+   *
+   * @param instance The given multidimensional knapsack instance
+   * @return The solution
+   */
+  MultiSolution solve(MultiInstance instance);
+
+  /**
+   * Gives an solver name to identify the solver.
+   *
+   * @return the solver name
+   */
+  String getName();
+}
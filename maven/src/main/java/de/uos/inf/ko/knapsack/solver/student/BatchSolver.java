@@ -0,0 +1,340 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+
+/**
+ * Solves a stream of instances on a fixed number of threads.
+ *
+ * All instances are solved by the same solver, which must be safe to share between threads (see
+ * {@link de.uos.inf.ko.knapsack.SolverInterface}). Solvers such as the {@link BranchAndBound} and
+ * the {@link NemhauserUllmann} algorithm keep their buffers in a {@link ScratchPool}, so every
+ * worker thread reuses them from one instance to the next instead of allocating them again.
+ *
+ * The instances are taken from the stream only as fast as they are solved: at most the number of
+ * threads plus the queue size are accepted but not yet reported (back-pressure), so the stream may
+ * be produced lazily. Every instance is solved with a child of the control of the batch, limited
+ * by the time limit per instance; cancelling the control or reaching its deadline stops the batch,
+ * the instances accepted so far are still reported. The results are reported in completion order,
+ * either to a {@link Callback} or through the iterator of {@link #solve(Stream)}. A solver failing
+ * on an instance is reported as a result with an error and does not stop the batch.
+ *
+ * @author
+ */
+public class BatchSolver {
+  /**
+   * The outcome for a single instance.
+   */
+  public static class Result {
+    private final long index;
+    private final Instance instance;
+    private final SolveResult result;
+    private final RuntimeException error;
+    private final long nanos;
+
+    Result(long index, Instance instance, SolveResult result, RuntimeException error, long nanos) {
+      this.index = index;
+      this.instance = instance;
+      this.result = result;
+      this.error = error;
+      this.nanos = nanos;
+    }
+
+    /**
+     * Returns the position of the instance in the stream, starting with 0
+     */
+    public long getIndex() {
+      return index;
+    }
+
+    public Instance getInstance() {
+      return instance;
+    }
+
+    /**
+     * Returns the result of the solver, or null if it has failed
+     */
+    public SolveResult getResult() {
+      return result;
+    }
+
+    /**
+     * Returns the exception thrown by the solver, or null if it has not failed
+     */
+    public RuntimeException getError() {
+      return error;
+    }
+
+    /**
+     * Returns the runtime of the solver in nanoseconds
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    @Override
+    public String toString() {
+      return "#" + index + " " + instance.getFilename() + ": "
+          + (result != null ? result : "failed: " + error) + " in " + nanos / 1000000 + " ms";
+    }
+  }
+
+  /**
+   * Receives the results of a batch.
+   */
+  public interface Callback {
+    /**
+     * Called by a worker thread for every solved instance, one result at a time.
+     *
+     * @param result the result
+     */
+    void completed(Result result);
+  }
+
+  /**
+   * The results of a batch in completion order. The batch runs in the background; closing the
+   * iterator cancels it.
+   */
+  public static class Results implements Iterator<Result>, AutoCloseable {
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final SolveControl control;
+    private volatile boolean closed = false;
+    private Object next = null;
+
+    Results(int capacity, SolveControl control) {
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.control = control;
+    }
+
+    /**
+     * Waits until the consumer has taken an earlier element or the iterator is closed.
+     */
+    void put(Object element) {
+      try {
+        while (!closed && !queue.offer(element, 10, TimeUnit.MILLISECONDS)) {
+          // the consumer is busy
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        if (closed) {
+          return false;
+        }
+        try {
+          next = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for a result", e);
+        }
+      }
+      if (next instanceof Throwable) {
+        final Throwable failure = (Throwable) next;
+        next = END;
+        rethrow(failure);
+      }
+      return next != END;
+    }
+
+    @Override
+    public Result next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Result result = (Result) next;
+      next = null;
+      return result;
+    }
+
+    /**
+     * Cancels the batch; results that have not been taken yet are dropped.
+     */
+    @Override
+    public void close() {
+      closed = true;
+      control.cancel();
+      queue.clear();
+    }
+  }
+
+  private final AnytimeSolver solver;
+  private final int threads;
+  private final int queueSize;
+  private final long timeLimit;
+
+  /**
+   * Solves on all processors without a time limit, accepting twice as many instances as there are
+   * threads.
+   *
+   * @param solver the solver for all instances
+   */
+  public BatchSolver(AnytimeSolver solver) {
+    this(solver, Runtime.getRuntime().availableProcessors(),
+        Runtime.getRuntime().availableProcessors(), 0);
+  }
+
+  /**
+   * Creates a batch solver.
+   *
+   * @param solver the solver for all instances
+   * @param threads the number of worker threads
+   * @param queueSize the number of accepted instances waiting for a free thread
+   * @param timeLimit the time limit per instance in milliseconds, 0 for none
+   */
+  public BatchSolver(AnytimeSolver solver, int threads, int queueSize, long timeLimit) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is needed");
+    }
+    if (queueSize < 0 || timeLimit < 0) {
+      throw new IllegalArgumentException("Negative queue size or time limit");
+    }
+    this.solver = solver;
+    this.threads = threads;
+    this.queueSize = queueSize;
+    this.timeLimit = timeLimit;
+  }
+
+  /**
+   * Solves all instances of a stream and waits for the last result.
+   *
+   * @param instances the instances
+   * @param callback receives the results in completion order
+   * @return the number of instances solved
+   */
+  public long solve(Stream<? extends Instance> instances, Callback callback) {
+    return solve(instances.iterator(), callback, new SolveControl());
+  }
+
+  /**
+   * Solves the instances until the control asks to stop and waits for the last result. An
+   * exception thrown by the stream or the callback cancels the batch and is rethrown once the
+   * accepted instances are done.
+   *
+   * @param instances the instances
+   * @param callback receives the results in completion order
+   * @param control the deadline and the cancellation flag of the whole batch
+   * @return the number of instances solved
+   */
+  public long solve(Iterator<? extends Instance> instances, Callback callback,
+      SolveControl control) {
+    final SolveControl batch = control.createChild();
+    final int inFlight = threads + queueSize;
+    final Semaphore permits = new Semaphore(inFlight);
+    // the first exception of the stream or the callback; the lock serializes the callbacks
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Object lock = new Object();
+
+    final ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+      final Thread thread = new Thread(runnable, "batch");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long count = 0;
+    try {
+      try {
+        while (true) {
+          permits.acquire();
+          if (batch.shouldStop() || !instances.hasNext()) {
+            permits.release();
+            break;
+          }
+          final Instance instance = instances.next();
+          final long index = count++;
+          pool.execute(() -> {
+            try {
+              final Result result = run(index, instance, batch);
+              synchronized (lock) {
+                if (failure.get() == null) {
+                  callback.completed(result);
+                }
+              }
+            } catch (RuntimeException | Error e) {
+              failure.compareAndSet(null, e);
+              batch.cancel();
+            } finally {
+              permits.release();
+            }
+          });
+        }
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+        batch.cancel();
+      }
+      // all accepted instances have been reported once every permit is free again
+      permits.acquire(inFlight);
+    } catch (InterruptedException e) {
+      batch.cancel();
+      Thread.currentThread().interrupt();
+    } finally {
+      pool.shutdownNow();
+    }
+
+    rethrow(failure.get());
+    return count;
+  }
+
+  /**
+   * Solves all instances of a stream in the background. The results are buffered up to the number
+   * of accepted instances, so a slow consumer slows down the batch instead of filling the memory.
+   *
+   * @param instances the instances
+   * @return the results in completion order
+   */
+  public Results solve(Stream<? extends Instance> instances) {
+    final SolveControl control = new SolveControl();
+    final Results results = new Results(threads + queueSize, control);
+    final Thread feeder = new Thread(() -> {
+      Object end = Results.END;
+      try {
+        solve(instances.iterator(), results::put, control);
+      } catch (RuntimeException | Error e) {
+        end = e;
+      }
+      results.put(end);
+    }, "batch-feeder");
+    feeder.setDaemon(true);
+    feeder.start();
+    return results;
+  }
+
+  private static void rethrow(Throwable failure) {
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw (RuntimeException) failure;
+    }
+  }
+
+  private Result run(long index, Instance instance, SolveControl batch) {
+    final SolveControl control = timeLimit > 0 ? batch.createChild(timeLimit) : batch.createChild();
+    final long start = System.nanoTime();
+    SolveResult result = null;
+    RuntimeException error = null;
+    try {
+      result = solver.solve(instance, control);
+    } catch (RuntimeException e) {
+      error = e;
+    }
+    return new Result(index, instance, result, error, System.nanoTime() - start);
+  }
+}
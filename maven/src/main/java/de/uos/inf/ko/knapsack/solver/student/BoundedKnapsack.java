@@ -0,0 +1,143 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.BoundedInstance;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+
+/**
+ * An exact solver for the bounded knapsack problem (see {@link BoundedInstance}); for a plain
+ * {@link Instance} every item may be packed at most once.
+ *
+ * The bound b of an item is first reduced to the number of copies that fit into the knapsack. The
+ * item is then split into binary items with the quantities 1, 2, 4, ..., 2^(k-1) and the rest
+ * b - 2^k + 1, which represent every quantity from 0 to b. This gives O(log b) instead of b items
+ * per original item. The binary instance is solved by another solver and the quantities are summed
+ * up again. Items with weight 0 are packed completely. An {@link IllegalArgumentException} is
+ * thrown if the value or weight of a binary item does not fit into an int.
+ *
+ * An {@link AnytimeSolver} works on the binary instance with a child of the control, its
+ * improvements and its upper bound are mapped back as they are found. The statistics of the
+ * solver count into the {@link SolveStats} of this run.
+ *
+ * @author
+ */
+public class BoundedKnapsack implements AnytimeSolver {
+  private final SolverInterface<Solution> solver;
+
+  /**
+   * Solves the binary instances with the Nemhauser-Ullmann algorithm.
+   */
+  public BoundedKnapsack() {
+    this(new NemhauserUllmann());
+  }
+
+  /**
+   * Creates a bounded knapsack solver.
+   *
+   * @param solver the exact solver for the binary instances
+   */
+  public BoundedKnapsack(SolverInterface<Solution> solver) {
+    this.solver = solver;
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return split(instance, control);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult split(Instance instance, SolveControl control) {
+    final int n = instance.getSize();
+    final int capacity = instance.getCapacity();
+    final Solution solution = new Solution(instance);
+
+    // effective bounds and the number of binary items
+    final int[] bounds = new int[n];
+    int size = 0;
+    for (int i = 0; i < n; i++) {
+      final int bound =
+          instance instanceof BoundedInstance ? ((BoundedInstance) instance).getBound(i) : 1;
+      final int weight = instance.getWeight(i);
+      if (weight == 0) {
+        if (instance.getValue(i) > 0) {
+          solution.set(i, bound);
+        }
+        continue;
+      }
+      bounds[i] = Math.min(bound, capacity / weight);
+      for (int part = 1, rest = bounds[i]; rest > 0; part <<= 1) {
+        rest -= Math.min(part, rest);
+        size++;
+      }
+    }
+
+    // binary splitting
+    final Instance binary = new Instance(size, capacity);
+    final int[] origin = new int[size];
+    final int[] quantity = new int[size];
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      for (int part = 1, rest = bounds[i]; rest > 0; part <<= 1) {
+        final int q = Math.min(part, rest);
+        final long value = (long) q * instance.getValue(i);
+        final long weight = (long) q * instance.getWeight(i);
+        if (value > Integer.MAX_VALUE || weight > Integer.MAX_VALUE) {
+          throw new IllegalArgumentException(
+              "The value or weight of " + q + " copies of item " + i + " exceeds an int");
+        }
+        binary.set(k, (int) value, (int) weight);
+        origin[k] = i;
+        quantity[k] = q;
+        rest -= q;
+        k++;
+      }
+    }
+
+    // the items with weight 0
+    control.offer(solution, getName());
+    final long packed = solution.getValue();
+    if (size == 0) {
+      return control.result(packed);
+    }
+
+    if (solver instanceof AnytimeSolver) {
+      final SolveControl binaryControl = control.createChild();
+      binaryControl.setListener((binarySolution, source) -> control
+          .offer(combine(solution, binarySolution, origin, quantity), source));
+      final SolveResult result = ((AnytimeSolver) solver).solve(binary, binaryControl);
+      return control.result(packed + result.getUpperBound());
+    }
+
+    // the solver is exact
+    control.offer(combine(solution, solver.solve(binary), origin, quantity), solver.getName());
+    return control.result(control.getValue());
+  }
+
+  /**
+   * Adds the quantities of the packed binary items to a copy of a solution.
+   */
+  private static Solution combine(Solution base, Solution binarySolution, int[] origin,
+      int[] quantity) {
+    final Solution solution = new Solution(base);
+    for (int j = 0; j < origin.length; j++) {
+      if (binarySolution.get(j) == 1) {
+        solution.set(origin[j], solution.get(origin[j]) + quantity[j]);
+      }
+    }
+    return solution;
+  }
+
+  @Override
+  public String getName() {
+    return "Bounded";
+  }
+}
@@ -0,0 +1,580 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import de.uos.inf.ko.knapsack.Instance;
+
+/**
+ * Upper bounds for the binary knapsack problem on the items sorted by efficiency.
+ *
+ * The items are sorted in descending order of their value-to-weight ratio once. A subproblem is
+ * given by a depth d (the items at the positions d, d+1, ... of the sorted order are still free)
+ * and the residual capacity. Prefix sums over the sorted items allow finding the critical item of
+ * a subproblem by binary search, so the Dantzig bound and the Martello-Toth bound are computed in
+ * logarithmic time.
+ *
+ * All bounds are returned for the free items only, i.e. without the value of the items already
+ * packed.
+ *
+ * @author
+ */
+public class Bounds {
+  /**
+   * The available bounds
+   */
+  public enum Type {
+    /**
+     * U1: the optimal value of the fractional relaxation
+     */
+    DANTZIG,
+    /**
+     * U2: branches on the critical item, at least as tight as U1
+     */
+    MARTELLO_TOTH,
+    /**
+     * Relaxations of the capacity constraint together with cardinality constraints, combined with
+     * U2. Takes O(n) time.
+     */
+    SURROGATE
+  }
+
+  private final Instance instance;
+
+  /**
+   * Item indices in descending order of the value-to-weight ratio
+   */
+  private final int[] order;
+
+  // values and weights by sorted position
+  private final int[] values;
+  private final int[] weights;
+
+  // prefix sums over the sorted positions
+  private final long[] prefixWeight;
+  private final long[] prefixValue;
+
+  /**
+   * Counts and sums of the lightest and the most valuable free items, built on first use
+   */
+  private volatile SuffixSums suffixSums;
+
+  /**
+   * Sorts the items of the given instance and computes the prefix sums.
+   *
+   * @param instance the knapsack instance
+   */
+  public Bounds(Instance instance) {
+    this(instance, sortByRatio(instance));
+  }
+
+  /**
+   * Uses an order of the items that is already known, e.g. maintained incrementally, and computes
+   * the prefix sums.
+   *
+   * @param instance the knapsack instance
+   * @param order the item indices in descending order of the value-to-weight ratio
+   */
+  public Bounds(Instance instance, int[] order) {
+    this.instance = instance;
+    final int n = instance.getSize();
+
+    this.order = order;
+    values = new int[n];
+    weights = new int[n];
+    prefixWeight = new long[n + 1];
+    prefixValue = new long[n + 1];
+    for (int k = 0; k < n; k++) {
+      values[k] = instance.getValue(order[k]);
+      weights[k] = instance.getWeight(order[k]);
+      prefixWeight[k + 1] = prefixWeight[k] + weights[k];
+      prefixValue[k + 1] = prefixValue[k] + values[k];
+    }
+  }
+
+  /**
+   * Returns the Martello-Toth bound of a whole instance, the upper bound reported by solvers that
+   * do not prove optimality.
+   *
+   * @param instance the knapsack instance
+   */
+  static long upperBound(Instance instance) {
+    return new Bounds(instance).martelloToth(0, instance.getCapacity());
+  }
+
+  private static int[] sortByRatio(Instance instance) {
+    final int n = instance.getSize();
+    Integer[] perm = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      perm[i] = i;
+    }
+    Arrays.sort(perm, new Comparator<Integer>() {
+      public int compare(Integer o1, Integer o2) {
+        return Double.compare(getRatio(instance, o2), getRatio(instance, o1));
+      }
+    });
+
+    final int[] order = new int[n];
+    for (int k = 0; k < n; k++) {
+      order[k] = perm[k];
+    }
+    return order;
+  }
+
+  private static double getRatio(Instance instance, int i) {
+    return (double) instance.getValue(i) / instance.getWeight(i);
+  }
+
+  /**
+   * Returns the item indices in descending order of the value-to-weight ratio
+   */
+  public int[] getOrder() {
+    return order;
+  }
+
+  /**
+   * Returns the number of items
+   */
+  public int getSize() {
+    return order.length;
+  }
+
+  /**
+   * Returns the value of the item at the given sorted position
+   */
+  public int getValue(int position) {
+    return values[position];
+  }
+
+  /**
+   * Returns the weight of the item at the given sorted position
+   */
+  public int getWeight(int position) {
+    return weights[position];
+  }
+
+  /**
+   * Returns the total weight of the items at the positions from (inclusive) to to (exclusive)
+   */
+  public long getWeight(int from, int to) {
+    return prefixWeight[to] - prefixWeight[from];
+  }
+
+  /**
+   * Returns the total value of the items at the positions from (inclusive) to to (exclusive)
+   */
+  public long getValue(int from, int to) {
+    return prefixValue[to] - prefixValue[from];
+  }
+
+  /**
+   * Returns the position of the critical item of a subproblem, i.e. the first position s such that
+   * the items at the positions depth, ..., s-1 fit into the capacity but the item at position s
+   * does not. Returns the number of items if all free items fit.
+   *
+   * @param depth the first free position
+   * @param capacity the residual capacity
+   */
+  public int criticalPosition(int depth, long capacity) {
+    final long limit = prefixWeight[depth] + capacity;
+    int lo = depth;
+    int hi = order.length;
+    while (lo < hi) {
+      final int mid = (lo + hi + 1) >>> 1;
+      if (prefixWeight[mid] <= limit) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Returns the Dantzig bound U1 of a subproblem.
+   *
+   * @param depth the first free position
+   * @param capacity the residual capacity
+   */
+  public long dantzig(int depth, long capacity) {
+    final int s = criticalPosition(depth, capacity);
+    long bound = getValue(depth, s);
+    if (s < order.length) {
+      final long residual = capacity - getWeight(depth, s);
+      bound += residual * values[s] / weights[s];
+    }
+    return bound;
+  }
+
+  /**
+   * Returns the Martello-Toth bound U2 of a subproblem. The critical item is either excluded (the
+   * residual capacity is filled with the ratio of the next item) or included (the last packed item
+   * is removed fractionally to make room).
+   *
+   * @param depth the first free position
+   * @param capacity the residual capacity
+   */
+  public long martelloToth(int depth, long capacity) {
+    final int s = criticalPosition(depth, capacity);
+    final long packed = getValue(depth, s);
+    if (s == order.length) {
+      return packed;
+    }
+    final long residual = capacity - getWeight(depth, s);
+
+    // critical item excluded
+    long bound = packed;
+    if (s + 1 < order.length) {
+      bound += residual * values[s + 1] / weights[s + 1];
+    }
+
+    // critical item included (impossible if it is the first free item, pointless if the item
+    // before frees no capacity)
+    if (s > depth && weights[s - 1] > 0) {
+      final long overweight = weights[s] - residual;
+      final long included =
+          packed + values[s] - ceilDiv(overweight * values[s - 1], weights[s - 1]);
+      bound = Math.max(bound, included);
+    }
+    return bound;
+  }
+
+  /**
+   * Returns the cardinality-based surrogate bound of a subproblem, the minimum of U2 and two
+   * relaxations that add a constraint on the number of packed items to the capacity constraint:
+   * <ul>
+   * <li>At most kMax items fit, where kMax is the number of the lightest free items that fit into
+   * the capacity. Both constraints are relaxed in a Lagrangian fashion and the multipliers are
+   * optimised (ternary search over the ratio, closed form for the cardinality multiplier). On
+   * strongly correlated items this removes the fractional part of U1.</li>
+   * <li>An improving solution needs a value of at least target from the free items, so it contains
+   * at least kMin items (the kMin most valuable free items reach the target). Relaxing the capacity
+   * constraint with the ratio r of the critical item yields r * capacity plus the sum of the kMin
+   * largest reduced values c_j - r * w_j.</li>
+   * </ul>
+   * The cardinalities kMax and kMin are found in O(log n) from sums over the items of every suffix
+   * of the sorted order that are computed once (see {@link SuffixSums}). The multipliers are then
+   * optimised in O(n) time without sorting. Both relaxations are skipped if U2 is already less
+   * than target.
+   *
+   * The second relaxation is only valid for solutions with a value of at least target, so the
+   * bound may be used to show that no improving solution exists, but not as the value of the
+   * subproblem.
+   *
+   * @param depth the first free position
+   * @param capacity the residual capacity
+   * @param target the value of the free items an improving solution needs
+   * @return the bound, or -1 if the free items cannot reach the target
+   */
+  public long surrogate(int depth, long capacity, long target) {
+    final int s = criticalPosition(depth, capacity);
+    if (s == order.length) {
+      return getValue(depth, s);
+    }
+    long bound = martelloToth(depth, capacity);
+    if (bound < target) {
+      // U2 already shows that no improving solution exists
+      return bound;
+    }
+    bound = Math.min(bound, maximumCardinalityBound(depth, capacity, s));
+    if (target > 0) {
+      bound = Math.min(bound, minimumCardinalityBound(depth, capacity, target, s));
+    }
+    return bound;
+  }
+
+  /**
+   * Lagrangian relaxation of the maximum cardinality constraint, see {@link #surrogate}.
+   */
+  private long maximumCardinalityBound(int depth, long capacity, int s) {
+    // the number of the lightest free items that fit
+    final int kMax = suffixSums().lightest(depth, capacity);
+
+    // The relaxation contains the s - depth items before the critical item and a fraction of it. If
+    // the s - depth + 1 lightest free items fit, it satisfies the cardinality constraint and the
+    // Lagrangian bound cannot be better than U1.
+    if (kMax >= s - depth + 1) {
+      return Long.MAX_VALUE;
+    }
+    final double[] reduced = new double[order.length - depth];
+
+    // For a fixed ratio r the best multiplier of the cardinality constraint turns the bound into
+    // r * capacity plus the sum of the kMax largest positive reduced values c_j - r * w_j. This is
+    // convex in r, so r is optimised by ternary search.
+    double lo = 0.0;
+    double hi = 0.0;
+    for (int j = depth; j < order.length; j++) {
+      hi = Math.max(hi, (double) values[j] / weights[j]);
+    }
+    if (Double.isInfinite(hi) || Double.isNaN(hi)) {
+      return Long.MAX_VALUE;
+    }
+
+    double best = Double.MAX_VALUE;
+    for (int iteration = 0; iteration < 40 && hi - lo > 1e-9; iteration++) {
+      final double r1 = lo + (hi - lo) / 3;
+      final double r2 = hi - (hi - lo) / 3;
+      final double f1 = cardinalityLagrangian(depth, capacity, kMax, r1, reduced);
+      final double f2 = cardinalityLagrangian(depth, capacity, kMax, r2, reduced);
+      best = Math.min(best, Math.min(f1, f2));
+      if (f1 < f2) {
+        hi = r2;
+      } else {
+        lo = r1;
+      }
+    }
+    return (long) Math.floor(best + 1e-9);
+  }
+
+  /**
+   * Returns r * capacity plus the sum of the k largest positive values c_j - r * w_j of the free
+   * items.
+   */
+  private double cardinalityLagrangian(int depth, long capacity, int k, double r,
+      double[] reduced) {
+    int count = 0;
+    for (int j = depth; j < order.length; j++) {
+      final double a = values[j] - r * weights[j];
+      if (a > 0) {
+        reduced[count++] = a;
+      }
+    }
+    if (count > k) {
+      selectLargest(reduced, count, k);
+      count = k;
+    }
+    double bound = r * capacity;
+    for (int j = 0; j < count; j++) {
+      bound += reduced[j];
+    }
+    return bound;
+  }
+
+  /**
+   * Rearranges the first count entries of a so that the k largest ones come first (quickselect).
+   */
+  private static void selectLargest(double[] a, int count, int k) {
+    int left = 0;
+    int right = count - 1;
+    while (left < right) {
+      final double pivot = a[(left + right) >>> 1];
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (a[i] > pivot) {
+          i++;
+        }
+        while (a[j] < pivot) {
+          j--;
+        }
+        if (i <= j) {
+          final double tmp = a[i];
+          a[i] = a[j];
+          a[j] = tmp;
+          i++;
+          j--;
+        }
+      }
+      if (k - 1 <= j) {
+        right = j;
+      } else if (k - 1 >= i) {
+        left = i;
+      } else {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Relaxation of the capacity constraint together with the minimum cardinality of an improving
+   * solution, see {@link #surrogate}.
+   */
+  private long minimumCardinalityBound(int depth, long capacity, long target, int s) {
+    if (getValue(depth, order.length) < target) {
+      return -1;
+    }
+    // one more than the most valuable free items that stay below the target
+    final int k = suffixSums().mostValuable(depth, target - 1) + 1;
+
+    // the items before the critical item are the only ones with a positive reduced value, so the
+    // cardinality constraint only helps if it forces further items into the solution
+    final int positive = s - depth;
+    if (k <= positive) {
+      return Long.MAX_VALUE;
+    }
+
+    final double ratio = (double) values[s] / weights[s];
+    double bound = ratio * capacity;
+    for (int j = depth; j < s; j++) {
+      bound += values[j] - ratio * weights[j];
+    }
+    final double[] reduced = new double[order.length - s];
+    for (int j = s; j < order.length; j++) {
+      reduced[j - s] = values[j] - ratio * weights[j];
+    }
+    selectLargest(reduced, reduced.length, k - positive);
+    for (int j = 0; j < k - positive; j++) {
+      bound += reduced[j];
+    }
+    return (long) Math.floor(bound + 1e-9);
+  }
+
+  private SuffixSums suffixSums() {
+    SuffixSums sums = suffixSums;
+    if (sums == null) {
+      // a concurrent first use builds the same sums twice, which is harmless
+      sums = new SuffixSums(values, weights);
+      suffixSums = sums;
+    }
+    return sums;
+  }
+
+  /**
+   * Persistent segment trees over the ranks of the items by ascending weight and by descending
+   * value, with one version per suffix of the sorted positions. A node counts and sums the items of
+   * its suffix within its range of ranks, so the number of the lightest or the most valuable free
+   * items within a limit is found by a single descent in O(log n). The versions share their
+   * unchanged nodes, so both trees take O(n log n) memory and time to build.
+   */
+  private static final class SuffixSums {
+    private final int size;
+    // node 0 is the empty tree
+    private final int[] left;
+    private final int[] right;
+    private final int[] count;
+    private final long[] sum;
+    private int nodes = 1;
+
+    // roots by the first free position
+    private final int[] lightRoots;
+    private final int[] valuableRoots;
+
+    SuffixSums(int[] values, int[] weights) {
+      size = values.length;
+      final int levels = 33 - Integer.numberOfLeadingZeros(Math.max(1, size - 1));
+      final int capacity = 1 + 2 * size * levels;
+      left = new int[capacity];
+      right = new int[capacity];
+      count = new int[capacity];
+      sum = new long[capacity];
+
+      final int[] byWeight = ranks(weights, true);
+      final int[] byValue = ranks(values, false);
+      lightRoots = new int[size + 1];
+      valuableRoots = new int[size + 1];
+      for (int j = size - 1; j >= 0; j--) {
+        lightRoots[j] = insert(lightRoots[j + 1], 0, size - 1, byWeight[j], weights[j]);
+        valuableRoots[j] = insert(valuableRoots[j + 1], 0, size - 1, byValue[j], values[j]);
+      }
+    }
+
+    /**
+     * Returns the rank of every position when sorted by the given keys.
+     */
+    private static int[] ranks(int[] keys, boolean ascending) {
+      final Integer[] perm = new Integer[keys.length];
+      for (int j = 0; j < keys.length; j++) {
+        perm[j] = j;
+      }
+      Arrays.sort(perm, new Comparator<Integer>() {
+        public int compare(Integer o1, Integer o2) {
+          return ascending ? Integer.compare(keys[o1], keys[o2])
+              : Integer.compare(keys[o2], keys[o1]);
+        }
+      });
+      final int[] rank = new int[keys.length];
+      for (int r = 0; r < keys.length; r++) {
+        rank[perm[r]] = r;
+      }
+      return rank;
+    }
+
+    /**
+     * Returns a copy of the tree with one more item of the given rank and amount.
+     */
+    private int insert(int node, int lo, int hi, int rank, long amount) {
+      final int copy = nodes++;
+      count[copy] = count[node] + 1;
+      sum[copy] = sum[node] + amount;
+      if (lo < hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (rank <= mid) {
+          left[copy] = insert(left[node], lo, mid, rank, amount);
+          right[copy] = right[node];
+        } else {
+          left[copy] = left[node];
+          right[copy] = insert(right[node], mid + 1, hi, rank, amount);
+        }
+      }
+      return copy;
+    }
+
+    /**
+     * Returns the largest k such that the k items of the lowest ranks in a tree sum up to at most
+     * the limit.
+     */
+    private int prefixCount(int node, long limit) {
+      int lo = 0;
+      int hi = size - 1;
+      int k = 0;
+      while (node != 0 && lo < hi) {
+        final int mid = (lo + hi) >>> 1;
+        final int l = left[node];
+        if (sum[l] <= limit) {
+          k += count[l];
+          limit -= sum[l];
+          node = right[node];
+          lo = mid + 1;
+        } else {
+          node = l;
+          hi = mid;
+        }
+      }
+      if (node != 0 && sum[node] <= limit) {
+        k += count[node];
+      }
+      return k;
+    }
+
+    /**
+     * Returns the number of the lightest items at the positions from depth on that fit into the
+     * capacity.
+     */
+    int lightest(int depth, long capacity) {
+      return prefixCount(lightRoots[depth], capacity);
+    }
+
+    /**
+     * Returns the number of the most valuable items at the positions from depth on whose values sum
+     * up to at most the limit.
+     */
+    int mostValuable(int depth, long limit) {
+      return prefixCount(valuableRoots[depth], limit);
+    }
+  }
+
+  /**
+   * Returns the bound of the given type for a subproblem.
+   *
+   * @param type the type of the bound
+   * @param depth the first free position
+   * @param capacity the residual capacity
+   * @param target the value of the free items an improving solution needs (only used by
+   *        {@link Type#SURROGATE})
+   */
+  public long bound(Type type, int depth, long capacity, long target) {
+    switch (type) {
+      case DANTZIG:
+        return dantzig(depth, capacity);
+      case MARTELLO_TOTH:
+        return martelloToth(depth, capacity);
+      case SURROGATE:
+        return surrogate(depth, capacity, target);
+      default:
+        throw new IllegalArgumentException("Unknown bound type");
+    }
+  }
+
+  private static long ceilDiv(long a, long b) {
+    return -Math.floorDiv(-a, b);
+  }
+}
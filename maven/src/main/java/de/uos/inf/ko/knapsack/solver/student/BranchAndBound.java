@@ -1,140 +1,556 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Comparator;
-import de.uos.inf.ko.knapsack.FractionalSolution;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
-import de.uos.inf.ko.utils.Logger;
 
 /**
  * A branch-and-bound algorithm for the binary knapsack problem.
  *
+ * The items are branched on in descending order of their value-to-weight ratio (packing first).
+ * The bound of each node is computed by {@link Bounds} from prefix sums over the sorted items; the
+ * type of the bound can be chosen per depth, e.g. the more expensive surrogate bound close to the
+ * root and the Martello-Toth bound below. {@link PrimalHeuristics} run at the root and at every
+ * k-th promising node, i.e. a node not pruned by its bound, to tighten the incumbent early. A
+ * {@link DominanceMemo} cuts nodes that are dominated by a node with the same depth and weight
+ * visited before.
+ *
+ * As an {@link AnytimeSolver}, every improvement is published to the {@link SolveControl}. Every
+ * 64 nodes better values found by other solvers are taken over for pruning, and the search stops if
+ * the control asks to. The upper bound of a stopped search is the maximum of the Martello-Toth
+ * bounds of the open subtrees. The nodes, the pruned nodes and the bound evaluations are counted
+ * in the {@link SolveStats} of the run.
+ *
+ * All state of a run lives in a {@link Search} created per call, so a single instance can solve
+ * several instances concurrently, e.g. shared by the threads of a worker pool. The memo tables are
+ * kept in a {@link ScratchPool} and cleared for the next call instead of being allocated again.
+ *
+ * A long run can write {@link Checkpointer checkpoints} and be resumed after a restart. Since the
+ * search is depth-first, its frontier is given by the path to the current node: the decisions and
+ * the open flags of every level. Together with the incumbent a checkpoint takes about n / 4 bytes.
+ *
+ * The search can also be restricted to a {@link Subproblem}, a subtree given by the decisions for
+ * the first items, and give away the open subtree closest to the root on request of a
+ * {@link Splitter}; this is how the workers of a {@link DistributedBranchAndBound} share the tree.
+ *
  * @author
  */
-public class BranchAndBound implements SolverInterface<Solution> {
-  private int cStar = 0;
-  private Solution sStar = null;
+public class BranchAndBound implements AnytimeSolver {
+  private static final int POLL_MASK = 63;
+  private static final String CHECKPOINT = "BranchAndBound";
 
-  private Instance instance;
+  /**
+   * A subtree of the search, given by the decisions for the first items in sorted order.
+   */
+  public static final class Subproblem {
+    private final boolean[] decisions;
 
-  // logging variable
-  private int generatedSolutions = 0;
+    /**
+     * Creates a subproblem.
+     *
+     * @param decisions whether the item at each of the first positions is packed
+     */
+    public Subproblem(boolean[] decisions) {
+      this.decisions = decisions.clone();
+    }
+
+    /**
+     * Returns the number of decided items
+     */
+    public int getDepth() {
+      return decisions.length;
+    }
+
+    /**
+     * Checks whether the item at a decided position is packed
+     */
+    public boolean isPacked(int position) {
+      return decisions[position];
+    }
+
+    /**
+     * Returns the subproblem that also decides the item at the next position.
+     *
+     * @param packed whether the item is packed
+     */
+    public Subproblem child(boolean packed) {
+      final boolean[] child = Arrays.copyOf(decisions, decisions.length + 1);
+      child[decisions.length] = packed;
+      return new Subproblem(child);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+      out.writeInt(decisions.length);
+      Checkpointer.writeBits(out, decisions, decisions.length);
+    }
+
+    public static Subproblem read(DataInputStream in) throws IOException {
+      final boolean[] decisions = new boolean[in.readInt()];
+      Checkpointer.readBits(in, decisions, decisions.length);
+      return new Subproblem(decisions);
+    }
+  }
+
+  /**
+   * Takes over subtrees of a running search.
+   */
+  public interface Splitter {
+    /**
+     * Called at every check of the control; returns true if the search should give away a subtree.
+     */
+    boolean isRequested();
+
+    /**
+     * Receives the open subtree closest to the root, which the search does not explore any more.
+     *
+     * @param subproblem the subtree, or null if the search has no open subtree
+     */
+    void split(Subproblem subproblem);
+  }
+
+  private final Bounds.Type shallowBound;
+  private final Bounds.Type deepBound;
+  private final int switchDepth;
+
+  /**
+   * Primal heuristics run at selected nodes, or null
+   */
+  private final PrimalHeuristics heuristics;
 
   /**
-   * Calculates the value-to-weight ratio for a given item.
-   * 
-   * @param i the index of the item to calculate the ratio for
-   * @return the value-to-weight ratio for the given item
+   * Memo tables of finished runs, or null if the dominance memo is disabled
    */
-  private double getRatio(int i) {
-    return (double) instance.getValue(i) / instance.getWeight(i);
+  private final ScratchPool<DominanceMemo> memos;
+
+  /**
+   * Uses the surrogate bound on all levels. It costs O(n) per node (if the Martello-Toth bound does
+   * not prune already), but reduces the number of nodes on correlated instances by orders of
+   * magnitude.
+   */
+  public BranchAndBound() {
+    this(Bounds.Type.SURROGATE);
   }
 
   /**
-   * This class implements the Branch and Bound algorithm to solve the Knapsack problem.
-   * It generates an initial solution using the Greedy Heuristic and then sorts the indices
-   * of the items by their cost-per-weight ratio in descending order. It then branches on each
-   * item in the sorted order and prunes the branch if the lower bound of the solution is less
-   * than the current best solution. The algorithm returns the best solution found.
+   * Creates a branch-and-bound solver using the given bound on all levels.
+   *
+   * @param bound the bound for all nodes
+   */
+  public BranchAndBound(Bounds.Type bound) {
+    this(bound, bound, 0);
+  }
+
+  /**
+   * Creates a branch-and-bound solver using the given bounds.
+   *
+   * @param shallowBound the bound for nodes with a depth less than switchDepth
+   * @param deepBound the bound for all other nodes
+   * @param switchDepth the depth from which on deepBound is used
+   */
+  public BranchAndBound(Bounds.Type shallowBound, Bounds.Type deepBound, int switchDepth) {
+    this(shallowBound, deepBound, switchDepth, new PrimalHeuristics());
+  }
+
+  /**
+   * Creates a branch-and-bound solver using the given bounds and primal heuristics.
+   *
+   * @param shallowBound the bound for nodes with a depth less than switchDepth
+   * @param deepBound the bound for all other nodes
+   * @param switchDepth the depth from which on deepBound is used
+   * @param heuristics the primal heuristics, or null to use none
+   */
+  public BranchAndBound(Bounds.Type shallowBound, Bounds.Type deepBound, int switchDepth,
+      PrimalHeuristics heuristics) {
+    this(shallowBound, deepBound, switchDepth, heuristics, 1 << 18);
+  }
+
+  /**
+   * Creates a branch-and-bound solver using the given bounds, primal heuristics and dominance memo.
+   *
+   * @param shallowBound the bound for nodes with a depth less than switchDepth
+   * @param deepBound the bound for all other nodes
+   * @param switchDepth the depth from which on deepBound is used
+   * @param heuristics the primal heuristics, or null to use none
+   * @param memoSize the number of entries of the {@link DominanceMemo}, 0 to disable it
+   */
+  public BranchAndBound(Bounds.Type shallowBound, Bounds.Type deepBound, int switchDepth,
+      PrimalHeuristics heuristics, int memoSize) {
+    this.shallowBound = shallowBound;
+    this.deepBound = deepBound;
+    this.switchDepth = switchDepth;
+    this.heuristics = heuristics;
+    this.memos = memoSize > 0 ? new ScratchPool<>(() -> new DominanceMemo(memoSize)) : null;
+  }
+
+  /**
+   * Solves the instance by a depth-first search over the items in sorted order. The initial
+   * solution is generated by the Greedy Heuristic and improved by the primal heuristics. A node is
+   * pruned if its value plus the bound of the free items does not exceed the value of the best
+   * solution found so far, or if it is dominated by an earlier node; if all free items fit into the
+   * knapsack, the node is completed directly.
    *
    * @param instance the instance of the Knapsack problem to be solved
-   * @return the best solution found by the algorithm
+   * @param control the deadline and the best known solution
+   * @return the best solution and the upper bound
    */
   @Override
-  public Solution solve(Instance instance) {
-    // reset values
-    generatedSolutions = 0;
-
+  public SolveResult solve(Instance instance, SolveControl control) {
     // generate initial solution
     Solution solution = (new GreedyHeuristic()).solve(instance);
-    generatedSolutions++;
-    cStar = solution.getValue();
-    sStar = solution;
-    this.instance = instance;
-
-    // make array for index permutation
-    Integer[] perm = new Integer[instance.getSize()];
-    for (int i = 0; i < perm.length; ++i) {
-      perm[i] = i;
-    }
+    return solve(instance, new Bounds(instance), solution, control);
+  }
 
-    // sort it by cost-per-weight ratio in descending order
-    Arrays.sort(perm, new Comparator<Integer>() {
-      public int compare(Integer o1, Integer o2) {
-        double ratio1 = getRatio(o1);
-        double ratio2 = getRatio(o2);
+  /**
+   * Solves the instance starting from a known feasible solution and sorted items, e.g. from a
+   * previous solve of a slightly changed instance.
+   *
+   * @param instance the instance of the Knapsack problem to be solved
+   * @param bounds the sorted items of the instance
+   * @param incumbent a feasible solution of the instance
+   * @return the best solution found by the algorithm
+   */
+  public Solution solve(Instance instance, Bounds bounds, Solution incumbent) {
+    return solve(instance, bounds, incumbent, new SolveControl()).getSolution();
+  }
 
-        if (ratio1 == ratio2) {
-          return 0;
-        }
-        if (ratio1 < ratio2) {
-          return 1;
-        }
-        return -1;
-      }
-    });
+  /**
+   * Solves the instance starting from a known feasible solution and sorted items until the control
+   * asks to stop.
+   *
+   * @param instance the instance of the Knapsack problem to be solved
+   * @param bounds the sorted items of the instance
+   * @param incumbent a feasible solution of the instance
+   * @param control the deadline and the best known solution
+   * @return the best solution and the upper bound
+   */
+  public SolveResult solve(Instance instance, Bounds bounds, Solution incumbent,
+      SolveControl control) {
+    return solve(new Search(instance, bounds, control, null, null), incumbent);
+  }
 
-    // array has order of indices in descending order of cost-per-weight ratio
-    branch(new Solution(instance), perm.clone());
+  /**
+   * Explores a subtree until it is done or the control asks to stop. The upper bound of the result
+   * only holds for the subtree, less the subtrees given away to the splitter.
+   *
+   * @param instance the instance of the Knapsack problem to be solved
+   * @param bounds the sorted items of the instance
+   * @param incumbent a feasible solution of the instance
+   * @param subproblem the subtree, with decisions that fit into the knapsack
+   * @param control the deadline and the best known solution
+   * @param splitter takes over subtrees on request, or null
+   * @return the best solution and the upper bound of the subtree
+   */
+  public SolveResult solve(Instance instance, Bounds bounds, Solution incumbent,
+      Subproblem subproblem, SolveControl control, Splitter splitter) {
+    final Search search = new Search(instance, bounds, control, null, splitter);
+    for (int k = 0; k < subproblem.getDepth(); k++) {
+      search.x[k] = subproblem.isPacked(k);
+    }
+    search.depth = subproblem.getDepth();
+    return solve(search, incumbent);
+  }
 
-    System.out.println("Instance: " + instance.getFilename());
-    System.out.println("Generated solutions: " + generatedSolutions);
-    System.out.println("#############################################");
+  /**
+   * Solves the instance like {@link #solve(Instance, SolveControl)} and writes checkpoints. If the
+   * checkpointer holds a checkpoint of this solver for the instance, the search resumes from it.
+   * A search stopped by the control writes a last checkpoint; a completed search deletes it.
+   *
+   * @param instance the instance of the Knapsack problem to be solved
+   * @param control the deadline and the best known solution
+   * @param checkpointer the checkpoint file and the cadence of the checkpoints
+   * @return the best solution and the upper bound
+   */
+  public SolveResult solve(Instance instance, SolveControl control, Checkpointer checkpointer) {
+    final Search search = new Search(instance, new Bounds(instance), control, checkpointer, null);
+    final Solution restored = checkpointer.read(CHECKPOINT, instance, search::restore);
+    if (restored != null) {
+      control.offer(restored, getName());
+    }
+    final SolveResult result = solve(search, (new GreedyHeuristic()).solve(instance));
+    if (search.completed) {
+      checkpointer.delete();
+    }
+    return result;
+  }
 
-    return sStar;
+  private SolveResult solve(Search search, Solution incumbent) {
+    final SolveControl control = search.control;
+    final SolveStats stats = SolveStats.begin();
+    final DominanceMemo memo = memos != null ? memos.acquire() : null;
+    try {
+      search.cStar = Math.max(search.cStar, incumbent.getValue());
+      control.offer(incumbent, getName());
+      return control.result(search.branch(memo, stats));
+    } finally {
+      if (memo != null) {
+        memos.release(memo);
+      }
+      stats.end();
+    }
   }
 
   /**
-   * This method performs the branch and bound algorithm recursively by branching on the given solution S and array of items.
-   * It pops the first element from the array and branches for item i not in solution and item i in solution.
-   * For each branch, it creates a new solution variant and checks if it is feasible.
-   * If the solution is feasible, it calculates the upper bound and checks if it is greater than the current best solution cStar.
-   * If the solution is complete, it updates the current best solution cStar and sStar.
-   * If the solution is not complete, it recursively calls the branch method with the new solution and the remaining items in the array.
-   * @param S the current solution
-   * @param array the array of remaining items
+   * The state of a single run: the instance, the value of the best solution, the control and the
+   * path to the node the search starts or resumes at.
    */
-  private void branch(Solution S, Integer[] array) {
-    // pop first element from array
-    int i = array[0];
-    Integer[] undecidedArray = Arrays.copyOfRange(array, 1, array.length);
-
-    // branch for item i not in solution and item i in solution
-    for (int b = 1; b >= 0; b--) {
-      // create solution variant
-      Solution newSolution = new Solution(S);
-      newSolution.set(i, b);
-      generatedSolutions++;
-
-      // check if solution is feasible
-      if (!newSolution.isFeasible()) {
-        continue;
+  private final class Search {
+    private final Instance instance;
+    private final Bounds bounds;
+    private final SolveControl control;
+    private final Checkpointer checkpointer;
+    private final Splitter splitter;
+    private long cStar = -1;
+    private boolean completed = false;
+
+    private final boolean[] x;
+    private final boolean[] open;
+    private int depth = 0;
+    private long nodes = 0;
+
+    Search(Instance instance, Bounds bounds, SolveControl control, Checkpointer checkpointer,
+        Splitter splitter) {
+      this.instance = instance;
+      this.bounds = bounds;
+      this.control = control;
+      this.checkpointer = checkpointer;
+      this.splitter = splitter;
+      this.x = new boolean[bounds.getSize()];
+      this.open = new boolean[bounds.getSize()];
+    }
+
+    /**
+     * Writes the path to the current node, which has not been evaluated yet, and the incumbent.
+     */
+    private void save(int depth, long nodes) {
+      final Solution incumbent = control.getSolution();
+      checkpointer.write(CHECKPOINT, instance, out -> {
+        out.writeLong(nodes);
+        out.writeInt(depth);
+        Checkpointer.writeBits(out, x, depth);
+        Checkpointer.writeBits(out, open, depth);
+        final boolean[] packed = new boolean[instance.getSize()];
+        for (int i = 0; i < packed.length; i++) {
+          packed[i] = incumbent.get(i) > 0;
+        }
+        Checkpointer.writeBits(out, packed, packed.length);
+      });
+    }
+
+    /**
+     * Reads the path written by {@link #save(int, long)} and returns the incumbent.
+     */
+    private Solution restore(DataInputStream in) throws IOException {
+      final long nodes = in.readLong();
+      final int depth = in.readInt();
+      if (depth < 0 || depth > x.length) {
+        throw new IOException("Invalid depth " + depth);
+      }
+      final boolean[] x = new boolean[depth];
+      final boolean[] open = new boolean[depth];
+      Checkpointer.readBits(in, x, depth);
+      Checkpointer.readBits(in, open, depth);
+      final boolean[] packed = new boolean[instance.getSize()];
+      Checkpointer.readBits(in, packed, packed.length);
+      final Solution incumbent = new Solution(instance);
+      for (int i = 0; i < packed.length; i++) {
+        incumbent.set(i, packed[i] ? 1 : 0);
       }
+      if (!incumbent.isFeasible()) {
+        throw new IOException("Infeasible incumbent");
+      }
+
+      System.arraycopy(x, 0, this.x, 0, depth);
+      System.arraycopy(open, 0, this.open, 0, depth);
+      this.depth = depth;
+      this.nodes = nodes;
+      this.cStar = incumbent.getValue();
+      return incumbent;
+    }
+
+    /**
+     * Iterative depth-first search. The decisions on the current path are stored in x (by sorted
+     * position); open records for every level whether the branch packing the item is still to be
+     * followed by the branch excluding it. The search starts at the node given by the path of the
+     * run. Returns the upper bound, i.e. the value of the best solution if the search has
+     * completed. The memo table may be null. The nodes, the pruned nodes by their reason and the
+     * bound evaluations are counted in the statistics.
+     */
+    long branch(DominanceMemo memo, SolveStats stats) {
+      final int n = bounds.getSize();
+      final long capacity = instance.getCapacity();
 
-      // fractional solver solution as upper bound
-      Instance fracInstance = new Instance(undecidedArray.length);
-      for (int j = 0; j < undecidedArray.length; j++) {
-        fracInstance.set(j, instance.getValue(undecidedArray[j]),
-            instance.getWeight(undecidedArray[j]));
+      final boolean[] packing = new boolean[n];
+      if (memo != null) {
+        memo.clear();
       }
 
-      fracInstance.setCapacity(instance.getCapacity() - newSolution.getWeight());
+      int depth = this.depth;
+      long nodes = this.nodes;
+      // nodes not pruned by their bound, the heuristics run at every k-th of them
+      long promising = 0;
+      long weight = 0;
+      long value = 0;
+      for (int k = 0; k < depth; k++) {
+        if (x[k]) {
+          weight += bounds.getWeight(k);
+          value += bounds.getValue(k);
+        }
+      }
 
-      double fracSol = new FractionalSolver().solve(fracInstance).getValue();
-      double upperBound = newSolution.getValue() + fracSol;
+      while (true) {
+        nodes++;
+        stats.node();
+
+        if ((nodes & POLL_MASK) == 0) {
+          // prune with the solutions of other solvers, the own best solution is kept
+          cStar = Math.max(cStar, control.getValue());
+          if (control.shouldStop()) {
+            if (checkpointer != null) {
+              save(depth, nodes - 1);
+            }
+            return openBound(x, open, depth, weight, value);
+          }
+          if (checkpointer != null && checkpointer.isDue()) {
+            save(depth, nodes - 1);
+          }
+          if (splitter != null && splitter.isRequested()) {
+            split(depth);
+          }
+        }
 
-      if (upperBound > cStar) {
-        if (undecidedArray.length == 0) { // if solution is complete array has no remaining elements
-          if (newSolution.getValue() > cStar) {
-            cStar = newSolution.getValue();
-            sStar = newSolution;
+        // evaluate the node
+        boolean descend = false;
+        final long residual = capacity - weight;
+        if (memo != null && memo.dominated(depth, weight, value)) {
+          // a node with the same depth and weight and no lower value has been explored already
+          stats.prune(SolveStats.Prune.DOMINANCE);
+        } else if (bounds.criticalPosition(depth, residual) == n) {
+          // all free items fit: complete the solution
+          final long total = value + bounds.getValue(depth, n);
+          if (total > cStar) {
+            updateIncumbent(x, depth, true, total);
           }
         } else {
-          branch(newSolution, undecidedArray.clone());
+          if (value > cStar) {
+            updateIncumbent(x, depth, false, value);
+          }
+          final Bounds.Type type = depth < switchDepth ? shallowBound : deepBound;
+          final long bound = bounds.bound(type, depth, residual, cStar + 1 - value);
+          stats.boundEvaluated();
+          descend = value + bound > cStar;
+
+          // improvements of the heuristics are published at once and may prune this node already
+          if (descend && heuristics != null && promising++ % heuristics.getFrequency() == 0) {
+            final long improved = heuristics.improve(bounds, capacity, x, depth, cStar, packing);
+            if (improved > cStar) {
+              updateIncumbent(packing, improved);
+              descend = value + bound > cStar;
+            }
+          }
+          if (!descend) {
+            stats.prune(SolveStats.Prune.BOUND);
+          }
+        }
+
+        if (descend) {
+          // pack the item if it fits, otherwise only the branch excluding it remains
+          if (bounds.getWeight(depth) <= residual) {
+            x[depth] = true;
+            open[depth] = true;
+            weight += bounds.getWeight(depth);
+            value += bounds.getValue(depth);
+          } else {
+            x[depth] = false;
+            open[depth] = false;
+            stats.prune(SolveStats.Prune.INFEASIBLE);
+          }
+          depth++;
+          continue;
+        }
+
+        // backtrack to the last level with an open branch
+        depth--;
+        while (depth >= 0 && !open[depth]) {
+          depth--;
+        }
+        if (depth < 0) {
+          completed = true;
+          return cStar;
+        }
+        open[depth] = false;
+        x[depth] = false;
+        weight -= bounds.getWeight(depth);
+        value -= bounds.getValue(depth);
+        depth++;
+      }
+    }
+
+    /**
+     * Gives the branch excluding an item at the lowest open level on the path to the splitter.
+     */
+    private void split(int depth) {
+      for (int k = 0; k < depth; k++) {
+        if (open[k]) {
+          open[k] = false;
+          final boolean[] decisions = Arrays.copyOf(x, k + 1);
+          decisions[k] = false;
+          splitter.split(new Subproblem(decisions));
+          return;
+        }
+      }
+      splitter.split(null);
+    }
+
+    /**
+     * Upper bound of a stopped search: the maximum of the best value and the Martello-Toth bounds
+     * of the current node and of the branches excluding an item that are still open on the path.
+     */
+    private long openBound(boolean[] x, boolean[] open, int depth, long weight, long value) {
+      final long capacity = instance.getCapacity();
+      long upper = Math.max(cStar, value + bounds.martelloToth(depth, capacity - weight));
+      long pathWeight = 0;
+      long pathValue = 0;
+      for (int k = 0; k < depth; k++) {
+        if (open[k]) {
+          upper = Math.max(upper, pathValue + bounds.martelloToth(k + 1, capacity - pathWeight));
+        }
+        if (x[k]) {
+          pathWeight += bounds.getWeight(k);
+          pathValue += bounds.getValue(k);
+        }
+      }
+      return upper;
+    }
+
+    /**
+     * Stores the packing of a node as the new best solution. The decisions for the positions before
+     * depth are taken from x (by sorted position); the free items are either all packed or none.
+     */
+    private void updateIncumbent(boolean[] x, int depth, boolean packFree, long value) {
+      final int[] order = bounds.getOrder();
+      Solution solution = new Solution(instance);
+      for (int k = 0; k < x.length; k++) {
+        if (k < depth ? x[k] : packFree) {
+          solution.set(order[k], 1);
         }
       }
+      cStar = value;
+      control.offer(solution, getName());
+    }
+
+    /**
+     * Stores a complete packing (by sorted position) as the new best solution.
+     */
+    private void updateIncumbent(boolean[] packing, long value) {
+      updateIncumbent(packing, packing.length, false, value);
     }
   }
 
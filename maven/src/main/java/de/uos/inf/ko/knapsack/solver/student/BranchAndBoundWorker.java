@@ -0,0 +1,271 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.solver.student.BranchAndBound.Subproblem;
+import de.uos.inf.ko.utils.Logger;
+
+/**
+ * A worker of a {@link DistributedBranchAndBound}, usually run as a separate process by
+ * {@link #main(String[])}.
+ *
+ * The worker connects to the coordinator and explores the subproblems it is given with a
+ * {@link BranchAndBound}, one after the other. Its own improvements are sent to the coordinator,
+ * improvements of other workers are taken over for pruning. If the coordinator asks for work, the
+ * search gives back its open subtree closest to the root. One thread receives the messages, another
+ * one runs the search. The worker stops when the coordinator closes the connection.
+ *
+ * @author
+ */
+public class BranchAndBoundWorker implements Runnable {
+  private static final String COORDINATOR = "Coordinator";
+
+  /**
+   * The instance of a solve of the coordinator.
+   */
+  private static final class Round {
+    private final int id;
+    private final Instance instance;
+    private final Bounds bounds;
+    private final SolveControl control = new SolveControl();
+    private final AtomicBoolean splitRequested = new AtomicBoolean();
+
+    Round(int id, Instance instance, Bounds bounds) {
+      this.id = id;
+      this.instance = instance;
+      this.bounds = bounds;
+    }
+  }
+
+  /**
+   * A subproblem of a solve.
+   */
+  private static final class Task {
+    private final Round round;
+    private final Subproblem subproblem;
+
+    Task(Round round, Subproblem subproblem) {
+      this.round = round;
+      this.subproblem = subproblem;
+    }
+  }
+
+  private static final Task END = new Task(null, null);
+
+  private final String host;
+  private final int port;
+  private final BranchAndBound solver;
+  private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+
+  private DataOutputStream out;
+  private volatile Round current = null;
+
+  /**
+   * Creates a worker with the default {@link BranchAndBound}.
+   *
+   * @param host the host of the coordinator
+   * @param port the port of the coordinator
+   */
+  public BranchAndBoundWorker(String host, int port) {
+    this(host, port, new BranchAndBound());
+  }
+
+  /**
+   * Creates a worker.
+   *
+   * @param host the host of the coordinator
+   * @param port the port of the coordinator
+   * @param solver the solver for the subproblems
+   */
+  public BranchAndBoundWorker(String host, int port, BranchAndBound solver) {
+    this.host = host;
+    this.port = port;
+    this.solver = solver;
+  }
+
+  /**
+   * Connects to the coordinator and works until the connection is closed.
+   */
+  @Override
+  public void run() {
+    final Thread searcher = new Thread(this::search, "worker-search");
+    searcher.setDaemon(true);
+    try (Socket socket = new Socket(host, port)) {
+      socket.setTcpNoDelay(true);
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      searcher.start();
+      receive(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+    } catch (IOException e) {
+      Logger.println("Worker: " + e);
+    } finally {
+      final Round round = current;
+      if (round != null) {
+        round.control.cancel();
+      }
+      tasks.add(END);
+    }
+  }
+
+  private void receive(DataInputStream in) throws IOException {
+    while (true) {
+      final byte type = in.readByte();
+      final int id = in.readInt();
+      final Round round = current;
+      final boolean matches = round != null && round.id == id;
+      if (type == DistributedBranchAndBound.INSTANCE) {
+        final int capacity = in.readInt();
+        final int n = in.readInt();
+        final Instance instance = new Instance(n, capacity);
+        for (int i = 0; i < n; i++) {
+          final int value = in.readInt();
+          instance.set(i, value, in.readInt());
+        }
+        final int[] order = new int[n];
+        for (int k = 0; k < n; k++) {
+          order[k] = in.readInt();
+        }
+        if (round != null) {
+          round.control.cancel();
+        }
+        current = start(id, instance, new Bounds(instance, order));
+      } else if (type == DistributedBranchAndBound.WORK) {
+        final Subproblem subproblem = Subproblem.read(in);
+        if (matches) {
+          tasks.add(new Task(round, subproblem));
+        }
+      } else if (type == DistributedBranchAndBound.INCUMBENT) {
+        final boolean[] packed = DistributedBranchAndBound.readPacking(in);
+        if (matches && packed.length == round.instance.getSize()) {
+          final Solution solution = new Solution(round.instance);
+          for (int i = 0; i < packed.length; i++) {
+            solution.set(i, packed[i] ? 1 : 0);
+          }
+          round.control.offer(solution, COORDINATOR);
+        }
+      } else if (type == DistributedBranchAndBound.SPLIT) {
+        if (matches) {
+          round.splitRequested.set(true);
+        }
+      } else if (type == DistributedBranchAndBound.CANCEL) {
+        if (matches) {
+          round.control.cancel();
+        }
+      } else if (type == DistributedBranchAndBound.STOP) {
+        return;
+      } else {
+        throw new IOException("Unknown message " + type);
+      }
+    }
+  }
+
+  /**
+   * Creates the state of a solve; the own improvements are sent to the coordinator.
+   */
+  private Round start(int id, Instance instance, Bounds bounds) {
+    final Round round = new Round(id, instance, bounds);
+    round.control.setListener((solution, source) -> {
+      if (!COORDINATOR.equals(source)) {
+        send(DistributedBranchAndBound.IMPROVED, id,
+            o -> DistributedBranchAndBound.writePacking(o, solution));
+      }
+    });
+    return round;
+  }
+
+  /**
+   * Explores the subproblems until the connection is closed.
+   */
+  private void search() {
+    try {
+      while (true) {
+        final Task task = tasks.take();
+        if (task == END) {
+          return;
+        }
+        final Round round = task.round;
+        if (round.control.isCancelled()) {
+          continue;
+        }
+        Solution incumbent = round.control.getSolution();
+        if (incumbent == null) {
+          incumbent = new Solution(round.instance);
+        }
+        solver.solve(round.instance, round.bounds, incumbent, task.subproblem, round.control,
+            new BranchAndBound.Splitter() {
+              @Override
+              public boolean isRequested() {
+                return round.splitRequested.getAndSet(false);
+              }
+
+              @Override
+              public void split(Subproblem subproblem) {
+                send(DistributedBranchAndBound.DONATE, round.id, o -> {
+                  o.writeBoolean(subproblem != null);
+                  if (subproblem != null) {
+                    subproblem.write(o);
+                  }
+                });
+              }
+            });
+        if (!round.control.isCancelled()) {
+          send(DistributedBranchAndBound.DONE, round.id, null);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void send(byte type, int id, DistributedBranchAndBound.Body body) {
+    synchronized (out) {
+      try {
+        out.writeByte(type);
+        out.writeInt(id);
+        if (body != null) {
+          body.write(out);
+        }
+        out.flush();
+      } catch (IOException e) {
+        Logger.println("Worker: " + e);
+      }
+    }
+  }
+
+  /**
+   * Starts a worker process on this host that connects to a coordinator on the loopback interface;
+   * its output is discarded.
+   *
+   * @param port the port of the coordinator
+   * @return the process
+   * @throws IOException if the process cannot be started
+   */
+  public static Process start(int port) throws IOException {
+    final String java =
+        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        BranchAndBoundWorker.class.getName(), "127.0.0.1", String.valueOf(port))
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+  }
+
+  /**
+   * Runs a worker.
+   *
+   * @param args the host and the port of the coordinator
+   */
+  public static void main(String[] args) {
+    new BranchAndBoundWorker(args[0], Integer.parseInt(args[1])).run();
+  }
+}
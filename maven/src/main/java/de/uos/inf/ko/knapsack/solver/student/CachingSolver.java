@@ -0,0 +1,80 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+
+/**
+ * Looks up every instance in a {@link SolutionCache} before passing it on to another solver.
+ *
+ * A cached optimum is returned at once. A cached heuristic solution is published to the control
+ * first, so an exact solver can prune with it, and the solver runs as usual. Its result is stored
+ * as optimal if an {@link AnytimeSolver} proves it, or if any other solver is declared exact;
+ * results of stopped or heuristic runs are stored as heuristic solutions and never replace an
+ * optimum.
+ *
+ * @author
+ */
+public class CachingSolver implements AnytimeSolver {
+  private final SolverInterface<Solution> solver;
+  private final boolean exact;
+  private final SolutionCache cache;
+
+  /**
+   * Creates a caching solver.
+   *
+   * @param solver the solver for instances that are not cached as solved optimally
+   * @param exact whether the solver returns an optimal solution; ignored for an
+   *        {@link AnytimeSolver}, which reports its upper bound
+   * @param cache the cache, which may be shared with other solvers
+   */
+  public CachingSolver(SolverInterface<Solution> solver, boolean exact, SolutionCache cache) {
+    this.solver = solver;
+    this.exact = exact;
+    this.cache = cache;
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return lookup(instance, control);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult lookup(Instance instance, SolveControl control) {
+    final SolutionCache.CachedSolution cached = cache.get(instance);
+    if (cached != null) {
+      control.offer(cached, cached.getSource());
+      if (cached.isOptimal()) {
+        return control.result(control.getValue());
+      }
+    }
+
+    final SolveResult result;
+    if (solver instanceof AnytimeSolver) {
+      result = ((AnytimeSolver) solver).solve(instance, control);
+    } else {
+      final Solution solution = solver.solve(instance);
+      control.offer(solution, solver.getName());
+      result = control.result(exact ? solution.getValue() : Bounds.upperBound(instance));
+    }
+    cache.put(instance, result.getSolution(), result.isOptimal(), result.getSource());
+    return result;
+  }
+
+  public SolutionCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public String getName() {
+    return "Cached+" + solver.getName();
+  }
+}
@@ -0,0 +1,219 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+
+/**
+ * Optimal values of the binary knapsack problem for all capacities from 0 to a maximum capacity
+ * from a single dynamic programming pass, instead of one solve per capacity.
+ *
+ * The table over the capacities is updated in place for every item. Only the rows before every
+ * k-th item are kept as checkpoints, with k about the square root of the number of items. Solutions
+ * are reconstructed lazily for the requested capacities only: the rows of each block are recomputed
+ * from its checkpoint, and all requested capacities are traced back through the block at once.
+ * Reconstructed solutions are cached. The cache is not synchronized, so a sweep must not be shared
+ * between threads.
+ *
+ * @author
+ */
+public class CapacitySweep {
+  private final Instance instance;
+  private final int maxCapacity;
+
+  // items that fit into the maximum capacity, in the order of the table
+  private final int[] items;
+  private final int size;
+  private final int interval;
+
+  // checkpoints[b]: the row before item b * interval
+  private final long[][] checkpoints;
+  // the row after all items
+  private final long[] values;
+
+  private final Map<Integer, Solution> solutions = new HashMap<>();
+
+  /**
+   * Computes the optimal values for all capacities up to the capacity of the instance.
+   *
+   * @param instance the instance of the Knapsack problem
+   */
+  public CapacitySweep(Instance instance) {
+    this(instance, instance.getCapacity());
+  }
+
+  /**
+   * Computes the optimal values for all capacities up to the given maximum capacity. The capacity
+   * of the instance itself is ignored.
+   *
+   * @param instance the instance of the Knapsack problem
+   * @param maxCapacity the maximum capacity
+   */
+  public CapacitySweep(Instance instance, int maxCapacity) {
+    if (maxCapacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + maxCapacity);
+    }
+    this.instance = instance;
+    this.maxCapacity = maxCapacity;
+
+    final int n = instance.getSize();
+    final int[] fitting = new int[n];
+    int m = 0;
+    for (int i = 0; i < n; i++) {
+      if (instance.getWeight(i) <= maxCapacity && instance.getValue(i) > 0) {
+        fitting[m++] = i;
+      }
+    }
+    items = Arrays.copyOf(fitting, m);
+    size = m;
+    interval = Math.max(1, (int) Math.ceil(Math.sqrt(m)));
+    checkpoints = new long[(m + interval - 1) / interval][];
+
+    final long[] row = new long[maxCapacity + 1];
+    for (int k = 0; k < size; k++) {
+      if (k % interval == 0) {
+        checkpoints[k / interval] = row.clone();
+      }
+      add(row, items[k]);
+    }
+    values = row;
+  }
+
+  /**
+   * Updates a row of the table with an item.
+   */
+  private void add(long[] row, int item) {
+    final int weight = instance.getWeight(item);
+    final int value = instance.getValue(item);
+    for (int c = maxCapacity; c >= weight; c--) {
+      if (row[c - weight] + value > row[c]) {
+        row[c] = row[c - weight] + value;
+      }
+    }
+  }
+
+  /**
+   * Returns the maximum capacity covered by the sweep
+   */
+  public int getMaxCapacity() {
+    return maxCapacity;
+  }
+
+  /**
+   * Returns the optimal value for a capacity.
+   *
+   * @param capacity a capacity between 0 and the maximum capacity
+   */
+  public long getValue(int capacity) {
+    checkCapacity(capacity);
+    return values[capacity];
+  }
+
+  /**
+   * Returns the optimal values for all capacities from 0 to the maximum capacity
+   */
+  public long[] getValues() {
+    return values.clone();
+  }
+
+  /**
+   * Returns the optimal values for the given capacities.
+   *
+   * @param capacities capacities between 0 and the maximum capacity
+   */
+  public long[] getValues(int... capacities) {
+    final long[] result = new long[capacities.length];
+    for (int j = 0; j < capacities.length; j++) {
+      result[j] = getValue(capacities[j]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns an optimal solution for a capacity. Note that the solution refers to the instance, so
+   * {@link Solution#isFeasible()} checks it against the capacity of the instance.
+   *
+   * @param capacity a capacity between 0 and the maximum capacity
+   */
+  public Solution getSolution(int capacity) {
+    return getSolutions(capacity)[0];
+  }
+
+  /**
+   * Returns optimal solutions for the given capacities. The capacities that have not been
+   * reconstructed before are traced back in a single backward pass.
+   *
+   * @param capacities capacities between 0 and the maximum capacity
+   */
+  public Solution[] getSolutions(int... capacities) {
+    final int[] missing = new int[capacities.length];
+    int count = 0;
+    for (int capacity : capacities) {
+      checkCapacity(capacity);
+      if (!solutions.containsKey(capacity)) {
+        solutions.put(capacity, null);
+        missing[count++] = capacity;
+      }
+    }
+    if (count > 0) {
+      reconstruct(Arrays.copyOf(missing, count));
+    }
+
+    final Solution[] result = new Solution[capacities.length];
+    for (int j = 0; j < capacities.length; j++) {
+      result[j] = solutions.get(capacities[j]);
+    }
+    return result;
+  }
+
+  /**
+   * Traces the given capacities back through the blocks of the table and caches the solutions.
+   */
+  private void reconstruct(int[] capacities) {
+    final Solution[] result = new Solution[capacities.length];
+    final int[] targets = capacities.clone();
+    for (int j = 0; j < capacities.length; j++) {
+      result[j] = new Solution(instance);
+    }
+
+    // rows[j]: the row before item from + j of the block, rows[to - from]: the row after the block
+    final long[][] rows = new long[interval + 1][];
+    long[] after = values;
+    for (int b = checkpoints.length - 1; b >= 0; b--) {
+      final int from = b * interval;
+      final int to = Math.min(size, from + interval);
+      rows[0] = checkpoints[b];
+      for (int k = from; k < to - 1; k++) {
+        rows[k - from + 1] = rows[k - from].clone();
+        add(rows[k - from + 1], items[k]);
+      }
+      rows[to - from] = after;
+
+      for (int k = to - 1; k >= from; k--) {
+        final long[] before = rows[k - from];
+        final long[] behind = rows[k - from + 1];
+        for (int j = 0; j < targets.length; j++) {
+          if (before[targets[j]] != behind[targets[j]]) {
+            result[j].set(items[k], 1);
+            targets[j] -= instance.getWeight(items[k]);
+          }
+        }
+      }
+      after = checkpoints[b];
+    }
+
+    for (int j = 0; j < capacities.length; j++) {
+      solutions.put(capacities[j], result[j]);
+    }
+  }
+
+  private void checkCapacity(int capacity) {
+    if (capacity < 0 || capacity > maxCapacity) {
+      throw new IllegalArgumentException(
+          "Capacity " + capacity + " is not between 0 and " + maxCapacity);
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.utils.Logger;
+
+/**
+ * Writes the checkpoints of a single long-running solve to a local file and reads them back for a
+ * restarted solve.
+ *
+ * A checkpoint starts with a header that names the solver and holds the
+ * {@link SolutionCache#fingerprint(Instance) fingerprint} of the instance; a checkpoint of another
+ * solver or instance is ignored. Every checkpoint replaces the previous one: it is written to a
+ * temporary file first and then moved over the old one, so a crash while writing keeps the old
+ * checkpoint.
+ *
+ * The solver asks {@link #isDue()} at its regular checks. The next checkpoint is due after the
+ * longest of
+ * <ul>
+ * <li>the interval,</li>
+ * <li>the time to write the last checkpoint at the given bandwidth in bytes per second,</li>
+ * <li>a hundred times the time it took to write the last checkpoint,</li>
+ * </ul>
+ * so writing checkpoints takes at most about 1% of the runtime.
+ *
+ * A checkpointer keeps the state of one run and must not be shared by concurrent solves.
+ *
+ * @author
+ */
+public class Checkpointer {
+  /**
+   * Writes the state of a solver.
+   */
+  public interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * Reads the state of a solver.
+   *
+   * @param <T> the type of the state
+   */
+  public interface Loader<T> {
+    T read(DataInputStream in) throws IOException;
+  }
+
+  private static final int MAGIC = 0x4B534350;
+  private static final long OVERHEAD = 100;
+
+  private final Path file;
+  private final long interval;
+  private final long bandwidth;
+
+  private long next;
+  private long checkpoints = 0;
+  private long bytes = 0;
+  private long nanos = 0;
+
+  /**
+   * Writes a checkpoint at most once a minute and at most 1 MB per second on average.
+   *
+   * @param file the checkpoint file
+   */
+  public Checkpointer(Path file) {
+    this(file, 60000, 1 << 20);
+  }
+
+  /**
+   * Creates a checkpointer; the first checkpoint is due after the interval.
+   *
+   * @param file the checkpoint file
+   * @param interval the minimum time between two checkpoints in milliseconds
+   * @param bandwidth the maximum number of bytes written per second on average
+   */
+  public Checkpointer(Path file, long interval, long bandwidth) {
+    if (interval < 0 || bandwidth < 1) {
+      throw new IllegalArgumentException("Negative interval or bandwidth");
+    }
+    this.file = file;
+    this.interval = interval;
+    this.bandwidth = bandwidth;
+    this.next = System.nanoTime() + interval * 1000000;
+  }
+
+  /**
+   * Checks whether the next checkpoint is due
+   */
+  public boolean isDue() {
+    return System.nanoTime() - next >= 0;
+  }
+
+  /**
+   * Reads the latest checkpoint.
+   *
+   * @param solver the name of the solver that has written the checkpoint
+   * @param instance the instance of the solve
+   * @param loader reads the state of the solver
+   * @return the state, or null if there is no checkpoint of the solver for the instance or it
+   *         cannot be read
+   */
+  public <T> T read(String solver, Instance instance, Loader<T> loader) {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || !in.readUTF().equals(solver)
+          || !in.readUTF().equals(SolutionCache.fingerprint(instance))) {
+        return null;
+      }
+      return loader.read(in);
+    } catch (IOException | RuntimeException e) {
+      Logger.println("Checkpoint: cannot read " + file + ": " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes a checkpoint and schedules the next one. A failure is logged and does not stop the
+   * solver, the previous checkpoint is kept.
+   *
+   * @param solver the name of the solver
+   * @param instance the instance of the solve
+   * @param writer writes the state of the solver
+   */
+  public void write(String solver, Instance instance, Writer writer) {
+    final long start = System.nanoTime();
+    long size = 0;
+    try {
+      final Path directory = file.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try {
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+          out.writeInt(MAGIC);
+          out.writeUTF(solver);
+          out.writeUTF(SolutionCache.fingerprint(instance));
+          writer.write(out);
+          size = out.size();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+      checkpoints++;
+      bytes += size;
+    } catch (IOException e) {
+      Logger.println("Checkpoint: cannot write " + file + ": " + e);
+    }
+
+    final long end = System.nanoTime();
+    nanos += end - start;
+    final long pause = Math.max(interval * 1000000,
+        Math.max(size * 1000000000 / bandwidth, (end - start) * OVERHEAD));
+    next = end + pause;
+  }
+
+  /**
+   * Removes the checkpoint, e.g. after the solve has completed.
+   */
+  public void delete() {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      Logger.println("Checkpoint: cannot delete " + file + ": " + e);
+    }
+  }
+
+  /**
+   * Writes the first flags of an array, eight per byte.
+   *
+   * @param out the stream
+   * @param bits the flags
+   * @param length the number of flags to write
+   * @throws IOException if the stream fails
+   */
+  public static void writeBits(DataOutputStream out, boolean[] bits, int length)
+      throws IOException {
+    for (int from = 0; from < length; from += 8) {
+      int b = 0;
+      for (int k = from; k < Math.min(length, from + 8); k++) {
+        if (bits[k]) {
+          b |= 1 << (k - from);
+        }
+      }
+      out.writeByte(b);
+    }
+  }
+
+  /**
+   * Reads flags written by {@link #writeBits(DataOutputStream, boolean[], int)}.
+   *
+   * @param in the stream
+   * @param bits the array for the flags
+   * @param length the number of flags to read
+   * @throws IOException if the stream fails
+   */
+  public static void readBits(DataInputStream in, boolean[] bits, int length) throws IOException {
+    for (int from = 0; from < length; from += 8) {
+      final int b = in.readUnsignedByte();
+      for (int k = from; k < Math.min(length, from + 8); k++) {
+        bits[k] = (b & (1 << (k - from))) != 0;
+      }
+    }
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the number of checkpoints written
+   */
+  public long getCheckpoints() {
+    return checkpoints;
+  }
+
+  /**
+   * Returns the number of bytes written
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the time spent writing checkpoints in nanoseconds
+   */
+  public long getNanos() {
+    return nanos;
+  }
+}
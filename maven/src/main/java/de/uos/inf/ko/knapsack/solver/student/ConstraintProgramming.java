@@ -1,31 +1,59 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
 
 /**
  * A constraint-based solver for the binary knapsack problem.
  *
+ * Every solution, starting with the greedy one, is published to the {@link SolveControl}. Better
+ * values of other solvers are passed to the objective manager, so that the search only looks for
+ * strictly better solutions, and the search stops when the control asks to. The upper bound of a
+ * stopped search is the Martello-Toth bound of the instance.
+ *
  * @author
  */
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.IntVar;
 
 import static org.chocosolver.solver.search.strategy.Search.inputOrderLBSearch;
 import static org.chocosolver.solver.search.strategy.Search.inputOrderUBSearch;
 import java.util.Arrays;
+import java.util.Comparator;
 
 
-public class ConstraintProgramming implements SolverInterface<Solution> {
+public class ConstraintProgramming implements AnytimeSolver {
   /**
    * Solves the given knapsack instance using constraint programming.
    *
    * @param instance the knapsack instance to solve
-   * @return the solution to the knapsack instance
+   * @param control the deadline and the best known solution
+   * @return the solution to the knapsack instance and the upper bound
    */
-  public Solution solve(Instance instance) {
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return search(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult search(Instance instance, SolveControl control, SolveStats stats) {
+    // the greedy solution is the answer if the model cannot be built in time, and its value is the
+    // first cut of the objective
+    control.offer(new GreedyHeuristic().solve(instance), getName());
+    if (control.shouldStop()) {
+      return control.result(Bounds.upperBound(instance));
+    }
+
     // 1. create model
     Model model = new Model("Binary Knapsack");
 
@@ -47,21 +75,63 @@ public class ConstraintProgramming implements SolverInterface<Solution> {
 
     // 3. add constraints
     model.knapsack(items, weight, value, weights, values).post();
+    // the generic knapsack constraint does not know the bound of the fractional relaxation
+    new Constraint("KnapsackBound",
+        new KnapsackBoundPropagator(items, value, values, weights, capacity)).post();
+    // posting the constraints takes a while on large instances and cannot be interrupted
+    if (control.shouldStop()) {
+      return control.result(Bounds.upperBound(instance));
+    }
 
     // 4. get solver and solve model
     model.setObjective(Model.MAXIMIZE, value);
     Solver solver = model.getSolver();
-    solver.setSearch(inputOrderLBSearch(value), inputOrderUBSearch(items));
+    // branch on the items in descending order of their value-to-weight ratio (packing first), so
+    // the relaxation bound of the propagator is tight from the beginning
+    Integer[] perm = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      perm[i] = i;
+    }
+    Arrays.sort(perm, new Comparator<Integer>() {
+      public int compare(Integer o1, Integer o2) {
+        return Double.compare((double) values[o2] / weights[o2], (double) values[o1] / weights[o1]);
+      }
+    });
+    IntVar[] sortedItems = new IntVar[n];
+    for (int i = 0; i < n; i++) {
+      sortedItems[i] = items[perm[i]];
+    }
+    solver.setSearch(inputOrderUBSearch(sortedItems), inputOrderLBSearch(value));
+
+    // the stop criterion is checked at every node of the search
+    final long[] known = {-1};
+    final boolean[] stopped = {false};
+    solver.addStopCriterion(() -> {
+      final long shared = control.getValue();
+      if (shared > known[0]) {
+        known[0] = shared;
+        solver.getObjectiveManager().updateBestSolution(shared);
+      }
+      stopped[0] = control.shouldStop();
+      return stopped[0];
+    });
 
     // 5. put variable values in solution
-    Solution solution = new Solution(instance);
+    Solution solution;
     while (solver.solve()) {
+      solution = new Solution(instance);
       for (int i = 0; i < items.length; i++) {
         solution.set(i, items[i].getValue());
       }
+      control.offer(solution, getName());
     }
+    // a failed node cannot hold a solution better than the objective cut
+    stats.addNodes(solver.getNodeCount());
+    stats.addPrunes(SolveStats.Prune.BOUND, solver.getFailCount());
+    stats.addRestarts(solver.getRestartCount());
 
-    return solution;
+    // a completed search has proven that no solution is better than the best one of the control
+    return control.result(stopped[0] ? Bounds.upperBound(instance) : control.getValue());
   }
 
 
@@ -0,0 +1,667 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+import de.uos.inf.ko.knapsack.solver.student.BranchAndBound.Subproblem;
+import de.uos.inf.ko.utils.Logger;
+
+/**
+ * The coordinator of a branch-and-bound search shared by several {@link BranchAndBoundWorker
+ * workers}, usually separate processes connected over TCP.
+ *
+ * The coordinator listens on the loopback interface. A worker may connect at any time and receives
+ * the instance of the current solve together with the order of its items. The coordinator splits
+ * the tree breadth-first into subproblems, i.e. fixed decisions for the first items in sorted
+ * order, and drops those that do not fit or cannot beat the greedy solution. Idle workers are
+ * given the next subproblem. Once all subproblems are given out, the coordinator asks the busy
+ * workers to give back their open subtree closest to the root, so the work is rebalanced until
+ * the tree is exhausted. Improvements found by a worker are published to the {@link SolveControl}
+ * and sent on to all other workers. If a worker disconnects, its subproblem is given out again.
+ * Messages to a worker are encoded while the coordinator holds its lock, but sent by a writer
+ * thread per worker in their order, so a slow worker never blocks the coordinator. A worker is
+ * disconnected, and its subproblem given out again, if its unsent messages exceed a backlog limit
+ * or if it does not answer a request for a subtree within a timeout.
+ *
+ * The solve stops when all subproblems are done, which proves the best solution optimal, or when
+ * the control asks to; the upper bound of a stopped solve is the maximum of the Martello-Toth
+ * bounds of the subproblems not done. A solve waits for at least one worker to connect. Only one
+ * solve runs at a time. The {@link SolveStats} of a solve count the split into subproblems; the
+ * workers count their subtrees in their own processes.
+ *
+ * @author
+ */
+public class DistributedBranchAndBound implements AnytimeSolver, AutoCloseable {
+  // messages of the coordinator
+  static final byte INSTANCE = 1;
+  static final byte WORK = 2;
+  static final byte INCUMBENT = 3;
+  static final byte SPLIT = 4;
+  static final byte CANCEL = 5;
+  static final byte STOP = 6;
+
+  // messages of a worker
+  static final byte DONE = 11;
+  static final byte DONATE = 12;
+  static final byte IMPROVED = 13;
+
+  private static final long POLL = 10;
+
+  private final ServerSocket server;
+  private final int subproblems;
+  private final long maxBacklog;
+  private final long splitTimeout;
+  private final Object solving = new Object();
+
+  // guarded by this
+  private final List<Connection> connections = new ArrayList<>();
+  private Round round = null;
+  private int rounds = 0;
+  private long donations = 0;
+  private long reassignments = 0;
+
+  /**
+   * Listens on a free port and splits the tree into 64 subproblems.
+   *
+   * @throws IOException if no server socket can be opened
+   */
+  public DistributedBranchAndBound() throws IOException {
+    this(0, 64);
+  }
+
+  /**
+   * Creates a coordinator that accepts workers on the loopback interface. A worker is disconnected
+   * if more than 64 MB of messages to it are unsent or if it does not answer a request for a
+   * subtree within 30 seconds.
+   *
+   * @param port the port to listen on, 0 for a free port
+   * @param subproblems the number of subproblems the tree is split into at the start
+   * @throws IOException if no server socket can be opened
+   */
+  public DistributedBranchAndBound(int port, int subproblems) throws IOException {
+    this(port, subproblems, 64L << 20, 30000);
+  }
+
+  /**
+   * Creates a coordinator that accepts workers on the loopback interface.
+   *
+   * @param port the port to listen on, 0 for a free port
+   * @param subproblems the number of subproblems the tree is split into at the start
+   * @param maxBacklog the maximum number of bytes of unsent messages to a worker, besides the
+   *        message being sent
+   * @param splitTimeout the time in milliseconds a worker has to answer a request for a subtree
+   * @throws IOException if no server socket can be opened
+   */
+  public DistributedBranchAndBound(int port, int subproblems, long maxBacklog, long splitTimeout)
+      throws IOException {
+    if (subproblems < 1) {
+      throw new IllegalArgumentException("At least one subproblem is needed");
+    }
+    if (maxBacklog < 0 || splitTimeout < 0) {
+      throw new IllegalArgumentException("The backlog and the timeout must not be negative");
+    }
+    this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    this.subproblems = subproblems;
+    this.maxBacklog = maxBacklog;
+    this.splitTimeout = splitTimeout;
+
+    final Thread acceptor = new Thread(() -> {
+      while (!server.isClosed()) {
+        try {
+          connected(new Connection(server.accept()));
+        } catch (IOException e) {
+          // the server socket has been closed
+        }
+      }
+    }, "coordinator");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port the workers connect to
+   */
+  public int getPort() {
+    return server.getLocalPort();
+  }
+
+  /**
+   * Returns the number of connected workers
+   */
+  public synchronized int getWorkers() {
+    return connections.size();
+  }
+
+  /**
+   * Waits until at least the given number of workers are connected.
+   *
+   * @param count the number of workers
+   * @param timeout the maximum time to wait in milliseconds
+   * @return true if enough workers are connected
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public synchronized boolean awaitWorkers(int count, long timeout) throws InterruptedException {
+    final long end = System.currentTimeMillis() + timeout;
+    while (connections.size() < count) {
+      final long remaining = end - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return false;
+      }
+      wait(remaining);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of subtrees given back by workers during the last solve
+   */
+  public synchronized long getDonations() {
+    return donations;
+  }
+
+  /**
+   * Returns the number of subproblems given out again after a worker disconnected during the last
+   * solve
+   */
+  public synchronized long getReassignments() {
+    return reassignments;
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return coordinate(instance, control);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult coordinate(Instance instance, SolveControl control) {
+    synchronized (solving) {
+      final Bounds bounds = new Bounds(instance);
+      control.offer(new GreedyHeuristic().solve(instance), getName());
+
+      synchronized (this) {
+        round = new Round(++rounds, instance, bounds, control);
+        donations = 0;
+        reassignments = 0;
+        for (Connection connection : connections) {
+          start(connection);
+        }
+        dispatch();
+
+        try {
+          while (!round.isDone() && !control.shouldStop()) {
+            wait(POLL);
+            // solutions of other solvers sharing the control
+            broadcastIncumbent();
+            dropStalled();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+
+        final long upperBound = round.isDone() ? control.getValue() : round.openBound();
+        for (Connection connection : connections) {
+          if (connection.assigned != null) {
+            connection.send(CANCEL, round.id, null);
+          }
+        }
+        round = null;
+        return control.result(upperBound);
+      }
+    }
+  }
+
+  /**
+   * Stops the workers and closes all connections.
+   */
+  @Override
+  public synchronized void close() {
+    try {
+      server.close();
+    } catch (IOException e) {
+      Logger.println("Coordinator: " + e);
+    }
+    for (Connection connection : new ArrayList<>(connections)) {
+      connection.send(STOP, 0, null);
+      connection.finish();
+    }
+  }
+
+  private synchronized void connected(Connection connection) {
+    connections.add(connection);
+    final Thread reader = new Thread(connection::read, "coordinator-reader");
+    reader.setDaemon(true);
+    reader.start();
+    final Thread writer = new Thread(connection::write, "coordinator-writer");
+    writer.setDaemon(true);
+    writer.start();
+    if (round != null) {
+      start(connection);
+      dispatch();
+    }
+    notifyAll();
+  }
+
+  private synchronized void disconnected(Connection connection) {
+    connections.remove(connection);
+    if (round != null && connection.round == round.id && connection.assigned != null) {
+      round.queue.addFirst(connection.assigned);
+      reassignments++;
+      connection.assigned = null;
+      dispatch();
+    }
+    notifyAll();
+  }
+
+  private synchronized void done(Connection connection, int id) {
+    if (round == null || id != round.id) {
+      return;
+    }
+    connection.assigned = null;
+    connection.splitPending = false;
+    dispatch();
+    notifyAll();
+  }
+
+  private synchronized void donated(Connection connection, int id, Subproblem subproblem) {
+    if (round == null || id != round.id) {
+      return;
+    }
+    connection.splitPending = false;
+    if (subproblem != null) {
+      round.queue.add(subproblem);
+      donations++;
+    }
+    dispatch();
+  }
+
+  private synchronized void improved(Connection connection, int id, boolean[] packed) {
+    if (round == null || id != round.id || packed.length != round.instance.getSize()) {
+      return;
+    }
+    final Solution solution = new Solution(round.instance);
+    for (int i = 0; i < packed.length; i++) {
+      solution.set(i, packed[i] ? 1 : 0);
+    }
+    if (solution.isFeasible()) {
+      connection.sentValue = Math.max(connection.sentValue, solution.getValue());
+      round.control.offer(solution, getName());
+      broadcastIncumbent();
+    }
+  }
+
+  /**
+   * Sends the instance of the current solve to a worker.
+   */
+  private void start(Connection connection) {
+    connection.round = round.id;
+    connection.assigned = null;
+    connection.splitPending = false;
+    connection.sentValue = -1;
+    final Instance instance = round.instance;
+    final int[] order = round.bounds.getOrder();
+    connection.send(INSTANCE, round.id, out -> {
+      out.writeInt(instance.getCapacity());
+      out.writeInt(instance.getSize());
+      for (int i = 0; i < instance.getSize(); i++) {
+        out.writeInt(instance.getValue(i));
+        out.writeInt(instance.getWeight(i));
+      }
+      for (int k = 0; k < order.length; k++) {
+        out.writeInt(order[k]);
+      }
+    });
+  }
+
+  /**
+   * Gives the waiting subproblems to idle workers, and asks busy workers for subtrees if there are
+   * idle workers left.
+   */
+  private void dispatch() {
+    boolean idle = false;
+    for (Connection connection : connections) {
+      if (connection.assigned == null) {
+        final Subproblem subproblem = round.queue.poll();
+        if (subproblem == null) {
+          idle = true;
+          continue;
+        }
+        sendIncumbent(connection);
+        connection.assigned = subproblem;
+        connection.send(WORK, round.id, subproblem::write);
+      }
+    }
+    if (idle) {
+      for (Connection connection : connections) {
+        if (connection.assigned != null && !connection.splitPending) {
+          connection.splitPending = true;
+          connection.splitSent = System.nanoTime();
+          connection.send(SPLIT, round.id, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the connections of workers that have not answered a request for a subtree in time.
+   * Their readers then give their subproblems out again.
+   */
+  private void dropStalled() {
+    final long now = System.nanoTime();
+    for (Connection connection : connections) {
+      if (connection.splitPending && now - connection.splitSent > splitTimeout * 1000000) {
+        Logger.println("Coordinator: a worker has not answered a split request, disconnecting");
+        connection.close();
+      }
+    }
+  }
+
+  private void broadcastIncumbent() {
+    for (Connection connection : connections) {
+      sendIncumbent(connection);
+    }
+  }
+
+  private void sendIncumbent(Connection connection) {
+    final Solution solution = round.control.getSolution();
+    if (solution != null && solution.getValue() > connection.sentValue) {
+      connection.sentValue = solution.getValue();
+      connection.send(INCUMBENT, round.id, out -> writePacking(out, solution));
+    }
+  }
+
+  /**
+   * Writes the packed items of a solution.
+   */
+  static void writePacking(DataOutputStream out, Solution solution) throws IOException {
+    final boolean[] packed = new boolean[solution.getIntegerArray().length];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = solution.get(i) > 0;
+    }
+    out.writeInt(packed.length);
+    Checkpointer.writeBits(out, packed, packed.length);
+  }
+
+  /**
+   * Reads the packed items written by {@link #writePacking(DataOutputStream, Solution)}.
+   */
+  static boolean[] readPacking(DataInputStream in) throws IOException {
+    final boolean[] packed = new boolean[in.readInt()];
+    Checkpointer.readBits(in, packed, packed.length);
+    return packed;
+  }
+
+  /**
+   * The state of a single solve.
+   */
+  private final class Round {
+    private final int id;
+    private final Instance instance;
+    private final Bounds bounds;
+    private final SolveControl control;
+    private final Deque<Subproblem> queue = new ArrayDeque<>();
+
+    Round(int id, Instance instance, Bounds bounds, SolveControl control) {
+      this.id = id;
+      this.instance = instance;
+      this.bounds = bounds;
+      this.control = control;
+
+      // breadth-first, so the subproblems are of similar size
+      final SolveStats stats = SolveStats.current();
+      queue.add(new Subproblem(new boolean[0]));
+      while (queue.size() < subproblems) {
+        final Subproblem subproblem = queue.poll();
+        if (subproblem == null || subproblem.getDepth() == bounds.getSize()) {
+          if (subproblem != null) {
+            queue.addFirst(subproblem);
+          }
+          break;
+        }
+        for (boolean packed : new boolean[] {true, false}) {
+          final Subproblem child = subproblem.child(packed);
+          final long bound = bound(child);
+          stats.node();
+          if (bound > control.getValue()) {
+            stats.boundEvaluated();
+            queue.add(child);
+          } else if (bound < 0) {
+            stats.prune(SolveStats.Prune.INFEASIBLE);
+          } else {
+            stats.boundEvaluated();
+            stats.prune(SolveStats.Prune.BOUND);
+          }
+        }
+      }
+    }
+
+    boolean isDone() {
+      if (!queue.isEmpty()) {
+        return false;
+      }
+      for (Connection connection : connections) {
+        if (connection.assigned != null) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the Martello-Toth bound of a subproblem, or -1 if its decisions do not fit.
+     */
+    long bound(Subproblem subproblem) {
+      long weight = 0;
+      long value = 0;
+      for (int k = 0; k < subproblem.getDepth(); k++) {
+        if (subproblem.isPacked(k)) {
+          weight += bounds.getWeight(k);
+          value += bounds.getValue(k);
+        }
+      }
+      final long residual = instance.getCapacity() - weight;
+      return residual < 0 ? -1 : value + bounds.martelloToth(subproblem.getDepth(), residual);
+    }
+
+    long openBound() {
+      long upper = control.getValue();
+      for (Subproblem subproblem : queue) {
+        upper = Math.max(upper, bound(subproblem));
+      }
+      for (Connection connection : connections) {
+        if (connection.assigned != null) {
+          upper = Math.max(upper, bound(connection.assigned));
+        }
+      }
+      return upper;
+    }
+  }
+
+  /**
+   * Writes the body of a message.
+   */
+  interface Body {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * A connected worker. The fields except the streams and the queue of outgoing messages are
+   * guarded by the coordinator.
+   */
+  private final class Connection {
+    /**
+     * Marks the end of the outgoing messages
+     */
+    private final byte[] end = new byte[0];
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final BlockingQueue<byte[]> outgoing = new LinkedBlockingQueue<>();
+    // bytes in outgoing, without the message being sent
+    private final AtomicLong backlog = new AtomicLong();
+
+    private int round = 0;
+    private Subproblem assigned = null;
+    private boolean splitPending = false;
+    private long splitSent = 0;
+    private long sentValue = -1;
+
+    Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      socket.setTcpNoDelay(true);
+      this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Encodes a message and queues it for the writer thread, so the body is taken from the state
+     * at the time of the call. If the backlog of the worker exceeds the limit, the message is
+     * dropped and the connection closed instead, which is then removed by its reader.
+     */
+    void send(byte type, int id, Body body) {
+      if (backlog.get() > maxBacklog) {
+        close();
+        return;
+      }
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      try (DataOutputStream message = new DataOutputStream(buffer)) {
+        message.writeByte(type);
+        message.writeInt(id);
+        if (body != null) {
+          body.write(message);
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      backlog.addAndGet(buffer.size());
+      outgoing.add(buffer.toByteArray());
+    }
+
+    /**
+     * Sends the queued messages until the end is queued; a failure closes the connection, which
+     * is then removed by its reader.
+     */
+    void write() {
+      try {
+        while (true) {
+          final byte[] message = outgoing.take();
+          if (message == end) {
+            out.flush();
+            socket.close();
+            return;
+          }
+          backlog.addAndGet(-message.length);
+          out.write(message);
+          if (outgoing.isEmpty()) {
+            out.flush();
+          }
+        }
+      } catch (IOException | InterruptedException e) {
+        close();
+      }
+    }
+
+    void read() {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+        while (true) {
+          final byte type = in.readByte();
+          final int id = in.readInt();
+          if (type == DONE) {
+            done(this, id);
+          } else if (type == DONATE) {
+            donated(this, id, in.readBoolean() ? Subproblem.read(in) : null);
+          } else if (type == IMPROVED) {
+            improved(this, id, readPacking(in));
+          } else {
+            throw new IOException("Unknown message " + type);
+          }
+        }
+      } catch (IOException e) {
+        // the worker has disconnected
+      } finally {
+        close();
+        disconnected(this);
+      }
+    }
+
+    /**
+     * Closes the connection after the queued messages have been sent.
+     */
+    void finish() {
+      outgoing.add(end);
+    }
+
+    /**
+     * Closes the connection at once and stops the writer thread.
+     */
+    void close() {
+      outgoing.add(end);
+      try {
+        socket.close();
+      } catch (IOException e) {
+        Logger.println("Coordinator: " + e);
+      }
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "DBB(s)";
+  }
+
+  /**
+   * Solves an instance with 1 to the given number of local worker processes and prints the
+   * runtimes.
+   *
+   * @param args the instance file and the maximum number of workers
+   * @throws Exception if the instance cannot be read or a worker cannot be started
+   */
+  public static void main(String[] args) throws Exception {
+    final Instance instance = Reader.readInstance(args[0]);
+    final int maxWorkers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    for (int workers = 1; workers <= maxWorkers; workers++) {
+      final List<Process> processes = new ArrayList<>();
+      try (DistributedBranchAndBound coordinator = new DistributedBranchAndBound()) {
+        for (int i = 0; i < workers; i++) {
+          processes.add(BranchAndBoundWorker.start(coordinator.getPort()));
+        }
+        if (!coordinator.awaitWorkers(workers, 30000)) {
+          throw new IllegalStateException("Workers did not connect");
+        }
+        final long start = System.nanoTime();
+        final SolveResult result = coordinator.solve(instance, new SolveControl());
+        System.out.println(workers + " workers: " + result + " in "
+            + (System.nanoTime() - start) / 1000000 + " ms, " + coordinator.getDonations()
+            + " donations");
+      } finally {
+        for (Process process : processes) {
+          process.destroy();
+        }
+      }
+    }
+  }
+}
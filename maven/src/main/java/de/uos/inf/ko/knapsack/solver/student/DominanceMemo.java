@@ -0,0 +1,108 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+/**
+ * A bounded memo table for the nodes of the {@link BranchAndBound}, keyed on the depth and the
+ * weight used so far and holding the best value seen for that key.
+ *
+ * A node with the same depth and weight as a node visited before, but no higher value, is
+ * dominated: the depth-first search has already finished the subtree of the earlier node, and
+ * every completion of the new node is a completion of the earlier one with at most the same value.
+ *
+ * The table uses open addressing over primitive arrays. A key is searched in a window of a few
+ * consecutive slots; if the window is full, the entry accessed least recently is evicted, so the
+ * memory footprint is fixed by the capacity. {@link #clear()} empties the table in constant time,
+ * so a table can be reused by many searches without allocating and zeroing its arrays again.
+ *
+ * @author
+ */
+public class DominanceMemo {
+  /**
+   * Number of slots probed for a key
+   */
+  private static final int PROBES = 8;
+
+  // the packed key plus 1, valid if the slot has been stamped after the last clear
+  private final long[] keys;
+  private final long[] values;
+  private final long[] stamps;
+  private final int mask;
+
+  private long clock = 0;
+  private long evictions = 0;
+
+  // slots stamped at or before this time are empty
+  private long cleared = 0;
+
+  /**
+   * Creates a memo table with at least the given number of entries (rounded up to a power of two).
+   *
+   * @param capacity the number of entries
+   */
+  public DominanceMemo(int capacity) {
+    int size = PROBES;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    keys = new long[size];
+    values = new long[size];
+    stamps = new long[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Checks whether a node is dominated by a node seen before and records it otherwise.
+   *
+   * @param depth the depth of the node
+   * @param weight the weight of the items packed at the node
+   * @param value the value of the items packed at the node
+   * @return true if a node with the same depth and weight and at least the same value was seen
+   */
+  public boolean dominated(int depth, long weight, long value) {
+    final long key = (((long) depth << 32) | weight) + 1;
+    final int home = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    clock++;
+
+    int victim = home;
+    for (int probe = 0; probe < PROBES; probe++) {
+      final int slot = (home + probe) & mask;
+      if (stamps[slot] <= cleared) {
+        victim = slot;
+        break;
+      }
+      if (keys[slot] == key) {
+        stamps[slot] = clock;
+        if (values[slot] >= value) {
+          return true;
+        }
+        values[slot] = value;
+        return false;
+      }
+      if (stamps[slot] < stamps[victim]) {
+        victim = slot;
+      }
+    }
+
+    if (stamps[victim] > cleared) {
+      evictions++;
+    }
+    keys[victim] = key;
+    values[victim] = value;
+    stamps[victim] = clock;
+    return false;
+  }
+
+  /**
+   * Removes all entries and resets the number of evictions.
+   */
+  public void clear() {
+    cleared = clock;
+    evictions = 0;
+  }
+
+  /**
+   * Returns the number of entries evicted so far
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+}
@@ -1,29 +1,46 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
-import de.uos.inf.ko.utils.Logger;
 
 /**
  * A full enumeration algorithm for the binary knapsack problem.
+ *
+ * The control is checked every 1024 solutions. If the enumeration is stopped, the upper bound is
+ * the Martello-Toth bound of the instance. Every packing is counted as a node of the
+ * {@link SolveStats}, an overweight one also as pruned.
  * 
  * @author
  */
-public class Enumeration implements SolverInterface<Solution> {
+public class Enumeration implements AnytimeSolver {
 
   @Override
-  public Solution solve(Instance instance) {
-    int numOptimalSolutions = 0;
-    int numAllowableSolutions = 0;
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return enumerate(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
 
+  private SolveResult enumerate(Instance instance, SolveControl control, SolveStats stats) {
     Solution bestSolution = null;
     int bestValue = Integer.MIN_VALUE;
     int numItems = instance.getSize();
     int numSolutions = (int) Math.pow(2, numItems);
 
     // iterate over all possible solutions
+    boolean stopped = false;
     for (int i = 0; i < numSolutions; i++) {
+      if ((i & 1023) == 1023 && control.shouldStop()) {
+        stopped = true;
+        break;
+      }
       Solution solution = new Solution(instance);
       // generate possible solution for the current iteration
       
@@ -43,8 +60,9 @@ public class Enumeration implements SolverInterface<Solution> {
         }
       }
 
-      if (solution.isFeasible()) {
-        numAllowableSolutions++;
+      stats.node();
+      if (!solution.isFeasible()) {
+        stats.prune(SolveStats.Prune.INFEASIBLE);
       }
 
       int value = solution.getValue();
@@ -53,21 +71,11 @@ public class Enumeration implements SolverInterface<Solution> {
       if (value > bestValue && solution.isFeasible()) {
         bestSolution = solution;
         bestValue = value;
-        numOptimalSolutions = 1;
-      } else if (value == bestValue && solution.isFeasible()) {
-        numOptimalSolutions++;
+        control.offer(bestSolution, getName());
       }
-
-      // Logger.println("Objective function value: " + value);
-      // Logger.println("Weight: " + weight);
-      // Logger.println("Feasible status: " + solution.isFeasible());
     }
 
-    Logger.println("Number of all solutions: " + numSolutions);
-    Logger.println("Number of optimal solutions: " + numOptimalSolutions);
-    Logger.println("Number of allowable solutions: " + numAllowableSolutions);
-
-    return bestSolution;
+    return control.result(stopped ? Bounds.upperBound(instance) : control.getValue());
   }
 
   @Override
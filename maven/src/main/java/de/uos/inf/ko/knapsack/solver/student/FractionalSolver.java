@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import de.uos.inf.ko.knapsack.FractionalSolution;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.SolverInterface;
 
 /**
@@ -12,15 +13,20 @@ import de.uos.inf.ko.knapsack.SolverInterface;
  * @author Stephan Beyer
  */
 public class FractionalSolver implements SolverInterface<FractionalSolution> {
-  private Instance instance;
-
-  private double getRatio(int i) {
+  private static double getRatio(Instance instance, int i) {
     return (double) instance.getValue(i) / instance.getWeight(i);
   }
 
-  public FractionalSolution solve(Instance inst) {
-    instance = inst;
+  public FractionalSolution solve(final Instance instance) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return fill(instance, stats);
+    } finally {
+      stats.end();
+    }
+  }
 
+  private FractionalSolution fill(final Instance instance, SolveStats stats) {
     // make array for index permutation
     Integer[] perm = new Integer[instance.getSize()];
     for (int i = 0; i < perm.length; ++i) {
@@ -30,8 +36,8 @@ public class FractionalSolver implements SolverInterface<FractionalSolution> {
     // sort it by cost-per-weight ratio in descending order
     Arrays.sort(perm, new Comparator<Integer>() {
       public int compare(Integer o1, Integer o2) {
-        double ratio1 = getRatio(o1);
-        double ratio2 = getRatio(o2);
+        double ratio1 = getRatio(instance, o1);
+        double ratio2 = getRatio(instance, o2);
 
         if (ratio1 == ratio2) {
           return 0;
@@ -57,6 +63,7 @@ public class FractionalSolver implements SolverInterface<FractionalSolution> {
       }
     }
 
+    stats.improved();
     return solution;
   }
 
@@ -1,19 +1,341 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
 
 /**
- * Solver for the binary knapsack problem based on a genetic algorithm.
+ * A steady-state genetic algorithm for the binary knapsack problem after Chu and Beasley.
+ *
+ * The individuals are packings of the items sorted by their value-to-weight ratio. Every iteration
+ * selects two parents by binary tournaments, combines them by uniform crossover and flips two
+ * random bits. The child is repaired: items with the lowest ratio are removed while it is
+ * overweight, then items with the highest ratio are added while they fit. A child that equals a
+ * member of the population is dropped, otherwise it replaces the worst member, so the best member
+ * always survives.
+ *
+ * Every improvement is published to the {@link SolveControl}. The algorithm stops after the given
+ * number of children, if the best member reaches the Martello-Toth bound of the instance, which is
+ * reported as the upper bound, or when the control asks to. The random number generator is a
+ * SplitMix64 generator whose whole state is one number, so a run can write
+ * {@link Checkpointer checkpoints} of the population and the generator and continue after a restart
+ * exactly as it would have without. All state of a run is created per call. Every child counts as
+ * an evaluated move of the {@link SolveStats}, and as an accepted one if it joins the population.
  *
  * @author
  */
-public class GeneticAlgorithm implements SolverInterface<Solution> {
+public class GeneticAlgorithm implements AnytimeSolver {
+  private static final String CHECKPOINT = "GeneticAlgorithm";
+
+  private final int populationSize;
+  private final long maxChildren;
+  private final long seed;
+
+  /**
+   * Evolves a population of 100 packings for 10000 children.
+   */
+  public GeneticAlgorithm() {
+    this(100, 10000, 42);
+  }
+
+  /**
+   * Creates a genetic algorithm.
+   *
+   * @param populationSize the number of individuals, at least 2
+   * @param maxChildren the number of children to generate
+   * @param seed the seed of the random number generator
+   */
+  public GeneticAlgorithm(int populationSize, long maxChildren, long seed) {
+    if (populationSize < 2) {
+      throw new IllegalArgumentException("A population needs at least two individuals");
+    }
+    this.populationSize = populationSize;
+    this.maxChildren = maxChildren;
+    this.seed = seed;
+  }
 
   @Override
-  public Solution solve(Instance instance) {
-    throw new UnsupportedOperationException();
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      final Population population = new Population(instance, control, null);
+      population.initialize();
+      return population.evolve();
+    } finally {
+      stats.end();
+    }
+  }
+
+  /**
+   * Solves the instance like {@link #solve(Instance, SolveControl)} and writes checkpoints. If the
+   * checkpointer holds a checkpoint of this solver with the same population size for the instance,
+   * the run resumes from it. A run stopped by the control writes a last checkpoint; a completed run
+   * deletes it.
+   *
+   * @param instance the instance of the Knapsack problem to be solved
+   * @param control the deadline and the best known solution
+   * @param checkpointer the checkpoint file and the cadence of the checkpoints
+   * @return the best solution and the upper bound
+   */
+  public SolveResult solve(Instance instance, SolveControl control, Checkpointer checkpointer) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      final Population population = new Population(instance, control, checkpointer);
+      if (checkpointer.read(CHECKPOINT, instance, population::restore) == null) {
+        population.initialize();
+      }
+      final SolveResult result = population.evolve();
+      if (population.completed) {
+        checkpointer.delete();
+      }
+      return result;
+    } finally {
+      stats.end();
+    }
+  }
+
+  /**
+   * The state of a single run: the members by sorted position, their values and weights, the
+   * state of the random number generator and the number of children generated so far.
+   */
+  private final class Population {
+    private final Instance instance;
+    private final Bounds bounds;
+    private final SolveControl control;
+    private final Checkpointer checkpointer;
+    private final int n;
+
+    private final boolean[][] members = new boolean[populationSize][];
+    private final long[] values = new long[populationSize];
+    private final long[] weights = new long[populationSize];
+    private long random = seed;
+    private long children = 0;
+    private boolean completed = false;
+
+    Population(Instance instance, SolveControl control, Checkpointer checkpointer) {
+      this.instance = instance;
+      this.bounds = new Bounds(instance);
+      this.control = control;
+      this.checkpointer = checkpointer;
+      this.n = bounds.getSize();
+    }
+
+    /**
+     * Fills the population with repaired random packings.
+     */
+    void initialize() {
+      for (int m = 0; m < populationSize; m++) {
+        final boolean[] member = new boolean[n];
+        for (int k = 0; k < n; k++) {
+          member[k] = nextInt(2) == 1;
+        }
+        members[m] = member;
+        repair(m);
+      }
+    }
+
+    SolveResult evolve() {
+      final SolveStats stats = SolveStats.current();
+      final long upperBound = bounds.martelloToth(0, instance.getCapacity());
+      int best = best();
+      control.offer(toSolution(members[best]), getName());
+
+      boolean[] child = new boolean[n];
+      while (values[best] < upperBound && !control.shouldStop()) {
+        if (children >= maxChildren) {
+          completed = true;
+          break;
+        }
+        if (checkpointer != null && checkpointer.isDue()) {
+          save();
+        }
+        children++;
+
+        // uniform crossover of two tournament winners and mutation of two bits
+        final boolean[] first = members[tournament()];
+        final boolean[] second = members[tournament()];
+        for (int k = 0; k < n; k++) {
+          child[k] = nextInt(2) == 0 ? first[k] : second[k];
+        }
+        for (int i = 0; i < 2 && n > 0; i++) {
+          final int k = nextInt(n);
+          child[k] = !child[k];
+        }
+
+        // the worst member is replaced by the repaired child unless it is a duplicate
+        final int worst = worst();
+        final boolean[] replaced = members[worst];
+        final long replacedValue = values[worst];
+        final long replacedWeight = weights[worst];
+        members[worst] = child;
+        repair(worst);
+        if (isDuplicate(worst)) {
+          members[worst] = replaced;
+          values[worst] = replacedValue;
+          weights[worst] = replacedWeight;
+          stats.move(false);
+          continue;
+        }
+        child = replaced;
+        stats.move(true);
+
+        // if all members had the same value, the best one may have been replaced
+        final long bestValue = values[best];
+        if (worst == best) {
+          best = best();
+        }
+        if (values[worst] > bestValue) {
+          best = worst;
+          control.offer(toSolution(members[best]), getName());
+        }
+      }
+      if (values[best] >= upperBound) {
+        completed = true;
+      } else if (!completed && checkpointer != null) {
+        save();
+      }
+      return control.result(upperBound);
+    }
+
+    /**
+     * Makes a member feasible and adds all items that still fit, both in the order of the ratios.
+     */
+    private void repair(int m) {
+      final boolean[] member = members[m];
+      final long capacity = instance.getCapacity();
+      long weight = 0;
+      for (int k = 0; k < n; k++) {
+        if (member[k]) {
+          weight += bounds.getWeight(k);
+        }
+      }
+      for (int k = n - 1; k >= 0 && weight > capacity; k--) {
+        if (member[k]) {
+          member[k] = false;
+          weight -= bounds.getWeight(k);
+        }
+      }
+      long value = 0;
+      for (int k = 0; k < n; k++) {
+        if (!member[k] && weight + bounds.getWeight(k) <= capacity) {
+          member[k] = true;
+          weight += bounds.getWeight(k);
+        }
+        if (member[k]) {
+          value += bounds.getValue(k);
+        }
+      }
+      values[m] = value;
+      weights[m] = weight;
+    }
+
+    private boolean isDuplicate(int m) {
+      for (int other = 0; other < populationSize; other++) {
+        if (other != m && values[other] == values[m] && weights[other] == weights[m]
+            && Arrays.equals(members[other], members[m])) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the better of two random members
+     */
+    private int tournament() {
+      final int first = nextInt(populationSize);
+      final int second = nextInt(populationSize);
+      return values[first] >= values[second] ? first : second;
+    }
+
+    private int best() {
+      int best = 0;
+      for (int m = 1; m < populationSize; m++) {
+        if (values[m] > values[best]) {
+          best = m;
+        }
+      }
+      return best;
+    }
+
+    private int worst() {
+      int worst = 0;
+      for (int m = 1; m < populationSize; m++) {
+        if (values[m] < values[worst]) {
+          worst = m;
+        }
+      }
+      return worst;
+    }
+
+    /**
+     * Returns a uniform random number between 0 (inclusive) and bound (exclusive), using the next
+     * number of the SplitMix64 sequence.
+     */
+    private int nextInt(int bound) {
+      random += 0x9E3779B97F4A7C15L;
+      long z = random;
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      z = z ^ (z >>> 31);
+      return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    private Solution toSolution(boolean[] member) {
+      final int[] order = bounds.getOrder();
+      final Solution solution = new Solution(instance);
+      for (int k = 0; k < n; k++) {
+        if (member[k]) {
+          solution.set(order[k], 1);
+        }
+      }
+      return solution;
+    }
+
+    /**
+     * Writes the generator, the number of children and the members.
+     */
+    private void save() {
+      checkpointer.write(CHECKPOINT, instance, out -> {
+        out.writeInt(populationSize);
+        out.writeLong(random);
+        out.writeLong(children);
+        for (boolean[] member : members) {
+          Checkpointer.writeBits(out, member, n);
+        }
+      });
+    }
+
+    /**
+     * Reads the state written by {@link #save()}; the population is changed only if the whole
+     * checkpoint can be read.
+     */
+    private Population restore(DataInputStream in) throws IOException {
+      if (in.readInt() != populationSize) {
+        throw new IOException("Checkpoint of another population size");
+      }
+      final long random = in.readLong();
+      final long children = in.readLong();
+      final boolean[][] members = new boolean[populationSize][n];
+      for (boolean[] member : members) {
+        Checkpointer.readBits(in, member, n);
+      }
+
+      this.random = random;
+      this.children = children;
+      for (int m = 0; m < populationSize; m++) {
+        this.members[m] = members[m];
+        repair(m);
+      }
+      return this;
+    }
   }
 
   @Override
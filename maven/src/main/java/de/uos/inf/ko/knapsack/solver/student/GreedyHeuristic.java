@@ -1,17 +1,20 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
 import java.util.PriorityQueue;
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.FractionalSolution;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
 
 /**
  * A sorting-based heuristic for the binary knapsack problem.
  *
  * @author
  */
-public class GreedyHeuristic implements SolverInterface<Solution> {
+public class GreedyHeuristic implements AnytimeSolver {
 
   /**
    * Solves the given knapsack instance using a greedy heuristic that selects items with the highest
@@ -22,6 +25,15 @@ public class GreedyHeuristic implements SolverInterface<Solution> {
    */
   @Override
   public Solution solve(Instance instance) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return pack(instance, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private Solution pack(Instance instance, SolveStats stats) {
     // iterate over values in instance, calculate value per weight and sort
     int[] weightArray = instance.getWeightArray();
     int[] valueArray = instance.getValueArray();
@@ -45,9 +57,24 @@ public class GreedyHeuristic implements SolverInterface<Solution> {
         binarySolution.set(item.getIndex(), 1);
       }
     }
+    stats.improved();
     return binarySolution;
   }
 
+  /**
+   * Publishes the greedy solution, the upper bound is the Martello-Toth bound of the instance.
+   */
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      control.offer(solve(instance), getName());
+      return control.result(Bounds.upperBound(instance));
+    } finally {
+      stats.end();
+    }
+  }
+
   @Override
   public String getName() {
     return "Greedy(s)";
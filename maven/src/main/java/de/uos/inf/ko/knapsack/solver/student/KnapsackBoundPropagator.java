@@ -0,0 +1,214 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import org.chocosolver.memory.IStateBitSet;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+import de.uos.inf.ko.knapsack.SolveStats;
+
+/**
+ * A Choco propagator for the objective of the binary knapsack problem.
+ *
+ * The items are kept in descending order of their value-to-weight ratio. On every domain change
+ * the propagator computes the Dantzig bound (the optimal value of the fractional relaxation) of
+ * the remaining items and bounds the objective variable from above. Afterwards, reduced-cost
+ * filtering fixes every free item whose flip away from its relaxed value would push the bound
+ * below the lower bound of the objective variable (which is raised by Choco whenever a better
+ * solution is found).
+ *
+ * The value and weight of the items fixed to 1 are kept in backtrackable counters and updated on
+ * each instantiation event, so only the free items have to be scanned when propagating. A
+ * backtrackable bit set marks the counted items, since an item instantiated before the initial
+ * propagation is seen by the initial propagation and again by its pending event. Every
+ * computed bound is counted in the {@link SolveStats} of the thread that creates the propagator,
+ * which is the thread that solves the model.
+ *
+ * @author
+ */
+public class KnapsackBoundPropagator extends Propagator<IntVar> {
+  private final int n;
+  private final int capacity;
+  private final int[] values;
+  private final int[] weights;
+
+  /**
+   * Item indices in descending order of the value-to-weight ratio
+   */
+  private final int[] order;
+
+  // value and weight of all items fixed to 1 (backtrackable)
+  private final IStateInt fixedValue;
+  private final IStateInt fixedWeight;
+  private final IStateBitSet counted;
+
+  private final SolveStats stats = SolveStats.current();
+
+  /**
+   * Creates the propagator.
+   *
+   * @param items the binary item variables
+   * @param value the objective variable (total value of the packed items)
+   * @param values the values of the items
+   * @param weights the weights of the items
+   * @param capacity the capacity of the knapsack
+   */
+  public KnapsackBoundPropagator(IntVar[] items, IntVar value, int[] values, int[] weights,
+      int capacity) {
+    super(append(items, value), PropagatorPriority.LINEAR, true);
+    this.n = items.length;
+    this.capacity = capacity;
+    this.values = values.clone();
+    this.weights = weights.clone();
+
+    Integer[] perm = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      perm[i] = i;
+    }
+    Arrays.sort(perm, new Comparator<Integer>() {
+      public int compare(Integer o1, Integer o2) {
+        return Double.compare(getRatio(o2), getRatio(o1));
+      }
+    });
+    order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = perm[i];
+    }
+
+    fixedValue = model.getEnvironment().makeInt(0);
+    fixedWeight = model.getEnvironment().makeInt(0);
+    counted = model.getEnvironment().makeBitSet(n);
+  }
+
+  private static IntVar[] append(IntVar[] items, IntVar value) {
+    IntVar[] vars = Arrays.copyOf(items, items.length + 1);
+    vars[items.length] = value;
+    return vars;
+  }
+
+  private double getRatio(int i) {
+    return (double) values[i] / weights[i];
+  }
+
+  @Override
+  public int getPropagationConditions(int vIdx) {
+    if (vIdx < n) {
+      return IntEventType.instantiation();
+    }
+    return IntEventType.boundAndInst();
+  }
+
+  @Override
+  public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+    if (idxVarInProp < n && vars[idxVarInProp].getValue() == 1) {
+      count(idxVarInProp);
+    }
+    forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+  }
+
+  @Override
+  public void propagate(int evtmask) throws ContradictionException {
+    if (PropagatorEventType.isFullPropagation(evtmask)) {
+      for (int i = 0; i < n; i++) {
+        if (vars[i].isInstantiatedTo(1)) {
+          count(i);
+        }
+      }
+    }
+
+    final int residual = capacity - fixedWeight.get();
+    if (residual < 0) {
+      fails();
+    }
+
+    // find the critical (break) item among the free items
+    long packedWeight = 0;
+    double ratio = 0.0;
+    for (int k = 0; k < n; k++) {
+      final int i = order[k];
+      if (vars[i].isInstantiated()) {
+        continue;
+      }
+      if (packedWeight + weights[i] > residual) {
+        ratio = getRatio(i);
+        break;
+      }
+      packedWeight += weights[i];
+    }
+
+    // Dantzig bound written as the dual bound for the ratio of the critical item:
+    // U = fixed + ratio * residual + sum of positive reduced costs c_j - ratio * w_j
+    double bound = fixedValue.get() + ratio * residual;
+    for (int i = 0; i < n; i++) {
+      if (!vars[i].isInstantiated()) {
+        bound += Math.max(0.0, values[i] - ratio * weights[i]);
+      }
+    }
+
+    stats.boundEvaluated();
+    final IntVar objective = vars[n];
+    objective.updateUpperBound((int) Math.floor(bound + 1e-9), this);
+
+    // reduced-cost filtering: flipping item i costs at least |c_i - ratio * w_i|
+    final int lowerBound = objective.getLB();
+    for (int i = 0; i < n; i++) {
+      if (vars[i].isInstantiated()) {
+        continue;
+      }
+      if (weights[i] > residual) {
+        vars[i].instantiateTo(0, this);
+        continue;
+      }
+      final double reducedCost = values[i] - ratio * weights[i];
+      if (Math.floor(bound - Math.abs(reducedCost) + 1e-9) < lowerBound) {
+        if (reducedCost > 0) {
+          // own modifications are not notified back, so keep the counters up to date here
+          vars[i].instantiateTo(1, this);
+          count(i);
+        } else {
+          vars[i].instantiateTo(0, this);
+        }
+      }
+    }
+    if (fixedWeight.get() > capacity) {
+      fails();
+    }
+  }
+
+  /**
+   * Adds an item fixed to 1 to the counters, unless it has been counted before.
+   */
+  private void count(int i) {
+    if (!counted.get(i)) {
+      counted.set(i);
+      fixedValue.add(values[i]);
+      fixedWeight.add(weights[i]);
+    }
+  }
+
+  @Override
+  public ESat isEntailed() {
+    int v = 0;
+    int w = 0;
+    for (int i = 0; i < n; i++) {
+      if (!vars[i].isInstantiated()) {
+        return ESat.UNDEFINED;
+      }
+      v += values[i] * vars[i].getValue();
+      w += weights[i] * vars[i].getValue();
+    }
+    if (w > capacity) {
+      return ESat.FALSE;
+    }
+    if (vars[n].isInstantiated()) {
+      return ESat.eval(vars[n].getValue() <= v);
+    }
+    return vars[n].getLB() <= v ? ESat.UNDEFINED : ESat.FALSE;
+  }
+}
@@ -0,0 +1,297 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Random;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+
+/**
+ * A large neighbourhood search for the binary knapsack problem.
+ *
+ * Starting from the greedy solution, every iteration frees a subset of the items (destroy) while
+ * the decisions of all other items are kept, and solves the subproblem over the free items and the
+ * residual capacity exactly with the {@link NemhauserUllmann} algorithm (repair). Since the
+ * current decisions of the free items are feasible for the subproblem, the solution never gets
+ * worse. The destroy operators work on the items sorted by their ratio:
+ * <ul>
+ * <li>{@link Operator#CRITICAL_WINDOW}: a window around the critical item of the greedy
+ * solution, where optimal solutions usually differ from the greedy one.</li>
+ * <li>{@link Operator#RANDOM}: items chosen uniformly at random between the first unpacked and
+ * the last packed item of the current solution.</li>
+ * <li>{@link Operator#SIMILAR_EFFICIENCY}: a block of consecutive items, i.e. items with similar
+ * ratios, at a random position.</li>
+ * </ul>
+ * The operators are chosen by roulette wheel selection. After every segment of iterations the
+ * weight of each operator moves towards its average score, so productive operators are chosen more
+ * often. The size of the subproblems adapts to the time slice: a repair runs on a child of the
+ * control that stops it at the time slice, and the size shrinks if a repair takes longer or is
+ * stopped and grows if repairs are much faster.
+ *
+ * Every improvement is published to the {@link SolveControl}, and the search, including a running
+ * repair, stops at the time limit or when the control asks to, whichever comes first. The upper
+ * bound is the Martello-Toth bound of the instance. The random number generator and the operator
+ * weights are created per call, so an instance may be shared between threads.
+ *
+ * Every repair counts as an evaluated move of the {@link SolveStats}, and as an accepted one if the
+ * repaired solution is kept; the repairs count their own states.
+ *
+ * @author
+ */
+public class LargeNeighbourhoodSearch implements AnytimeSolver {
+  /**
+   * The destroy operators
+   */
+  public enum Operator {
+    CRITICAL_WINDOW, RANDOM, SIMILAR_EFFICIENCY
+  }
+
+  private static final int SEGMENT = 50;
+  private static final double REACTION = 0.2;
+  private static final double SCORE_IMPROVED = 10;
+  private static final double SCORE_EQUAL = 0.5;
+
+  private final long timeLimit;
+  private final int maxIterations;
+  private final int initialSize;
+  private final long timeSlice;
+  private final long seed;
+
+  // reentrant, and reuses its buffers over the repairs
+  private final NemhauserUllmann repair = new NemhauserUllmann();
+
+  // operator weights of the last completed run, replaced as a whole
+  private volatile double[] lastWeights = new double[Operator.values().length];
+
+  /**
+   * Runs for one second with subproblems of initially 60 items and a time slice of 10 ms.
+   */
+  public LargeNeighbourhoodSearch() {
+    this(1000, Integer.MAX_VALUE, 60, 10, 42);
+  }
+
+  /**
+   * Creates a large neighbourhood search.
+   *
+   * @param timeLimit the time limit in milliseconds
+   * @param maxIterations the maximum number of iterations
+   * @param initialSize the initial number of free items per subproblem
+   * @param timeSlice the time in milliseconds a repair should take at most
+   * @param seed the seed of the random number generator
+   */
+  public LargeNeighbourhoodSearch(long timeLimit, int maxIterations, int initialSize,
+      long timeSlice, long seed) {
+    this.timeLimit = timeLimit;
+    this.maxIterations = maxIterations;
+    this.initialSize = initialSize;
+    this.timeSlice = timeSlice;
+    this.seed = seed;
+  }
+
+  /**
+   * Returns the weight of an operator after the last run
+   */
+  public double getWeight(Operator operator) {
+    return lastWeights[operator.ordinal()];
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return search(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult search(Instance instance, SolveControl control, SolveStats stats) {
+    final long start = System.nanoTime();
+    final Random random = new Random(seed);
+    final Bounds bounds = new Bounds(instance);
+    final int n = bounds.getSize();
+    final long capacity = instance.getCapacity();
+    final Operator[] operators = Operator.values();
+
+    // greedy solution by sorted position
+    final boolean[] x = new boolean[n];
+    long weight = 0;
+    for (int k = 0; k < n; k++) {
+      if (weight + bounds.getWeight(k) <= capacity) {
+        x[k] = true;
+        weight += bounds.getWeight(k);
+      }
+    }
+    final int critical = bounds.criticalPosition(0, capacity);
+    control.offer(toSolution(instance, bounds, x), getName());
+
+    final double[] scores = new double[operators.length];
+    final int[] uses = new int[operators.length];
+    final double[] weights = new double[operators.length];
+    for (int o = 0; o < operators.length; o++) {
+      weights[o] = 1;
+    }
+
+    int size = Math.min(n, initialSize);
+    final boolean[] free = new boolean[n];
+    final int[] freed = new int[n];
+    int iterations = 0;
+    while (iterations < maxIterations && n > 0 && !control.shouldStop()
+        && (System.nanoTime() - start) / 1000000 < timeLimit) {
+      iterations++;
+
+      // choose an operator by roulette wheel selection
+      double total = 0;
+      for (double w : weights) {
+        total += w;
+      }
+      double r = random.nextDouble() * total;
+      int o = 0;
+      while (o < operators.length - 1 && r >= weights[o]) {
+        r -= weights[o];
+        o++;
+      }
+
+      // destroy
+      final int count = destroy(operators[o], random, x, size, critical, free, freed);
+      final Instance sub = new Instance(count, 0);
+      long freedWeight = 0;
+      long freedValue = 0;
+      for (int j = 0; j < count; j++) {
+        final int k = freed[j];
+        sub.set(j, bounds.getValue(k), bounds.getWeight(k));
+        if (x[k]) {
+          freedWeight += bounds.getWeight(k);
+          freedValue += bounds.getValue(k);
+        }
+      }
+      sub.setCapacity((int) (capacity - weight + freedWeight));
+
+      // repair, stopped at the time slice or the time limit
+      final long remaining = timeLimit - (System.nanoTime() - start) / 1000000;
+      final long repairStart = System.nanoTime();
+      final SolveResult result =
+          repair.solve(sub, control.createChild(Math.min(timeSlice, remaining)));
+      final Solution repaired = result.getSolution();
+      final long repairTime = (System.nanoTime() - repairStart) / 1000000;
+
+      uses[o]++;
+      stats.move(repaired.getValue() >= freedValue);
+      if (repaired.getValue() >= freedValue) {
+        scores[o] += repaired.getValue() > freedValue ? SCORE_IMPROVED : SCORE_EQUAL;
+        for (int j = 0; j < count; j++) {
+          x[freed[j]] = repaired.get(j) == 1;
+        }
+        weight += repaired.getWeight() - freedWeight;
+        if (repaired.getValue() > freedValue) {
+          control.offer(toSolution(instance, bounds, x), getName());
+        }
+      }
+      for (int j = 0; j < count; j++) {
+        free[freed[j]] = false;
+      }
+
+      // adapt the size of the subproblems to the time slice
+      if (repairTime > timeSlice || !result.isOptimal()) {
+        size = Math.min(n, Math.max(2, size * 3 / 4));
+      } else if (repairTime * 4 < timeSlice) {
+        size = Math.min(n, size + 1);
+      }
+
+      // adapt the weights of the operators
+      if (iterations % SEGMENT == 0) {
+        for (int p = 0; p < operators.length; p++) {
+          if (uses[p] > 0) {
+            weights[p] = Math.max(0.05,
+                (1 - REACTION) * weights[p] + REACTION * scores[p] / uses[p]);
+          }
+          scores[p] = 0;
+          uses[p] = 0;
+        }
+      }
+    }
+
+    lastWeights = weights;
+
+    return control.result(bounds.martelloToth(0, capacity));
+  }
+
+  /**
+   * Converts a packing by sorted position into a solution.
+   */
+  private static Solution toSolution(Instance instance, Bounds bounds, boolean[] x) {
+    final int[] order = bounds.getOrder();
+    final Solution solution = new Solution(instance);
+    for (int k = 0; k < x.length; k++) {
+      if (x[k]) {
+        solution.set(order[k], 1);
+      }
+    }
+    return solution;
+  }
+
+  /**
+   * Marks the items freed by an operator and returns their number.
+   */
+  private static int destroy(Operator operator, Random random, boolean[] x, int size,
+      int critical, boolean[] free, int[] freed) {
+    final int n = x.length;
+    int count = 0;
+    switch (operator) {
+      case CRITICAL_WINDOW: {
+        // a window around the critical item, shifted randomly by up to half of its size
+        final int center = critical + random.nextInt(size + 1) - size / 2;
+        final int from = Math.max(0, Math.min(n - size, center - size / 2));
+        for (int k = from; k < from + size; k++) {
+          free[k] = true;
+          freed[count++] = k;
+        }
+        break;
+      }
+      case RANDOM: {
+        // the region between the first unpacked and the last packed item, plus a margin
+        int lo = 0;
+        while (lo < n && x[lo]) {
+          lo++;
+        }
+        int hi = n - 1;
+        while (hi >= 0 && !x[hi]) {
+          hi--;
+        }
+        lo = Math.max(0, lo - size);
+        hi = Math.min(n, hi + size + 1);
+        if (hi - lo < size) {
+          lo = 0;
+          hi = n;
+        }
+        while (count < size) {
+          final int k = lo + random.nextInt(hi - lo);
+          if (!free[k]) {
+            free[k] = true;
+            freed[count++] = k;
+          }
+        }
+        break;
+      }
+      case SIMILAR_EFFICIENCY: {
+        final int from = random.nextInt(n - size + 1);
+        for (int k = from; k < from + size; k++) {
+          free[k] = true;
+          freed[count++] = k;
+        }
+        break;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown operator " + operator);
+    }
+    return count;
+  }
+
+  @Override
+  public String getName() {
+    return "LNS";
+  }
+}
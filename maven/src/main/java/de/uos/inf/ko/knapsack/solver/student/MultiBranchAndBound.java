@@ -0,0 +1,169 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.multi.MultiInstance;
+import de.uos.inf.ko.knapsack.multi.MultiSolution;
+import de.uos.inf.ko.knapsack.multi.MultiSolverInterface;
+
+/**
+ * A branch-and-bound algorithm for the multidimensional knapsack problem.
+ *
+ * The initial solution and the multipliers lambda come from the {@link MultiSurrogateGreedy}. For
+ * any lambda >= 0 the surrogate constraint sum_i (sum_d lambda_d w_id) x_i <= sum_d lambda_d C_d
+ * is a relaxation, so the Dantzig bound of this single knapsack is an upper bound. The items are
+ * branched on in descending order of their surrogate ratio (packing first), which allows to
+ * compute the bound of each node in O(log n) from prefix sums. The current packing is a
+ * {@link MultiSolution}, so packing, unpacking and checking an item take O(m).
+ *
+ * A node limit turns the search into a heuristic that returns the best solution found. The nodes,
+ * bound evaluations and prunes of a run are counted in the {@link SolveStats}, which are available
+ * by {@link SolveStats#last()} after the call.
+ *
+ * @author
+ */
+public class MultiBranchAndBound implements MultiSolverInterface {
+  private static final double EPSILON = 1e-7;
+
+  private final long maxNodes;
+  // nodes of the last completed run
+  private volatile long lastNodes = 0;
+
+  /**
+   * Searches without a node limit.
+   */
+  public MultiBranchAndBound() {
+    this(Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a branch-and-bound solver that stops after the given number of nodes.
+   *
+   * @param maxNodes the maximum number of nodes
+   */
+  public MultiBranchAndBound(long maxNodes) {
+    this.maxNodes = maxNodes;
+  }
+
+  /**
+   * Returns the number of nodes of the last run
+   */
+  public long getNodes() {
+    return lastNodes;
+  }
+
+  @Override
+  public MultiSolution solve(MultiInstance instance) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return branch(instance, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private MultiSolution branch(MultiInstance instance, SolveStats stats) {
+    final int n = instance.getSize();
+    final int m = instance.getDimensions();
+
+    final MultiSurrogateGreedy greedy = new MultiSurrogateGreedy();
+    MultiSolution best = greedy.solve(instance);
+    final double[] lambda = greedy.getMultipliers();
+
+    // items by surrogate ratio and prefix sums over the sorted positions
+    final double[] surrogate = new double[n];
+    final int[] order = MultiSurrogateGreedy.surrogateOrder(instance, lambda, surrogate);
+    final double[] prefixWeight = new double[n + 1];
+    final long[] prefixValue = new long[n + 1];
+    for (int k = 0; k < n; k++) {
+      prefixWeight[k + 1] = prefixWeight[k] + surrogate[order[k]];
+      prefixValue[k + 1] = prefixValue[k] + instance.getValue(order[k]);
+    }
+
+    final MultiSolution current = new MultiSolution(instance);
+    final boolean[] open = new boolean[n];
+    int depth = 0;
+    long nodes = 0;
+
+    while (nodes < maxNodes) {
+      nodes++;
+
+      if (current.getValue() > best.getValue()) {
+        best = new MultiSolution(current);
+        stats.improved();
+      }
+
+      boolean descend = false;
+      if (depth < n) {
+        double residual = 0;
+        for (int d = 0; d < m; d++) {
+          residual += lambda[d] * current.getSlack(d);
+        }
+        final double bound = dantzig(instance, order, surrogate, prefixWeight, prefixValue, depth,
+            residual);
+        stats.boundEvaluated();
+        descend = current.getValue() + bound + EPSILON * (1 + bound) >= best.getValue() + 1;
+        if (!descend) {
+          stats.prune(SolveStats.Prune.BOUND);
+        }
+      }
+
+      if (descend) {
+        final int item = order[depth];
+        open[depth] = current.canAdd(item);
+        if (open[depth]) {
+          current.add(item);
+        } else {
+          stats.prune(SolveStats.Prune.INFEASIBLE);
+        }
+        depth++;
+        continue;
+      }
+
+      // backtrack to the last level with an open branch
+      depth--;
+      while (depth >= 0 && !open[depth]) {
+        depth--;
+      }
+      if (depth < 0) {
+        break;
+      }
+      open[depth] = false;
+      current.remove(order[depth]);
+      depth++;
+    }
+
+    lastNodes = nodes;
+    stats.addNodes(nodes);
+    return best;
+  }
+
+  /**
+   * Dantzig bound of the surrogate knapsack over the sorted positions depth, ..., n-1.
+   */
+  private static double dantzig(MultiInstance instance, int[] order, double[] surrogate,
+      double[] prefixWeight, long[] prefixValue, int depth, double capacity) {
+    final int n = order.length;
+    final double limit = prefixWeight[depth] + capacity;
+    int lo = depth;
+    int hi = n;
+    while (lo < hi) {
+      final int mid = (lo + hi + 1) >>> 1;
+      if (prefixWeight[mid] <= limit) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    double bound = prefixValue[lo] - prefixValue[depth];
+    if (lo < n) {
+      final int item = order[lo];
+      bound += (limit - prefixWeight[lo]) * instance.getValue(item) / surrogate[item];
+    }
+    return bound;
+  }
+
+  @Override
+  public String getName() {
+    return "MultiBB";
+  }
+}
@@ -0,0 +1,149 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.multi.MultiInstance;
+import de.uos.inf.ko.knapsack.multi.MultiSolution;
+import de.uos.inf.ko.knapsack.multi.MultiSolverInterface;
+
+/**
+ * A greedy heuristic for the multidimensional knapsack problem based on the surrogate relaxation.
+ *
+ * With multipliers lambda_d >= 0 the m constraints are combined into a single surrogate weight
+ * s_i = sum_d lambda_d w_id per item. The items are packed in descending order of v_i / s_i as long
+ * as they fit into all dimensions. The multipliers start with 1 / capacity and are adapted over
+ * several rounds: the weight of a dimension grows if its capacity is used more than the average.
+ * The best packing of all rounds is returned. Every round after the first counts as a restart of
+ * the {@link SolveStats}.
+ *
+ * @author
+ */
+public class MultiSurrogateGreedy implements MultiSolverInterface {
+  private final int rounds;
+  private final double step;
+
+  // multipliers of the last completed run, replaced as a whole
+  private volatile double[] lastMultipliers;
+
+  /**
+   * Runs 20 rounds with a step size of 0.5.
+   */
+  public MultiSurrogateGreedy() {
+    this(20, 0.5);
+  }
+
+  /**
+   * Creates a surrogate greedy heuristic.
+   *
+   * @param rounds the number of rounds
+   * @param step the step size of the multiplicative update of the multipliers
+   */
+  public MultiSurrogateGreedy(int rounds, double step) {
+    this.rounds = rounds;
+    this.step = step;
+  }
+
+  /**
+   * Returns the multipliers of the best round of the last run
+   */
+  public double[] getMultipliers() {
+    return lastMultipliers;
+  }
+
+  @Override
+  public MultiSolution solve(MultiInstance instance) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return pack(instance, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private MultiSolution pack(MultiInstance instance, SolveStats stats) {
+    final int m = instance.getDimensions();
+    final double[] lambda = new double[m];
+    for (int d = 0; d < m; d++) {
+      lambda[d] = 1.0 / Math.max(1, instance.getCapacity(d));
+    }
+
+    MultiSolution best = null;
+    double[] multipliers = null;
+    for (int round = 0; round < Math.max(1, rounds); round++) {
+      if (round > 0) {
+        stats.restart();
+      }
+      final int[] order = surrogateOrder(instance, lambda, new double[instance.getSize()]);
+      final MultiSolution solution = new MultiSolution(instance);
+      for (int i : order) {
+        if (solution.canAdd(i)) {
+          solution.add(i);
+        }
+      }
+      if (best == null || solution.getValue() > best.getValue()) {
+        best = solution;
+        multipliers = lambda.clone();
+        stats.improved();
+      }
+
+      // raise the multipliers of the dimensions with a high load
+      final double[] load = new double[m];
+      double average = 0;
+      for (int d = 0; d < m; d++) {
+        final int capacity = Math.max(1, instance.getCapacity(d));
+        load[d] = (double) (capacity - solution.getSlack(d)) / capacity;
+        average += load[d] / m;
+      }
+      for (int d = 0; d < m; d++) {
+        lambda[d] *= Math.exp(step * (load[d] - average));
+      }
+    }
+    lastMultipliers = multipliers;
+    return best;
+  }
+
+  /**
+   * Sorts the items in descending order of the ratio of value and surrogate weight; items with a
+   * surrogate weight of 0 come first.
+   *
+   * @param instance the multidimensional instance
+   * @param lambda the multipliers
+   * @param surrogate receives the surrogate weight of every item
+   * @return the item indices in descending order of the ratio
+   */
+  static int[] surrogateOrder(MultiInstance instance, double[] lambda, double[] surrogate) {
+    final int n = instance.getSize();
+    final int m = instance.getDimensions();
+    final int[] weights = instance.getWeightArray();
+    final double[] ratio = new double[n];
+    final Integer[] perm = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      double s = 0;
+      for (int d = 0; d < m; d++) {
+        s += lambda[d] * weights[i * m + d];
+      }
+      surrogate[i] = s;
+      ratio[i] = s > 0 ? instance.getValue(i) / s : Double.POSITIVE_INFINITY;
+      perm[i] = i;
+    }
+    Arrays.sort(perm, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return Double.compare(ratio[o2], ratio[o1]);
+      }
+    });
+
+    final int[] order = new int[n];
+    for (int k = 0; k < n; k++) {
+      order[k] = perm[k];
+    }
+    return order;
+  }
+
+  @Override
+  public String getName() {
+    return "MultiSurrogateGreedy";
+  }
+}
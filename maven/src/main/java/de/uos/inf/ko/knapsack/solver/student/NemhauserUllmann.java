@@ -0,0 +1,263 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+
+/**
+ * The algorithm of Nemhauser and Ullmann for the binary knapsack problem.
+ *
+ * Instead of a table over all capacities, only the list of Pareto-optimal partial solutions is
+ * kept: a state (w, v) is dropped if another state has at most the weight w and at least the value
+ * v. The list is stored as two primitive arrays sorted by increasing weight (and thus strictly
+ * increasing value). Adding an item merges the list with a copy shifted by the weight and value of
+ * the item in a single linear pass. Therefore the running time depends on the number of
+ * Pareto-optimal states and not on the capacity.
+ *
+ * The items are added in descending order of their ratio. A state is fathomed if its value plus
+ * the Dantzig bound of the remaining items is less than the best value found so far, starting with
+ * the Greedy Heuristic. Before every item, a better value of the {@link SolveControl} is taken over
+ * for fathoming. If the control asks to stop, the greedy solution is returned together with the
+ * maximum of the Dantzig bounds of the current states.
+ *
+ * For the reconstruction, every state stores its predecessor in the previous list and whether the
+ * item was packed in a single int per state (index times two plus the flag).
+ *
+ * The stored states are counted as nodes of the {@link SolveStats}, the dropped ones as pruned by
+ * dominance, by the bound or for exceeding the capacity.
+ *
+ * All state of a run is local to the call, so an instance may be shared between threads; the
+ * instrumentation is published when a run completes. The list buffers are kept in a
+ * {@link ScratchPool} for the next call, unless they have grown large.
+ *
+ * @author
+ */
+public class NemhauserUllmann implements AnytimeSolver {
+  /**
+   * Buffers with more states are not kept for the next call
+   */
+  private static final int MAX_KEPT = 1 << 16;
+
+  /**
+   * The list buffers of a run
+   */
+  private static final class Buffers {
+    private long[] weights = new long[16];
+    private long[] values = new long[16];
+    private long[] nextWeights = new long[16];
+    private long[] nextValues = new long[16];
+    private int[] nextLinks = new int[16];
+
+    void keep(long[] weights, long[] values, long[] nextWeights, long[] nextValues,
+        int[] nextLinks) {
+      if (Math.max(weights.length, nextWeights.length) > MAX_KEPT || nextLinks.length > MAX_KEPT) {
+        return;
+      }
+      this.weights = weights;
+      this.values = values;
+      this.nextWeights = nextWeights;
+      this.nextValues = nextValues;
+      this.nextLinks = nextLinks;
+    }
+  }
+
+  private final ScratchPool<Buffers> buffers = new ScratchPool<>(Buffers::new);
+
+  // instrumentation of the last completed run, guarded by this
+  private int maxListSize = 0;
+  private long totalStates = 0;
+  private long fathomedStates = 0;
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return merge(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult merge(Instance instance, SolveControl control, SolveStats stats) {
+    final Bounds bounds = new Bounds(instance);
+    final int n = bounds.getSize();
+    final long capacity = instance.getCapacity();
+
+    int maxListSize = 1;
+    long totalStates = 1;
+    long fathomedStates = 0;
+
+    final Solution greedy = new GreedyHeuristic().solve(instance);
+    control.offer(greedy, getName());
+    long incumbent = greedy.getValue();
+
+    final Buffers scratch = buffers.acquire();
+
+    // the list of states before the current item, starting with the empty packing
+    long[] weights = scratch.weights;
+    long[] values = scratch.values;
+    weights[0] = 0;
+    values[0] = 0;
+    int size = 1;
+
+    // buffers for the merged list
+    long[] nextWeights = scratch.nextWeights;
+    long[] nextValues = scratch.nextValues;
+    int[] nextLinks = scratch.nextLinks;
+
+    final int[][] links = new int[n][];
+
+    for (int k = 0; k < n; k++) {
+      // fathoming is strict, so the states of an optimal packing survive a shared value as well
+      incumbent = Math.max(incumbent, control.getValue());
+      if (control.shouldStop()) {
+        long upperBound = incumbent;
+        for (int i = 0; i < size; i++) {
+          upperBound = Math.max(upperBound, values[i] + bounds.dantzig(k, capacity - weights[i]));
+        }
+        stats.addBoundEvaluations(size);
+        scratch.keep(weights, values, nextWeights, nextValues, nextLinks);
+        buffers.release(scratch);
+        return control.result(upperBound);
+      }
+
+      final int w = bounds.getWeight(k);
+      final int c = bounds.getValue(k);
+
+      if (nextWeights.length < 2 * size) {
+        nextWeights = new long[2 * size];
+        nextValues = new long[2 * size];
+      }
+      if (nextLinks.length < 2 * size) {
+        nextLinks = new int[2 * size];
+      }
+
+      // merge the list (index i) with the list shifted by the item (index j)
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      long best = -1;
+      while (true) {
+        final long shiftedWeight = j < size ? weights[j] + w : Long.MAX_VALUE;
+        if (shiftedWeight > capacity && j < size) {
+          // all further shifted states are infeasible
+          stats.addPrunes(SolveStats.Prune.INFEASIBLE, size - j);
+          j = size;
+        }
+        if (i >= size && j >= size) {
+          break;
+        }
+
+        final long stateWeight;
+        final long stateValue;
+        final int link;
+        if (j >= size || (i < size && (weights[i] < shiftedWeight
+            || (weights[i] == shiftedWeight && values[i] >= values[j] + c)))) {
+          stateWeight = weights[i];
+          stateValue = values[i];
+          link = i << 1;
+          i++;
+        } else {
+          stateWeight = shiftedWeight;
+          stateValue = values[j] + c;
+          link = (j << 1) | 1;
+          j++;
+        }
+
+        // keep only states with a strictly higher value than all lighter ones
+        if (stateValue <= best) {
+          stats.prune(SolveStats.Prune.DOMINANCE);
+          continue;
+        }
+        best = stateValue;
+
+        stats.boundEvaluated();
+        if (stateValue + bounds.dantzig(k + 1, capacity - stateWeight) < incumbent) {
+          fathomedStates++;
+          stats.prune(SolveStats.Prune.BOUND);
+          continue;
+        }
+
+        nextWeights[count] = stateWeight;
+        nextValues[count] = stateValue;
+        nextLinks[count] = link;
+        count++;
+      }
+
+      // the last state has the highest value of all (feasible) states
+      if (count > 0 && nextValues[count - 1] > incumbent) {
+        incumbent = nextValues[count - 1];
+      }
+
+      links[k] = Arrays.copyOf(nextLinks, count);
+
+      // swap the lists
+      long[] tmp = weights;
+      weights = nextWeights;
+      nextWeights = tmp;
+      tmp = values;
+      values = nextValues;
+      nextValues = tmp;
+      size = count;
+
+      maxListSize = Math.max(maxListSize, size);
+      totalStates += size;
+      stats.addNodes(size);
+    }
+
+    scratch.keep(weights, values, nextWeights, nextValues, nextLinks);
+    buffers.release(scratch);
+    record(maxListSize, totalStates, fathomedStates);
+
+    // the optimal packing survives fathoming since its states never fall below the incumbent
+    final int[] order = bounds.getOrder();
+    final Solution solution = new Solution(instance);
+    int index = size - 1;
+    for (int k = n - 1; k >= 0; k--) {
+      final int link = links[k][index];
+      if ((link & 1) != 0) {
+        solution.set(order[k], 1);
+      }
+      index = link >>> 1;
+    }
+    control.offer(solution, getName());
+    return control.result(solution.getValue());
+  }
+
+  private synchronized void record(int maxListSize, long totalStates, long fathomedStates) {
+    this.maxListSize = maxListSize;
+    this.totalStates = totalStates;
+    this.fathomedStates = fathomedStates;
+  }
+
+  /**
+   * Returns the maximum number of states in a list during the last run
+   */
+  public synchronized int getMaxListSize() {
+    return maxListSize;
+  }
+
+  /**
+   * Returns the number of states stored over all lists during the last run
+   */
+  public synchronized long getTotalStates() {
+    return totalStates;
+  }
+
+  /**
+   * Returns the number of states fathomed by the Dantzig bound during the last run
+   */
+  public synchronized long getFathomedStates() {
+    return fathomedStates;
+  }
+
+  @Override
+  public String getName() {
+    return "NemhauserUllmann";
+  }
+}
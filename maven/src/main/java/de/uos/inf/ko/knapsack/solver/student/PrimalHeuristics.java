@@ -0,0 +1,230 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+/**
+ * Primal heuristics for the nodes of the {@link BranchAndBound}. Starting from the decisions of a
+ * node they construct complete solutions in order to improve the incumbent early:
+ * <ol>
+ * <li>Greedy completion: the free items are packed in sorted order as long as they fit.</li>
+ * <li>Core DP rounding: the free items before a window (the core) around the critical item are
+ * packed, the core is solved exactly by dynamic programming over the residual capacity and the
+ * items after the core are added greedily. The window is shrunk to the budget of DP cells and the
+ * step is skipped if not even two items fit into it.</li>
+ * <li>Local search: the better of both solutions is improved by adding items and by exchanging a
+ * packed item for a more valuable unpacked one, until no move improves or the budget of evaluated
+ * moves is used up.</li>
+ * </ol>
+ *
+ * All solutions are given as packings over the sorted positions of {@link Bounds}.
+ *
+ * @author
+ */
+public class PrimalHeuristics {
+  private final int frequency;
+  private final int localSearchMoves;
+  private final int coreSize;
+  private final long dpCells;
+
+  /**
+   * Runs the heuristics every 1000 promising nodes with a budget of 5000 local search moves, a core
+   * of at most 40 items and at most 2^20 DP cells.
+   */
+  public PrimalHeuristics() {
+    this(1000, 5000, 40, 1 << 20);
+  }
+
+  /**
+   * Creates the heuristics with the given budgets.
+   *
+   * @param frequency the heuristics run at the root and then at every frequency-th node that is
+   *        not pruned by its bound, at least 1
+   * @param localSearchMoves the maximum number of moves evaluated by the local search
+   * @param coreSize the maximum number of items in the core of the DP rounding
+   * @param dpCells the maximum number of cells (items times capacities) of the DP rounding
+   */
+  public PrimalHeuristics(int frequency, int localSearchMoves, int coreSize, long dpCells) {
+    if (frequency < 1) {
+      throw new IllegalArgumentException("The heuristics need a frequency of at least 1");
+    }
+    this.frequency = frequency;
+    this.localSearchMoves = localSearchMoves;
+    this.coreSize = coreSize;
+    this.dpCells = dpCells;
+  }
+
+  /**
+   * Returns the number of promising nodes between two runs of the heuristics
+   */
+  public int getFrequency() {
+    return frequency;
+  }
+
+  /**
+   * Runs the heuristics for a node.
+   *
+   * @param bounds the sorted items
+   * @param capacity the capacity of the knapsack
+   * @param x the decisions of the node for the positions before depth
+   * @param depth the first free position of the node
+   * @param incumbent the value of the best known solution
+   * @param result receives the packing (by sorted position) if it is better than the incumbent
+   * @return the value of the packing in result, or -1 if no better solution was found
+   */
+  public long improve(Bounds bounds, long capacity, boolean[] x, int depth, long incumbent,
+      boolean[] result) {
+    final int n = bounds.getSize();
+
+    // greedy completion
+    final boolean[] greedy = new boolean[n];
+    long weight = 0;
+    long value = 0;
+    for (int k = 0; k < depth; k++) {
+      if (x[k]) {
+        greedy[k] = true;
+        weight += bounds.getWeight(k);
+        value += bounds.getValue(k);
+      }
+    }
+    final long residual = capacity - weight;
+    final long prefixValue = value;
+    for (int k = depth; k < n; k++) {
+      if (weight + bounds.getWeight(k) <= capacity) {
+        greedy[k] = true;
+        weight += bounds.getWeight(k);
+        value += bounds.getValue(k);
+      }
+    }
+
+    boolean[] best = greedy;
+    long bestValue = value;
+
+    // core DP rounding
+    final boolean[] rounded = new boolean[n];
+    final long roundedValue = roundCore(bounds, capacity, x, depth, residual, prefixValue, rounded);
+    if (roundedValue > bestValue) {
+      best = rounded;
+      bestValue = roundedValue;
+    }
+
+    bestValue = localSearch(bounds, capacity, best, bestValue);
+
+    if (bestValue <= incumbent) {
+      return -1;
+    }
+    System.arraycopy(best, 0, result, 0, n);
+    return bestValue;
+  }
+
+  /**
+   * Core DP rounding, see the class description. Returns -1 if the core is too small.
+   */
+  private long roundCore(Bounds bounds, long capacity, boolean[] x, int depth, long residual,
+      long prefixValue, boolean[] rounded) {
+    final int n = bounds.getSize();
+    final int critical = bounds.criticalPosition(depth, residual);
+    if (critical == n) {
+      return -1;
+    }
+
+    // pack the free items before the core, the core itself may reuse their capacity
+    int size = (int) Math.min(coreSize, dpCells / (residual + 1));
+    int from = Math.max(depth, critical - size / 2);
+    int to = Math.min(n, from + size);
+    from = Math.max(depth, to - size);
+    size = to - from;
+    if (size < 2) {
+      return -1;
+    }
+    final int coreCapacity = (int) (residual - bounds.getWeight(depth, from));
+
+    // keep[j][c]: item from + j is packed in the optimal solution of the first j + 1 core items
+    // with capacity c
+    final long[] table = new long[coreCapacity + 1];
+    final boolean[][] keep = new boolean[size][coreCapacity + 1];
+    for (int j = 0; j < size; j++) {
+      final int w = bounds.getWeight(from + j);
+      final int c = bounds.getValue(from + j);
+      for (int cap = coreCapacity; cap >= w; cap--) {
+        if (table[cap - w] + c > table[cap]) {
+          table[cap] = table[cap - w] + c;
+          keep[j][cap] = true;
+        }
+      }
+    }
+
+    long value = prefixValue;
+    long weight = capacity - residual;
+    for (int k = 0; k < depth; k++) {
+      rounded[k] = x[k];
+    }
+    for (int k = depth; k < from; k++) {
+      rounded[k] = true;
+      weight += bounds.getWeight(k);
+      value += bounds.getValue(k);
+    }
+    int cap = coreCapacity;
+    for (int j = size - 1; j >= 0; j--) {
+      if (keep[j][cap]) {
+        rounded[from + j] = true;
+        cap -= bounds.getWeight(from + j);
+        weight += bounds.getWeight(from + j);
+        value += bounds.getValue(from + j);
+      }
+    }
+    for (int k = to; k < n; k++) {
+      if (weight + bounds.getWeight(k) <= capacity) {
+        rounded[k] = true;
+        weight += bounds.getWeight(k);
+        value += bounds.getValue(k);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Improves the packing in place by add and exchange moves. Returns the new value.
+   */
+  private long localSearch(Bounds bounds, long capacity, boolean[] packing, long value) {
+    final int n = bounds.getSize();
+    long weight = 0;
+    for (int k = 0; k < n; k++) {
+      if (packing[k]) {
+        weight += bounds.getWeight(k);
+      }
+    }
+
+    int moves = 0;
+    boolean improved = true;
+    while (improved && moves < localSearchMoves) {
+      improved = false;
+      // packed items with a low ratio first, unpacked items with a high ratio first
+      for (int i = n - 1; i >= 0 && !improved && moves < localSearchMoves; i--) {
+        if (!packing[i]) {
+          continue;
+        }
+        for (int j = 0; j < n && moves < localSearchMoves; j++) {
+          if (packing[j]) {
+            continue;
+          }
+          moves++;
+          if (weight + bounds.getWeight(j) <= capacity) {
+            // add
+            packing[j] = true;
+            weight += bounds.getWeight(j);
+            value += bounds.getValue(j);
+            improved = true;
+          } else if (bounds.getValue(j) > bounds.getValue(i)
+              && weight - bounds.getWeight(i) + bounds.getWeight(j) <= capacity) {
+            // exchange
+            packing[i] = false;
+            packing[j] = true;
+            weight += bounds.getWeight(j) - bounds.getWeight(i);
+            value += bounds.getValue(j) - bounds.getValue(i);
+            improved = true;
+            break;
+          }
+        }
+      }
+    }
+    return value;
+  }
+}
@@ -0,0 +1,69 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+
+/**
+ * Runs another solver on the core of an instance after the {@link Reduction} and maps the result
+ * back to the original instance.
+ *
+ * An {@link AnytimeSolver} works on the core with a child of the control; its improvements are
+ * expanded and published to the control as they are found. Since the reduction only excludes
+ * solutions that are not better than its own best solution, the upper bound is the value of the
+ * fixed items plus the upper bound of the core, or the value of that solution.
+ *
+ * @author
+ */
+public class ReducedSolver implements AnytimeSolver {
+  private final SolverInterface<Solution> solver;
+
+  /**
+   * Creates a solver that reduces each instance before passing it on.
+   *
+   * @param solver the solver for the reduced instance
+   */
+  public ReducedSolver(SolverInterface<Solution> solver) {
+    this.solver = solver;
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      Reduction reduction = new Reduction(instance);
+      Instance core = reduction.getCore();
+
+      control.offer(new Solution(reduction.getIncumbent()), getName());
+      if (core.getSize() == 0) {
+        control.offer(reduction.expand(new Solution(core)), getName());
+        return control.result(control.getValue());
+      }
+
+      final long reductionValue = reduction.getIncumbent().getValue();
+      if (solver instanceof AnytimeSolver) {
+        final SolveControl coreControl = control.createChild();
+        coreControl.setListener(
+            (solution, source) -> control.offer(reduction.expand(solution), source));
+        final SolveResult result = ((AnytimeSolver) solver).solve(core, coreControl);
+        return control.result(
+            Math.max(reductionValue, reduction.getFixedValue() + result.getUpperBound()));
+      }
+
+      // nothing is known about the quality of other solvers
+      control.offer(reduction.expand(solver.solve(core)), solver.getName());
+      return control.result(Bounds.upperBound(instance));
+    } finally {
+      stats.end();
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "Red+" + solver.getName();
+  }
+}
@@ -0,0 +1,382 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+
+/**
+ * Reduction of a binary knapsack instance before solving it.
+ *
+ * The following tests are applied to fix items to 0 or 1:
+ * <ul>
+ * <li>Items heavier than the capacity are fixed to 0.</li>
+ * <li>Martello-Toth reduction: for every item the Dantzig bound is computed with the item forced
+ * in and forced out of the knapsack. If the bound for one of the two cases does not exceed the
+ * value of the best known solution, the item is fixed to the other case. The bounds are computed
+ * in logarithmic time from prefix sums over the items sorted by efficiency, and every feasible
+ * packing found on the way improves the best known solution.</li>
+ * <li>Dominance: an item that is dominated (lighter and at least as valuable) by free items whose
+ * total weight together with its own exceeds the remaining capacity can be exchanged with one of
+ * them in any solution and is fixed to 0. This also collapses groups of identical items.</li>
+ * </ul>
+ *
+ * The remaining free items form the core instance which can be solved by any solver. Since the
+ * tests only exclude solutions that are not better than the best known solution, the reduction
+ * keeps that solution and {@link #expand(Solution)} returns it if the core does not improve it.
+ *
+ * The fixed items are counted as pruned nodes in the {@link SolveStats} of the calling thread, by
+ * the test that fixed them.
+ *
+ * @author
+ */
+public class Reduction {
+  private static final int FREE = -1;
+
+  private final Instance instance;
+
+  /**
+   * Fixed quantity for every item of the instance, or FREE
+   */
+  private final int[] fixed;
+
+  /**
+   * Indices (in the original instance) of the items of the core
+   */
+  private final int[] coreItems;
+
+  private final Instance core;
+
+  /**
+   * Best solution found during the reduction
+   */
+  private final Solution incumbent;
+
+  // items that fit into the knapsack, sorted by efficiency, with prefix sums
+  private int[] order;
+  private long[] prefixWeight;
+  private long[] prefixValue;
+
+  /**
+   * Reduces the given instance.
+   *
+   * @param instance the knapsack instance to reduce
+   */
+  public Reduction(Instance instance) {
+    this.instance = instance;
+    final int n = instance.getSize();
+    final int capacity = instance.getCapacity();
+    final SolveStats stats = SolveStats.current();
+
+    fixed = new int[n];
+    Arrays.fill(fixed, FREE);
+
+    // remove items heavier than the capacity
+    int m = 0;
+    for (int i = 0; i < n; i++) {
+      if (instance.getWeight(i) > capacity) {
+        fixed[i] = 0;
+        stats.prune(SolveStats.Prune.INFEASIBLE);
+      } else {
+        m++;
+      }
+    }
+
+    Integer[] perm = new Integer[m];
+    for (int i = 0, k = 0; i < n; i++) {
+      if (fixed[i] == FREE) {
+        perm[k++] = i;
+      }
+    }
+    Arrays.sort(perm, new Comparator<Integer>() {
+      public int compare(Integer o1, Integer o2) {
+        return Double.compare(getRatio(o2), getRatio(o1));
+      }
+    });
+    order = new int[m];
+    prefixWeight = new long[m + 1];
+    prefixValue = new long[m + 1];
+    for (int k = 0; k < m; k++) {
+      order[k] = perm[k];
+      prefixWeight[k + 1] = prefixWeight[k] + instance.getWeight(order[k]);
+      prefixValue[k + 1] = prefixValue[k] + instance.getValue(order[k]);
+    }
+
+    incumbent = new GreedyHeuristic().solve(instance);
+    reduceByBounds(m, capacity, stats);
+
+    long fixedWeight = 0;
+    for (int i = 0; i < n; i++) {
+      if (fixed[i] == 1) {
+        fixedWeight += instance.getWeight(i);
+      }
+    }
+
+    if (fixedWeight > capacity) {
+      // only possible if the incumbent is optimal, so nothing is left to solve
+      for (int i = 0; i < n; i++) {
+        if (fixed[i] == FREE) {
+          fixed[i] = 0;
+        }
+      }
+    } else {
+      reduceByDominance((int) (capacity - fixedWeight), stats);
+    }
+
+    int coreSize = 0;
+    for (int i = 0; i < n; i++) {
+      if (fixed[i] == FREE) {
+        coreSize++;
+      }
+    }
+    coreItems = new int[coreSize];
+    core = new Instance(coreSize, (int) Math.max(0, capacity - fixedWeight));
+    core.setFilename(instance.getFilename());
+    for (int i = 0, k = 0; i < n; i++) {
+      if (fixed[i] == FREE) {
+        coreItems[k] = i;
+        core.set(k, instance.getValue(i), instance.getWeight(i));
+        k++;
+      }
+    }
+
+    // the sorted arrays are only needed during the reduction
+    order = null;
+    prefixWeight = null;
+    prefixValue = null;
+  }
+
+  private double getRatio(int i) {
+    return (double) instance.getValue(i) / instance.getWeight(i);
+  }
+
+  /**
+   * Returns the number of items in the sorted order (skipping position p) that fit completely
+   * into the given capacity, i.e. the position of the critical item.
+   */
+  private int criticalPosition(long capacity, int p) {
+    int lo = 0;
+    int hi = order.length;
+    while (lo < hi) {
+      final int mid = (lo + hi + 1) >>> 1;
+      final long weight = prefixWeight[mid] - (mid > p ? instance.getWeight(order[p]) : 0);
+      if (weight <= capacity) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return lo;
+  }
+
+  private long packedWeight(int t, int p) {
+    return prefixWeight[t] - (t > p ? instance.getWeight(order[p]) : 0);
+  }
+
+  private long packedValue(int t, int p) {
+    return prefixValue[t] - (t > p ? instance.getValue(order[p]) : 0);
+  }
+
+  /**
+   * Dantzig bound of the items without position p for the given capacity
+   */
+  private double bound(long capacity, int p, int t) {
+    double bound = packedValue(t, p);
+    if (t < order.length) {
+      bound += (capacity - packedWeight(t, p)) * getRatio(order[t]);
+    }
+    return bound;
+  }
+
+  /**
+   * Martello-Toth reduction with the Dantzig bound for each item forced in and forced out.
+   */
+  private void reduceByBounds(int m, int capacity, SolveStats stats) {
+    final double[] boundIn = new double[m];
+    final double[] boundOut = new double[m];
+
+    long best = incumbent.getValue();
+    int bestPosition = -1;
+    boolean bestForcedIn = false;
+    int bestCritical = 0;
+
+    for (int p = 0; p < m; p++) {
+      final int j = order[p];
+
+      // item j forced in
+      final long residual = capacity - instance.getWeight(j);
+      int t = criticalPosition(residual, p);
+      boundIn[p] = instance.getValue(j) + bound(residual, p, t);
+      long value = instance.getValue(j) + packedValue(t, p);
+      if (value > best) {
+        best = value;
+        bestPosition = p;
+        bestForcedIn = true;
+        bestCritical = t;
+      }
+
+      // item j forced out
+      t = criticalPosition(capacity, p);
+      boundOut[p] = bound(capacity, p, t);
+      value = packedValue(t, p);
+      if (value > best) {
+        best = value;
+        bestPosition = p;
+        bestForcedIn = false;
+        bestCritical = t;
+      }
+    }
+
+    if (bestPosition >= 0) {
+      // rebuild the improved solution: the items before the critical position (without p)
+      for (int i = 0; i < instance.getSize(); i++) {
+        incumbent.set(i, 0);
+      }
+      for (int k = 0; k < bestCritical; k++) {
+        if (k != bestPosition) {
+          incumbent.set(order[k], 1);
+        }
+      }
+      if (bestForcedIn) {
+        incumbent.set(order[bestPosition], 1);
+      }
+    }
+
+    // the tests use the final incumbent value, which only makes them stronger
+    stats.addBoundEvaluations(2L * m);
+    for (int p = 0; p < m; p++) {
+      if (Math.floor(boundIn[p] + 1e-9) <= best) {
+        fixed[order[p]] = 0;
+        stats.prune(SolveStats.Prune.BOUND);
+      } else if (Math.floor(boundOut[p] + 1e-9) <= best) {
+        fixed[order[p]] = 1;
+        stats.prune(SolveStats.Prune.BOUND);
+      }
+    }
+  }
+
+  /**
+   * Fixes dominated items to 0. The items are processed by increasing weight (decreasing value on
+   * ties); a Fenwick tree over the value ranks yields the total weight of the free dominators.
+   */
+  private void reduceByDominance(int capacity, SolveStats stats) {
+    int m = 0;
+    for (int i = 0; i < fixed.length; i++) {
+      if (fixed[i] == FREE) {
+        m++;
+      }
+    }
+    Integer[] perm = new Integer[m];
+    for (int i = 0, k = 0; i < fixed.length; i++) {
+      if (fixed[i] == FREE) {
+        perm[k++] = i;
+      }
+    }
+    Arrays.sort(perm, new Comparator<Integer>() {
+      public int compare(Integer o1, Integer o2) {
+        if (instance.getWeight(o1) != instance.getWeight(o2)) {
+          return Integer.compare(instance.getWeight(o1), instance.getWeight(o2));
+        }
+        return Integer.compare(instance.getValue(o2), instance.getValue(o1));
+      }
+    });
+
+    // negated values in ascending order, so a prefix of the tree covers the larger values
+    int[] distinct = new int[m];
+    for (int k = 0; k < m; k++) {
+      distinct[k] = -instance.getValue(perm[k]);
+    }
+    Arrays.sort(distinct);
+    long[] tree = new long[m + 1];
+
+    for (int k = 0; k < m; k++) {
+      final int j = perm[k];
+      // number of values greater than or equal to the value of j
+      int lo = 0;
+      int hi = m;
+      while (lo < hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (distinct[mid] <= -instance.getValue(j)) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      final int r = lo;
+
+      long dominatorWeight = 0;
+      for (int x = r; x > 0; x -= x & -x) {
+        dominatorWeight += tree[x];
+      }
+
+      if (dominatorWeight + instance.getWeight(j) > capacity) {
+        fixed[j] = 0;
+        stats.prune(SolveStats.Prune.DOMINANCE);
+      } else {
+        for (int x = r; x <= m; x += x & -x) {
+          tree[x] += instance.getWeight(j);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the reduced instance consisting of the items that are not fixed
+   */
+  public Instance getCore() {
+    return core;
+  }
+
+  /**
+   * Returns the number of items fixed by the reduction
+   */
+  public int getNumberOfFixedItems() {
+    return instance.getSize() - coreItems.length;
+  }
+
+  /**
+   * Returns the total value of the items fixed to 1
+   */
+  public long getFixedValue() {
+    long value = 0;
+    for (int i = 0; i < fixed.length; i++) {
+      if (fixed[i] == 1) {
+        value += instance.getValue(i);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Returns the best solution found during the reduction
+   */
+  public Solution getIncumbent() {
+    return incumbent;
+  }
+
+  /**
+   * Maps a solution of the core instance back to a solution of the original instance. If that
+   * solution is not better than the best solution found during the reduction, the latter is
+   * returned.
+   *
+   * @param coreSolution a solution of the core instance
+   * @return a solution of the original instance
+   */
+  public Solution expand(Solution coreSolution) {
+    Solution solution = new Solution(instance);
+    for (int i = 0; i < fixed.length; i++) {
+      if (fixed[i] == 1) {
+        solution.set(i, 1);
+      }
+    }
+    for (int k = 0; k < coreItems.length; k++) {
+      solution.set(coreItems[k], coreSolution.get(k));
+    }
+
+    if (!solution.isFeasible() || solution.getValue() < incumbent.getValue()) {
+      return new Solution(incumbent);
+    }
+    return solution;
+  }
+}
@@ -0,0 +1,48 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * A pool of scratch objects, e.g. the buffers of a solver, that are reused by the calls of one
+ * solver instance instead of being allocated per call.
+ *
+ * A call acquires an object and releases it when it is done. Concurrent calls get different
+ * objects, so the pool grows to the largest number of concurrent calls, i.e. at most one object per
+ * thread of a worker pool, and keeps them for the lifetime of the solver. An object lost by an
+ * exception is simply not reused.
+ *
+ * @param <T> the type of the scratch objects
+ *
+ * @author
+ */
+public class ScratchPool<T> {
+  private final ConcurrentLinkedQueue<T> free = new ConcurrentLinkedQueue<>();
+  private final Supplier<T> factory;
+
+  /**
+   * Creates an empty pool.
+   *
+   * @param factory creates a new object if none is free
+   */
+  public ScratchPool(Supplier<T> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Returns a free object, or a new one if there is none
+   */
+  public T acquire() {
+    final T object = free.poll();
+    return object != null ? object : factory.get();
+  }
+
+  /**
+   * Returns an object to the pool. It must not be used by the caller afterwards.
+   *
+   * @param object an object acquired from this pool
+   */
+  public void release(T object) {
+    free.offer(object);
+  }
+}
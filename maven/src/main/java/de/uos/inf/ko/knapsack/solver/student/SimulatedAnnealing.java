@@ -1,21 +1,26 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
 
 /**
  * A solver for the binary knapsack problem based on simulated annealing.
  *
+ * Besides the break condition, the search stops when the control asks to (checked every 64
+ * iterations). Improvements are published to the control, the upper bound is the Martello-Toth
+ * bound of the instance. All state of a run is local to the call, so an instance may be shared
+ * between threads.
+ *
  * @author
  */
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
-public class SimulatedAnnealing implements SolverInterface<Solution> {
-
-  private final Random random = new Random();
-  private Instance instance;
-
+public class SimulatedAnnealing implements AnytimeSolver {
 
   private enum InitialSolution {
     RANDOM, GREEDY
@@ -34,7 +39,7 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
   }
 
 
-  private Solution generateRandomSolution(Instance instance) {
+  private Solution generateRandomSolution(Instance instance, Random random) {
     Solution solution = new Solution(instance);
     int[] weights = instance.getWeightArray();
     int capacity = instance.getCapacity();
@@ -50,7 +55,7 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
   }
 
 
-  private Solution flipRandomBit(Solution solution) {
+  private Solution flipRandomBit(Instance instance, Solution solution, Random random) {
     Solution newSolution = new Solution(solution);
 
     while (true) {
@@ -75,8 +80,18 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
 }
 
   @Override
-  public Solution solve(Instance instance) {
-    this.instance = instance;
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return anneal(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult anneal(Instance instance, SolveControl control, SolveStats stats) {
+    // every thread draws from its own generator, so one solver can serve concurrent calls
+    final Random random = ThreadLocalRandom.current();
 
     InitialSolution initialSolution = InitialSolution.RANDOM;
     AnnealingSchedule annealingSchedule = AnnealingSchedule.INVERSE;
@@ -95,7 +110,7 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
 
     switch (initialSolution) {
       case RANDOM:
-        s = generateRandomSolution(instance);
+        s = generateRandomSolution(instance, random);
         break;
       case GREEDY:
         s = new GreedyHeuristic().solve(instance);
@@ -108,11 +123,12 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
 
     Solution sStar = s;
     double cStar = sStar.getValue();
+    control.offer(sStar, getName());
 
     boolean stop = false;
 
     do {
-      Solution sT = flipRandomBit(s);
+      Solution sT = flipRandomBit(instance, s, random);
       double cT = sT.getValue();
       // System.out.println("cT:" + cT);
 
@@ -135,18 +151,22 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
       double expValue = clamp(Math.exp(-(cT - c) / temperature), 0.0, 1.0);
 
 
-      if ((cT >= c) || (random.nextDouble() < expValue)) {
+      final boolean accepted = (cT >= c) || (random.nextDouble() < expValue);
+      stats.move(accepted);
+      if (accepted) {
         s = sT;
         c = cT;
         if (cT > cStar) {
           sStar = sT;
           cStar = cT;
+          control.offer(sStar, getName());
 
           switch (reheat) {
             case NONE:
               break;
             case CONST:
               temperature = 10;
+              stats.restart();
               break;
             default:
               throw new IllegalArgumentException("Unknown reheat");
@@ -166,10 +186,11 @@ public class SimulatedAnnealing implements SolverInterface<Solution> {
         default:
           throw new IllegalArgumentException("Unknown break condition");
       }
+      stop = stop || ((i & 63) == 0 && control.shouldStop());
 
     } while (!stop);
 
-    return sStar;
+    return control.result(Bounds.upperBound(instance));
   }
 
 
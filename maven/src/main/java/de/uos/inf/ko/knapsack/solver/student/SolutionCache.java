@@ -0,0 +1,451 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.utils.Logger;
+
+/**
+ * A content-addressed cache of solutions of the binary knapsack problem.
+ *
+ * An instance is identified by a 128-bit fingerprint of its capacity, values and weights, so the
+ * same instance read from another file or built again hits the same entry; the file name does not
+ * matter. An entry stores the packed items, the value, the name of the solver that found the
+ * solution and whether it is a proven optimum. A proven optimum is never replaced; a heuristic
+ * solution is only replaced by a better one or by an optimum.
+ *
+ * The memory tier is a map in least recently used order, bounded by the estimated size of its
+ * entries in bytes. The optional disk tier stores one small file per entry, named by the
+ * fingerprint, in a directory; it is not bounded, and entries found there are moved into memory.
+ * An entry that does not reproduce its value and feasibility on the instance, e.g. a damaged file,
+ * counts as a miss. Hits of both tiers and misses are counted. The map and the counters are
+ * guarded by the monitor of the cache, but the files are read and written outside of it, so a slow
+ * disk only delays the lookups of the same instance: those wait for a future per fingerprint. A
+ * cache may be shared by several solvers and threads.
+ *
+ * @author
+ */
+public class SolutionCache {
+  /**
+   * A solution taken from the cache.
+   */
+  public static class CachedSolution extends Solution {
+    private final String source;
+    private final boolean optimal;
+
+    CachedSolution(Instance instance, String source, boolean optimal) {
+      super(instance);
+      this.source = source;
+      this.optimal = optimal;
+    }
+
+    /**
+     * Returns the name of the solver that found the solution
+     */
+    public String getSource() {
+      return source;
+    }
+
+    /**
+     * Checks whether the solution is a proven optimum
+     */
+    public boolean isOptimal() {
+      return optimal;
+    }
+  }
+
+  private static final int MAGIC = 0x4B534331;
+  private static final String SUFFIX = ".sol";
+
+  /**
+   * A stored solution: the indices of the packed items and their value
+   */
+  private static class Entry {
+    private final int size;
+    private final int[] packed;
+    private final long value;
+    private final String source;
+    private final boolean optimal;
+
+    Entry(int size, int[] packed, long value, String source, boolean optimal) {
+      this.size = size;
+      this.packed = packed;
+      this.value = value;
+      this.source = source;
+      this.optimal = optimal;
+    }
+
+    long getBytes() {
+      return 64 + 4L * packed.length + 2L * source.length();
+    }
+
+    /**
+     * Checks whether this entry may be replaced by the given solution.
+     */
+    boolean isWorse(long value, boolean optimal) {
+      return !this.optimal && (optimal || value > this.value);
+    }
+  }
+
+  private final Map<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+  private final long maxBytes;
+  private final Path directory;
+
+  // the keys whose disk tier is being read or written, completed when done
+  private final Map<String, CompletableFuture<Void>> pending = new HashMap<>();
+
+  private long bytes = 0;
+  private long hits = 0;
+  private long diskHits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  /**
+   * Creates a cache in memory only.
+   *
+   * @param maxBytes the maximum estimated size of the entries in memory
+   */
+  public SolutionCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.directory = null;
+  }
+
+  /**
+   * Creates a cache in memory backed by files in a directory, which is created if necessary. The
+   * entries of the directory, e.g. of an earlier run, are found by later lookups.
+   *
+   * @param maxBytes the maximum estimated size of the entries in memory
+   * @param directory the directory of the disk tier
+   * @throws IOException if the directory cannot be created
+   */
+  public SolutionCache(long maxBytes, Path directory) throws IOException {
+    this.maxBytes = maxBytes;
+    this.directory = Files.createDirectories(directory);
+  }
+
+  /**
+   * Returns the fingerprint of the capacity, the values and the weights of an instance as 32
+   * hexadecimal digits.
+   *
+   * @param instance the instance
+   */
+  public static String fingerprint(Instance instance) {
+    final int[] values = instance.getValueArray();
+    final int[] weights = instance.getWeightArray();
+    long h1 = mix(0x9E3779B97F4A7C15L ^ values.length);
+    long h2 = mix(0xC2B2AE3D27D4EB4FL ^ instance.getCapacity());
+    h1 = mix(h1 + instance.getCapacity());
+    h2 = mix(h2 + values.length);
+    for (int i = 0; i < values.length; i++) {
+      final long item = ((long) values[i] << 32) | (weights[i] & 0xFFFFFFFFL);
+      h1 = mix(h1 + item);
+      h2 = mix((h2 ^ item) * 0xFF51AFD7ED558CCDL);
+    }
+    return String.format("%016x%016x", h1, h2);
+  }
+
+  /**
+   * The finalizer of SplitMix64
+   */
+  private static long mix(long x) {
+    x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+    return x ^ (x >>> 31);
+  }
+
+  /**
+   * Looks up a solution of an instance, first in memory, then on disk.
+   *
+   * @param instance the instance
+   * @return a copy of the cached solution, or null on a miss
+   */
+  public CachedSolution get(Instance instance) {
+    final String key = fingerprint(instance);
+    Entry entry;
+    synchronized (this) {
+      entry = memory.get(key);
+    }
+    CachedSolution solution = toSolution(instance, entry);
+    if (solution != null || directory == null) {
+      count(solution != null, false);
+      return solution;
+    }
+
+    final CompletableFuture<Void> own = lock(key);
+    try {
+      // the entry may have been loaded or stored while waiting for the key
+      synchronized (this) {
+        entry = memory.get(key);
+      }
+      solution = toSolution(instance, entry);
+      if (solution != null) {
+        count(true, false);
+        return solution;
+      }
+
+      entry = read(key);
+      solution = toSolution(instance, entry);
+      synchronized (this) {
+        if (solution != null) {
+          store(key, entry);
+        }
+        count(false, solution != null);
+      }
+      return solution;
+    } finally {
+      unlock(key, own);
+    }
+  }
+
+  /**
+   * Stores a solution of an instance unless the cache holds a proven optimum or a solution that is
+   * at least as good.
+   *
+   * @param instance the instance
+   * @param solution a feasible solution of the instance
+   * @param optimal whether the solution is a proven optimum
+   * @param source the name of the solver that found the solution
+   * @return true if the solution has been stored
+   */
+  public boolean put(Instance instance, Solution solution, boolean optimal, String source) {
+    if (!solution.isFeasible()) {
+      throw new IllegalArgumentException("Only feasible solutions are cached");
+    }
+    final String key = fingerprint(instance);
+    final long value = solution.getValue();
+    final int[] quantities = solution.getIntegerArray();
+    int count = 0;
+    for (int quantity : quantities) {
+      count += quantity > 0 ? 1 : 0;
+    }
+    final int[] packed = new int[count];
+    count = 0;
+    for (int i = 0; i < quantities.length; i++) {
+      if (quantities[i] > 0) {
+        packed[count++] = i;
+      }
+    }
+    final Entry entry =
+        new Entry(quantities.length, packed, value, source == null ? "" : source, optimal);
+
+    final CompletableFuture<Void> own = lock(key);
+    try {
+      Entry existing;
+      synchronized (this) {
+        existing = memory.get(key);
+      }
+      if (existing == null) {
+        existing = read(key);
+      }
+      if (existing != null && existing.size == instance.getSize()
+          && !existing.isWorse(value, optimal)) {
+        return false;
+      }
+      synchronized (this) {
+        store(key, entry);
+      }
+      write(key, entry);
+      return true;
+    } finally {
+      unlock(key, own);
+    }
+  }
+
+  /**
+   * Counts a lookup as a hit in memory, a hit on disk or a miss.
+   */
+  private synchronized void count(boolean hit, boolean diskHit) {
+    if (hit) {
+      hits++;
+    } else if (diskHit) {
+      diskHits++;
+    } else {
+      misses++;
+    }
+  }
+
+  /**
+   * Waits until no other thread reads or writes the disk tier or decides a put for a key, then
+   * registers the calling thread. Returns the future that {@link #unlock} completes.
+   */
+  private CompletableFuture<Void> lock(String key) {
+    final CompletableFuture<Void> own = new CompletableFuture<>();
+    while (true) {
+      final CompletableFuture<Void> previous;
+      synchronized (this) {
+        previous = pending.putIfAbsent(key, own);
+      }
+      if (previous == null) {
+        return own;
+      }
+      previous.join();
+    }
+  }
+
+  private void unlock(String key, CompletableFuture<Void> own) {
+    synchronized (this) {
+      pending.remove(key);
+    }
+    own.complete(null);
+  }
+
+  /**
+   * Puts an entry into memory and evicts the least recently used entries beyond the size limit.
+   */
+  private void store(String key, Entry entry) {
+    final Entry previous = memory.put(key, entry);
+    if (previous != null) {
+      bytes -= previous.getBytes();
+    }
+    bytes += entry.getBytes();
+
+    final Iterator<Entry> eldest = memory.values().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      bytes -= eldest.next().getBytes();
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Rebuilds the solution of an entry, or returns null if the entry does not fit the instance.
+   */
+  private static CachedSolution toSolution(Instance instance, Entry entry) {
+    if (entry == null || entry.size != instance.getSize()) {
+      return null;
+    }
+    final CachedSolution solution = new CachedSolution(instance, entry.source, entry.optimal);
+    for (int i : entry.packed) {
+      if (i < 0 || i >= entry.size) {
+        return null;
+      }
+      solution.set(i, 1);
+    }
+    return solution.isFeasible() && solution.getValue() == entry.value ? solution : null;
+  }
+
+  private Entry read(String key) {
+    if (directory == null) {
+      return null;
+    }
+    final Path file = directory.resolve(key + SUFFIX);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        return null;
+      }
+      final boolean optimal = in.readBoolean();
+      final long value = in.readLong();
+      final String source = in.readUTF();
+      final int size = in.readInt();
+      final int[] packed = new int[in.readInt()];
+      for (int i = 0; i < packed.length; i++) {
+        packed[i] = in.readInt();
+      }
+      return new Entry(size, packed, value, source, optimal);
+    } catch (IOException | RuntimeException e) {
+      Logger.println("Solution cache: cannot read " + file + ": " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes an entry to a temporary file first, so a crash never leaves a partial entry.
+   */
+  private void write(String key, Entry entry) {
+    if (directory == null) {
+      return;
+    }
+    try {
+      final Path temporary = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(MAGIC);
+        out.writeBoolean(entry.optimal);
+        out.writeLong(entry.value);
+        out.writeUTF(entry.source);
+        out.writeInt(entry.size);
+        out.writeInt(entry.packed.length);
+        for (int i : entry.packed) {
+          out.writeInt(i);
+        }
+      }
+      Files.move(temporary, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      Logger.println("Solution cache: cannot write " + key + ": " + e);
+    }
+  }
+
+  /**
+   * Returns the number of lookups answered from memory
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups answered from disk
+   */
+  public synchronized long getDiskHits() {
+    return diskHits;
+  }
+
+  /**
+   * Returns the number of lookups that found no solution
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the share of lookups answered from memory or disk, 0 if there were none
+   */
+  public synchronized double getHitRate() {
+    final long lookups = hits + diskHits + misses;
+    return lookups == 0 ? 0 : (double) (hits + diskHits) / lookups;
+  }
+
+  /**
+   * Returns the number of entries evicted from memory
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the number of entries in memory
+   */
+  public synchronized int getSize() {
+    return memory.size();
+  }
+
+  /**
+   * Returns the estimated size of the entries in memory in bytes
+   */
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "Solution cache: " + memory.size() + " entries, " + bytes + " bytes, " + hits
+        + " hits, " + diskHits + " disk hits, " + misses + " misses, " + evictions + " evictions";
+  }
+}
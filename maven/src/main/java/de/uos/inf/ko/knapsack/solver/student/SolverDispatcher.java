@@ -0,0 +1,392 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.utils.Logger;
+
+/**
+ * Chooses a solver for every instance from cheap features that are computed in a single pass over
+ * the items (see {@link Features}):
+ * <ol>
+ * <li>Subset-sum instances go to the {@link SubsetSumSolver} if its bitsets, about 2 sqrt(n) of W/8
+ * bytes each, fit into a memory budget, otherwise to the {@link BranchAndBound}; the profiles of
+ * the Nemhauser-Ullmann algorithm grow with W as well.</li>
+ * <li>Instances whose values are strongly correlated with the weights are hard for the
+ * branch-and-bound, they go to the {@link NemhauserUllmann} algorithm.</li>
+ * <li>Otherwise instances with at most a threshold number of items that fit into the knapsack go
+ * to the {@link BranchAndBound}, larger ones to the Nemhauser-Ullmann algorithm, both after the
+ * {@link Reduction}, which removes the other items.</li>
+ * </ol>
+ * The last 1024 decisions are logged together with the features and the runtime. From time to
+ * time another engine is chosen at random for the last decision on an uncorrelated instance to
+ * collect comparisons. {@link #refine()} fits a model log(time) = a + b log(n) per engine to the
+ * log and moves the threshold to the number of items where both models predict the same time.
+ *
+ * The control is passed on to the chosen engine. The engines keep no state between calls and the
+ * log is synchronized, so a dispatcher may be shared between threads.
+ *
+ * @author
+ */
+public class SolverDispatcher implements AnytimeSolver {
+  /**
+   * The available engines
+   */
+  public enum Engine {
+    SUBSET_SUM, NEMHAUSER_ULLMANN, BRANCH_AND_BOUND
+  }
+
+  /**
+   * Features of an instance.
+   */
+  public static class Features {
+    private final int size;
+    private final int capacity;
+    private final double correlation;
+    private final int fitting;
+    private final boolean subsetSum;
+
+    /**
+     * Computes the features in a single pass over the items.
+     *
+     * @param instance the knapsack instance
+     */
+    public Features(Instance instance) {
+      final int n = instance.getSize();
+      size = n;
+      capacity = instance.getCapacity();
+
+      double sumValue = 0;
+      double sumWeight = 0;
+      double sumValue2 = 0;
+      double sumWeight2 = 0;
+      double sumProduct = 0;
+      int fits = 0;
+      boolean equal = true;
+      for (int i = 0; i < n; i++) {
+        final double value = instance.getValue(i);
+        final double weight = instance.getWeight(i);
+        sumValue += value;
+        sumWeight += weight;
+        sumValue2 += value * value;
+        sumWeight2 += weight * weight;
+        sumProduct += value * weight;
+        if (weight <= capacity) {
+          fits++;
+        }
+        equal &= instance.getValue(i) == instance.getWeight(i);
+      }
+      fitting = fits;
+      subsetSum = equal;
+
+      final double varianceValue = n > 0 ? sumValue2 / n - (sumValue / n) * (sumValue / n) : 0;
+      final double varianceWeight = n > 0 ? sumWeight2 / n - (sumWeight / n) * (sumWeight / n) : 0;
+      final double covariance = n > 0 ? sumProduct / n - (sumValue / n) * (sumWeight / n) : 0;
+      correlation = varianceValue > 0 && varianceWeight > 0
+          ? covariance / Math.sqrt(varianceValue * varianceWeight) : 0;
+    }
+
+    /**
+     * Returns the number of items
+     */
+    public int getSize() {
+      return size;
+    }
+
+    /**
+     * Returns the capacity W
+     */
+    public int getCapacity() {
+      return capacity;
+    }
+
+    /**
+     * Returns the Pearson correlation between values and weights
+     */
+    public double getCorrelation() {
+      return correlation;
+    }
+
+    /**
+     * Returns the number of items that fit into the empty knapsack
+     */
+    public int getFitting() {
+      return fitting;
+    }
+
+    /**
+     * Returns whether every value equals its weight
+     */
+    public boolean isSubsetSum() {
+      return subsetSum;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("n=%d W=%d corr=%.3f fitting=%d subsetSum=%b", size, capacity,
+          correlation, fitting, subsetSum);
+    }
+  }
+
+  /**
+   * An entry of the decision log.
+   */
+  public static class Decision {
+    private final Features features;
+    private final Engine engine;
+    private final long nanos;
+
+    Decision(Features features, Engine engine, long nanos) {
+      this.features = features;
+      this.engine = engine;
+      this.nanos = nanos;
+    }
+
+    public Features getFeatures() {
+      return features;
+    }
+
+    public Engine getEngine() {
+      return engine;
+    }
+
+    /**
+     * Returns the runtime of the engine in nanoseconds
+     */
+    public long getNanos() {
+      return nanos;
+    }
+  }
+
+  /**
+   * Number of decisions kept in the log
+   */
+  private static final int LOG_SIZE = 1024;
+
+  private final AnytimeSolver subsetSum = new SubsetSumSolver();
+  private final AnytimeSolver nemhauserUllmann = new ReducedSolver(new NemhauserUllmann());
+  private final AnytimeSolver branchAndBound = new ReducedSolver(new BranchAndBound());
+
+  // the last decisions, guarded by itself
+  private final Deque<Decision> log = new ArrayDeque<>();
+  private final double explorationRate;
+  private final Random random;
+
+  private volatile double correlationThreshold;
+  private volatile int branchAndBoundMaxItems;
+  private volatile long subsetSumMaxBytes = Runtime.getRuntime().maxMemory() / 4;
+
+  /**
+   * Uses a correlation threshold of 0.95, at most 1000 items for the branch-and-bound and explores
+   * another engine for 5% of the instances. The subset-sum solver may use a quarter of the heap.
+   */
+  public SolverDispatcher() {
+    this(0.95, 1000, 0.05, 42);
+  }
+
+  /**
+   * Creates a dispatcher.
+   *
+   * @param correlationThreshold the correlation from which on instances count as correlated
+   * @param branchAndBoundMaxItems the maximum number of items for the branch-and-bound
+   * @param explorationRate the probability of choosing another engine than the routing
+   * @param seed the seed for the exploration
+   */
+  public SolverDispatcher(double correlationThreshold, int branchAndBoundMaxItems,
+      double explorationRate, long seed) {
+    this.correlationThreshold = correlationThreshold;
+    this.branchAndBoundMaxItems = branchAndBoundMaxItems;
+    this.explorationRate = explorationRate;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Chooses the engine for an instance according to the current thresholds.
+   *
+   * @param features the features of the instance
+   */
+  public Engine route(Features features) {
+    if (features.isSubsetSum()) {
+      return subsetSumBytes(features) <= subsetSumMaxBytes ? Engine.SUBSET_SUM
+          : Engine.BRANCH_AND_BOUND;
+    }
+    if (features.getCorrelation() >= correlationThreshold) {
+      return Engine.NEMHAUSER_ULLMANN;
+    }
+    return features.getFitting() <= branchAndBoundMaxItems ? Engine.BRANCH_AND_BOUND
+        : Engine.NEMHAUSER_ULLMANN;
+  }
+
+  /**
+   * Estimates the memory of the subset-sum solver: the checkpoints and the bitsets of a block,
+   * each of W/8 bytes.
+   */
+  static long subsetSumBytes(Features features) {
+    final long bitsets = 2 * (long) Math.ceil(Math.sqrt(features.getFitting())) + 2;
+    return bitsets * ((features.getCapacity() >>> 6) + 1) * 8;
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return dispatch(instance, control);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult dispatch(Instance instance, SolveControl control) {
+    final Features features = new Features(instance);
+    Engine engine = route(features);
+    // subset-sum and correlated instances are not explored and not used by the refinement
+    if (!features.isSubsetSum() && features.getCorrelation() < correlationThreshold
+        && random.nextDouble() < explorationRate) {
+      engine = engine == Engine.BRANCH_AND_BOUND ? Engine.NEMHAUSER_ULLMANN
+          : Engine.BRANCH_AND_BOUND;
+    }
+
+    final long start = System.nanoTime();
+    final SolveResult result = getSolver(engine).solve(instance, control);
+    final long nanos = System.nanoTime() - start;
+
+    log(new Decision(features, engine, nanos));
+    return result;
+  }
+
+  /**
+   * Adds a decision to the log and drops the oldest one if the log is full.
+   */
+  void log(Decision decision) {
+    synchronized (log) {
+      if (log.size() == LOG_SIZE) {
+        log.removeFirst();
+      }
+      log.addLast(decision);
+    }
+  }
+
+  private AnytimeSolver getSolver(Engine engine) {
+    switch (engine) {
+      case SUBSET_SUM:
+        return subsetSum;
+      case NEMHAUSER_ULLMANN:
+        return nemhauserUllmann;
+      case BRANCH_AND_BOUND:
+        return branchAndBound;
+      default:
+        throw new IllegalArgumentException("Unknown engine " + engine);
+    }
+  }
+
+  /**
+   * Refines the item threshold of the branch-and-bound from the decisions on uncorrelated
+   * instances. If the fitted models do not cross, the threshold is raised to Integer.MAX_VALUE
+   * when the branch-and-bound is faster for all sizes, and left unchanged otherwise. It is also
+   * left unchanged if an engine has less than two decisions with different numbers of items.
+   *
+   * @return the new threshold
+   */
+  public int refine() {
+    final double[] bb = fit(Engine.BRANCH_AND_BOUND);
+    final double[] nu = fit(Engine.NEMHAUSER_ULLMANN);
+    if (bb != null && nu != null) {
+      // a_bb + b_bb log n = a_nu + b_nu log n
+      final double logN = bb[1] != nu[1] ? (nu[0] - bb[0]) / (bb[1] - nu[1]) : Double.NaN;
+      final double n = Math.exp(logN);
+      if (n >= 1 && n <= Integer.MAX_VALUE) {
+        // branch-and-bound below the crossing point only if it is faster there
+        final double below = bb[0] + bb[1] * (logN - 1);
+        final double belowNu = nu[0] + nu[1] * (logN - 1);
+        branchAndBoundMaxItems = below <= belowNu ? (int) n : 0;
+      } else if (bb[0] <= nu[0]) {
+        // no crossing from one item on, so the order at n = 1 holds for all sizes
+        branchAndBoundMaxItems = Integer.MAX_VALUE;
+      }
+    }
+    Logger.println("Dispatcher: branch-and-bound up to " + branchAndBoundMaxItems + " items");
+    return branchAndBoundMaxItems;
+  }
+
+  /**
+   * Least squares fit of log(time) = a + b log(n) over the logged decisions of an engine on
+   * uncorrelated instances, with n the number of items that fit. Returns {a, b} or null.
+   */
+  private double[] fit(Engine engine) {
+    final List<Decision> decisions = getLog();
+    double count = 0;
+    double sumX = 0;
+    double sumY = 0;
+    double sumXX = 0;
+    double sumXY = 0;
+    for (Decision decision : decisions) {
+      if (decision.getEngine() != engine || decision.getFeatures().isSubsetSum()
+          || decision.getFeatures().getCorrelation() >= correlationThreshold) {
+        continue;
+      }
+      final double x = Math.log(Math.max(1, decision.getFeatures().getFitting()));
+      final double y = Math.log(Math.max(1, decision.getNanos()));
+      count++;
+      sumX += x;
+      sumY += y;
+      sumXX += x * x;
+      sumXY += x * y;
+    }
+    final double denominator = count * sumXX - sumX * sumX;
+    if (count < 2 || denominator < 1e-12) {
+      return null;
+    }
+    final double b = (count * sumXY - sumX * sumY) / denominator;
+    return new double[] {(sumY - b * sumX) / count, b};
+  }
+
+  /**
+   * Returns a copy of the decision log, the oldest decision first
+   */
+  public List<Decision> getLog() {
+    synchronized (log) {
+      return Collections.unmodifiableList(new ArrayList<>(log));
+    }
+  }
+
+  public double getCorrelationThreshold() {
+    return correlationThreshold;
+  }
+
+  public void setCorrelationThreshold(double correlationThreshold) {
+    this.correlationThreshold = correlationThreshold;
+  }
+
+  public int getBranchAndBoundMaxItems() {
+    return branchAndBoundMaxItems;
+  }
+
+  public void setBranchAndBoundMaxItems(int branchAndBoundMaxItems) {
+    this.branchAndBoundMaxItems = branchAndBoundMaxItems;
+  }
+
+  /**
+   * Returns the memory budget of the subset-sum solver in bytes
+   */
+  public long getSubsetSumMaxBytes() {
+    return subsetSumMaxBytes;
+  }
+
+  public void setSubsetSumMaxBytes(long subsetSumMaxBytes) {
+    this.subsetSumMaxBytes = subsetSumMaxBytes;
+  }
+
+  @Override
+  public String getName() {
+    return "Dispatcher";
+  }
+}
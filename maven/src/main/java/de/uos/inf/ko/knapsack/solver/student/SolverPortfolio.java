@@ -0,0 +1,249 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+import de.uos.inf.ko.utils.Logger;
+
+/**
+ * A portfolio that races several solvers on the same instance.
+ *
+ * The registered solvers are run concurrently on a fixed number of threads; if there are more
+ * solvers than threads, the later ones wait for a free thread. All solvers share a child of the
+ * {@link SolveControl}: an {@link AnytimeSolver} publishes every improvement, so the exact solvers
+ * can prune with the solutions found by the heuristics, and other solvers publish their final
+ * solution. As soon as the best solution reaches the lowest upper bound reported so far, e.g. when
+ * an exact solver completes its search, it is optimal and the other solvers are cancelled. Anytime
+ * solvers stop at their next check, the threads of other solvers are interrupted and left running
+ * in the background. The deadline of the control applies to all solvers. A solver that throws,
+ * e.g. runs out of memory on a large instance, is recorded and skipped while the others go on; the
+ * race only fails if every solver throws.
+ *
+ * The solution of the result is a {@link PortfolioSolution} that tells which solver found it,
+ * which one proved it optimal and which solvers failed. The {@link SolveStats} of the result add
+ * up the statistics of the members that have completed.
+ *
+ * Every call creates its own threads and shared control, so once all solvers are registered a
+ * portfolio may be shared between threads if its members may.
+ *
+ * @author
+ */
+public class SolverPortfolio implements AnytimeSolver {
+  /**
+   * The best solution of a race together with its provenance.
+   */
+  public static class PortfolioSolution extends Solution {
+    private final String source;
+    private final String prover;
+    private final List<String> failed;
+
+    PortfolioSolution(Solution solution, String source, String prover, List<String> failed) {
+      super(solution);
+      this.source = source;
+      this.prover = prover;
+      this.failed = Collections.unmodifiableList(new ArrayList<>(failed));
+    }
+
+    /**
+     * Returns the name of the solver that found the solution
+     */
+    public String getSource() {
+      return source;
+    }
+
+    /**
+     * Returns the name of the exact solver that proved the solution optimal, or null if no exact
+     * solver completed
+     */
+    public String getProver() {
+      return prover;
+    }
+
+    public boolean isOptimal() {
+      return prover != null;
+    }
+
+    /**
+     * Returns the names of the solvers that threw an exception, in the order of their failure
+     */
+    public List<String> getFailed() {
+      return failed;
+    }
+
+    /**
+     * Returns the provenance tag, e.g. "LNS (proven by BB(s))"
+     */
+    public String getProvenance() {
+      return prover == null ? source : source + " (proven by " + prover + ")";
+    }
+  }
+
+  private static class Member {
+    private final SolverInterface<Solution> solver;
+    private final boolean exact;
+
+    Member(SolverInterface<Solution> solver, boolean exact) {
+      this.solver = solver;
+      this.exact = exact;
+    }
+  }
+
+  private final List<Member> members = new ArrayList<>();
+  private final int threads;
+
+  /**
+   * Races the branch-and-bound, the large neighbourhood search, the Nemhauser-Ullmann algorithm and
+   * constraint programming on all processors, but at least two threads.
+   */
+  public SolverPortfolio() {
+    this(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    register(new BranchAndBound(), true);
+    register(new LargeNeighbourhoodSearch(), false);
+    register(new NemhauserUllmann(), true);
+    register(new ConstraintProgramming(), true);
+  }
+
+  /**
+   * Creates an empty portfolio.
+   *
+   * @param threads the maximum number of solvers running at the same time
+   */
+  public SolverPortfolio(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is needed");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Adds a solver to the portfolio. The solvers are started in the order of registration.
+   *
+   * @param solver the solver
+   * @param exact whether the solver returns an optimal solution; ignored for an
+   *        {@link AnytimeSolver}, which reports its upper bound
+   */
+  public void register(SolverInterface<Solution> solver, boolean exact) {
+    members.add(new Member(solver, exact));
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return race(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult race(Instance instance, SolveControl control, SolveStats stats) {
+    if (members.isEmpty()) {
+      throw new IllegalStateException("No solvers registered");
+    }
+
+    // the members are cancelled without cancelling the control of the caller
+    final SolveControl shared = control.createChild();
+    shared.setListener((solution, source) -> control.offer(solution, source));
+    // an answer even if the deadline passes before any solver has started
+    final GreedyHeuristic greedy = new GreedyHeuristic();
+    shared.offer(greedy.solve(instance), greedy.getName());
+
+    final ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, members.size()),
+        runnable -> {
+          final Thread thread = new Thread(runnable, "portfolio");
+          thread.setDaemon(true);
+          return thread;
+        });
+    final CompletionService<SolveResult> completion = new ExecutorCompletionService<>(pool);
+    final Map<Future<SolveResult>, String> names = new HashMap<>();
+    for (Member member : members) {
+      names.put(completion.submit(() -> run(member, instance, shared)), member.solver.getName());
+    }
+
+    long upperBound = Bounds.upperBound(instance);
+    String prover = null;
+    final List<String> failed = new ArrayList<>();
+    Throwable failure = null;
+    try {
+      for (int i = 0; i < members.size() && prover == null; i++) {
+        final Future<SolveResult> future = completion.take();
+        final SolveResult result;
+        try {
+          result = future.get();
+        } catch (ExecutionException e) {
+          // the other members go on
+          Logger.println("Portfolio: " + names.get(future) + " failed: " + e.getCause());
+          failed.add(names.get(future));
+          if (failure == null) {
+            failure = e.getCause();
+          } else {
+            failure.addSuppressed(e.getCause());
+          }
+          continue;
+        }
+        if (result != null) {
+          upperBound = Math.min(upperBound, result.getUpperBound());
+          stats.add(result.getStats());
+        }
+        if (shared.getValue() >= upperBound) {
+          prover = names.get(future);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      shared.cancel();
+      pool.shutdownNow();
+    }
+    if (failed.size() == members.size()) {
+      throw new IllegalStateException("All solvers failed", failure);
+    }
+
+    return new SolveResult(
+        new PortfolioSolution(shared.getSolution(), shared.getSource(), prover, failed),
+        shared.getSource(), upperBound, stats.snapshot());
+  }
+
+  /**
+   * Runs a member unless the race is over already. Returns its result with the statistics of its
+   * thread, or null if it has not been started or found no solution.
+   */
+  private static SolveResult run(Member member, Instance instance, SolveControl shared) {
+    if (shared.shouldStop()) {
+      return null;
+    }
+    if (member.solver instanceof AnytimeSolver) {
+      return ((AnytimeSolver) member.solver).solve(instance, shared);
+    }
+    final Solution solution = member.solver.solve(instance);
+    if (solution == null || !solution.isFeasible()) {
+      return null;
+    }
+    shared.offer(solution, member.solver.getName());
+    final SolveStats stats = SolveStats.last();
+    return new SolveResult(solution, member.solver.getName(),
+        member.exact ? solution.getValue() : Bounds.upperBound(instance),
+        stats != null ? stats : new SolveStats());
+  }
+
+  @Override
+  public String getName() {
+    return "Portfolio";
+  }
+}
@@ -0,0 +1,453 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+
+/**
+ * A stateful solver for a binary knapsack instance that changes between solves. Items are
+ * identified by ids that stay valid while other items are added or removed; the changes are
+ * applied as deltas and each solve reuses the work of the previous one:
+ * <ul>
+ * <li>The items are kept in descending order of their ratio. A changed item is only removed from
+ * and reinserted into that order instead of sorting all items again.</li>
+ * <li>If the dynamic programming table fits into the memory budget, its layers follow the order in
+ * which the items were added or last changed. A change only invalidates the layers from the
+ * changed item on, and only those are recomputed, starting from the last checkpoint row before
+ * them. Adding an item or changing a recently changed one therefore recomputes at most 32 layers,
+ * but removing or changing one of the first items recomputes almost the whole table, O(n C) in the
+ * worst case. A changed item moves to the last layer, so repeated changes of the same items stay
+ * cheap. The table covers some capacity headroom, so lowering or slightly raising the capacity
+ * needs no recomputation. Every layer stores its decisions as a bitset, so the reconstruction
+ * takes O(n).</li>
+ * <li>Otherwise the previous optimum is repaired (items with the lowest ratio are removed until it
+ * is feasible, then items are added greedily) and passed as incumbent to the
+ * {@link BranchAndBound} together with the maintained order.</li>
+ * </ul>
+ *
+ * Every recomputed layer counts as a node of the {@link SolveStats} of a solve. A session holds
+ * the state of a single evolving instance and is not thread-safe.
+ *
+ * @author
+ */
+public class SolverSession {
+  /**
+   * Number of layers between two checkpoint rows
+   */
+  private static final int INTERVAL = 32;
+
+  private final long memoryBudget;
+  // reused, so its dominance memo is allocated once per session
+  private final BranchAndBound branchAndBound = new BranchAndBound();
+
+  // items by id
+  private int[] values;
+  private int[] weights;
+  private boolean[] alive;
+  private boolean[] packed;
+  private int ids = 0;
+  private int capacity;
+
+  // live ids in descending order of the ratio
+  private int[] order;
+  private int orderSize = 0;
+
+  // live ids in the order of the table layers, and the layer of every id
+  private int[] layers;
+  private int[] layerOf;
+  private int layerCount = 0;
+
+  // the table: checkpoint rows before every INTERVAL-th layer and the decisions per layer
+  private int width = -1;
+  private long[][] checkpoints = new long[0][];
+  private long[][] decisions = new long[0][];
+  // the first layer that has to be recomputed
+  private int dirtyFrom = 0;
+
+  /**
+   * Creates a session for the items and the capacity of an instance; item i gets the id i. The
+   * table is used as long as it takes at most 64 MB.
+   *
+   * @param instance the initial instance
+   */
+  public SolverSession(Instance instance) {
+    this(instance, 64L << 20);
+  }
+
+  /**
+   * Creates a session for the items and the capacity of an instance; item i gets the id i.
+   *
+   * @param instance the initial instance
+   * @param memoryBudget the maximum number of bytes of the dynamic programming table
+   */
+  public SolverSession(Instance instance, long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+    final int n = instance.getSize();
+    values = new int[Math.max(16, n)];
+    weights = new int[values.length];
+    alive = new boolean[values.length];
+    packed = new boolean[values.length];
+    order = new int[values.length];
+    layers = new int[values.length];
+    layerOf = new int[values.length];
+    capacity = instance.getCapacity();
+    for (int i = 0; i < n; i++) {
+      addItem(instance.getValue(i), instance.getWeight(i));
+    }
+  }
+
+  /**
+   * Adds an item.
+   *
+   * @param value the value of the item
+   * @param weight the weight of the item
+   * @return the id of the new item
+   */
+  public int addItem(int value, int weight) {
+    if (ids == values.length) {
+      final int length = 2 * values.length;
+      values = Arrays.copyOf(values, length);
+      weights = Arrays.copyOf(weights, length);
+      alive = Arrays.copyOf(alive, length);
+      packed = Arrays.copyOf(packed, length);
+      order = Arrays.copyOf(order, length);
+      layers = Arrays.copyOf(layers, length);
+      layerOf = Arrays.copyOf(layerOf, length);
+    }
+    final int id = ids++;
+    values[id] = value;
+    weights[id] = weight;
+    alive[id] = true;
+    insertIntoOrder(id);
+    appendLayer(id);
+    return id;
+  }
+
+  /**
+   * Removes an item.
+   *
+   * @param id the id of the item
+   */
+  public void removeItem(int id) {
+    checkId(id);
+    removeFromOrder(id);
+    alive[id] = false;
+    packed[id] = false;
+    removeLayer(id);
+  }
+
+  /**
+   * Changes the value of an item.
+   *
+   * @param id the id of the item
+   * @param value the new value
+   */
+  public void setValue(int id, int value) {
+    checkId(id);
+    setItem(id, value, weights[id]);
+  }
+
+  /**
+   * Changes the weight of an item.
+   *
+   * @param id the id of the item
+   * @param weight the new weight
+   */
+  public void setWeight(int id, int weight) {
+    checkId(id);
+    setItem(id, values[id], weight);
+  }
+
+  private void setItem(int id, int value, int weight) {
+    removeFromOrder(id);
+    values[id] = value;
+    weights[id] = weight;
+    insertIntoOrder(id);
+    // the item becomes the last layer, so further changes of it are cheap
+    removeLayer(id);
+    appendLayer(id);
+  }
+
+  private void appendLayer(int id) {
+    layerOf[id] = layerCount;
+    layers[layerCount++] = id;
+    dirtyFrom = Math.min(dirtyFrom, layerCount - 1);
+  }
+
+  private void removeLayer(int id) {
+    final int layer = layerOf[id];
+    System.arraycopy(layers, layer + 1, layers, layer, layerCount - layer - 1);
+    layerCount--;
+    for (int l = layer; l < layerCount; l++) {
+      layerOf[layers[l]] = l;
+    }
+    dirtyFrom = Math.min(dirtyFrom, layer);
+  }
+
+  /**
+   * Changes the capacity of the knapsack.
+   *
+   * @param capacity the new capacity
+   */
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the ids of the items of the current instance, i.e. item i of {@link #getInstance()}
+   * and of the solutions has the id getIds()[i].
+   */
+  public int[] getIds() {
+    final int[] result = new int[orderSize];
+    int k = 0;
+    for (int id = 0; id < ids; id++) {
+      if (alive[id]) {
+        result[k++] = id;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the current instance with the items in the order of their ids.
+   */
+  public Instance getInstance() {
+    final int[] live = getIds();
+    final Instance instance = new Instance(live.length, capacity);
+    for (int i = 0; i < live.length; i++) {
+      instance.set(i, values[live[i]], weights[live[i]]);
+    }
+    return instance;
+  }
+
+  /**
+   * Checks whether an item is packed in the solution of the last solve.
+   *
+   * @param id the id of the item
+   */
+  public boolean isPacked(int id) {
+    return alive[id] && packed[id];
+  }
+
+  /**
+   * Solves the current instance.
+   *
+   * @return an optimal solution of {@link #getInstance()}
+   */
+  public Solution solve() {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return resolve();
+    } finally {
+      stats.end();
+    }
+  }
+
+  private Solution resolve() {
+    final Instance instance = getInstance();
+    final int[] live = getIds();
+
+    // a little headroom for slightly larger capacities
+    int columns = capacity > width ? capacity + capacity / 4 : width;
+    if (tableBytes(columns) > memoryBudget) {
+      columns = capacity;
+    }
+    if (tableBytes(columns) <= memoryBudget) {
+      if (columns != width) {
+        resetTable(columns);
+      }
+      updateTable();
+      reconstruct();
+    } else {
+      resetTable(-1);
+      branchAndBound(instance, live);
+    }
+
+    final Solution solution = new Solution(instance);
+    for (int i = 0; i < live.length; i++) {
+      if (packed[live[i]]) {
+        solution.set(i, 1);
+      }
+    }
+    return solution;
+  }
+
+  private long tableBytes(int columns) {
+    final long words = (columns >>> 6) + 1;
+    final long checkpointRows = layerCount / INTERVAL + 1;
+    return 8 * (layerCount * words + (checkpointRows + 1) * (columns + 1L));
+  }
+
+  private void resetTable(int columns) {
+    width = columns;
+    checkpoints = new long[0][];
+    decisions = new long[0][];
+    dirtyFrom = 0;
+  }
+
+  /**
+   * Recomputes the layers from dirtyFrom on.
+   */
+  private void updateTable() {
+    if (dirtyFrom >= layerCount) {
+      return;
+    }
+    if (checkpoints.length < layerCount / INTERVAL + 1) {
+      checkpoints = Arrays.copyOf(checkpoints, 2 * (layerCount / INTERVAL + 1));
+    }
+    if (decisions.length < layerCount) {
+      decisions = Arrays.copyOf(decisions, Math.max(16, 2 * layerCount));
+    }
+    if (checkpoints[0] == null) {
+      checkpoints[0] = new long[width + 1];
+    }
+
+    final int words = (width >>> 6) + 1;
+    final int start = dirtyFrom / INTERVAL * INTERVAL;
+    final long[] row = checkpoints[start / INTERVAL].clone();
+    for (int l = start; l < layerCount; l++) {
+      if (l % INTERVAL == 0) {
+        checkpoints[l / INTERVAL] = row.clone();
+      }
+      if (decisions[l] == null) {
+        decisions[l] = new long[words];
+      } else {
+        Arrays.fill(decisions[l], 0);
+      }
+      final long[] keep = decisions[l];
+      final int weight = weights[layers[l]];
+      final int value = values[layers[l]];
+      for (int c = width; c >= weight; c--) {
+        if (row[c - weight] + value > row[c]) {
+          row[c] = row[c - weight] + value;
+          keep[c >>> 6] |= 1L << c;
+        }
+      }
+    }
+    if (layerCount % INTERVAL == 0) {
+      checkpoints[layerCount / INTERVAL] = row;
+    }
+    SolveStats.current().addNodes(layerCount - start);
+    dirtyFrom = layerCount;
+  }
+
+  /**
+   * Reads the packing for the current capacity from the decisions of the table.
+   */
+  private void reconstruct() {
+    int c = capacity;
+    for (int l = layerCount - 1; l >= 0; l--) {
+      final int id = layers[l];
+      packed[id] = (decisions[l][c >>> 6] & (1L << c)) != 0;
+      if (packed[id]) {
+        c -= weights[id];
+      }
+    }
+  }
+
+  /**
+   * Repairs the previous packing and uses it as incumbent of the branch-and-bound.
+   */
+  private void branchAndBound(Instance instance, int[] live) {
+    long weight = 0;
+    for (int k = 0; k < orderSize; k++) {
+      if (packed[order[k]]) {
+        weight += weights[order[k]];
+      }
+    }
+    // remove the items with the lowest ratio until the packing fits, then fill it greedily
+    for (int k = orderSize - 1; k >= 0 && weight > capacity; k--) {
+      if (packed[order[k]]) {
+        packed[order[k]] = false;
+        weight -= weights[order[k]];
+      }
+    }
+    for (int k = 0; k < orderSize; k++) {
+      if (!packed[order[k]] && weight + weights[order[k]] <= capacity) {
+        packed[order[k]] = true;
+        weight += weights[order[k]];
+      }
+    }
+
+    // map the ids to the indices of the instance
+    final int[] index = new int[ids];
+    for (int i = 0; i < live.length; i++) {
+      index[live[i]] = i;
+    }
+    final int[] sorted = new int[orderSize];
+    final Solution incumbent = new Solution(instance);
+    for (int k = 0; k < orderSize; k++) {
+      sorted[k] = index[order[k]];
+      if (packed[order[k]]) {
+        incumbent.set(index[order[k]], 1);
+      }
+    }
+
+    final Solution solution =
+        branchAndBound.solve(instance, new Bounds(instance, sorted), incumbent);
+    for (int i = 0; i < live.length; i++) {
+      packed[live[i]] = solution.get(i) == 1;
+    }
+  }
+
+  /**
+   * Compares the ratios of two items without division, a weight of 0 counts as infinite ratio.
+   */
+  private int compareRatio(int a, int b) {
+    if (weights[a] == 0 || weights[b] == 0) {
+      if (weights[a] == weights[b]) {
+        return Integer.compare(values[a], values[b]);
+      }
+      return weights[a] == 0 ? 1 : -1;
+    }
+    return Long.compare((long) values[a] * weights[b], (long) values[b] * weights[a]);
+  }
+
+  private void insertIntoOrder(int id) {
+    // first position with a lower ratio
+    int lo = 0;
+    int hi = orderSize;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (compareRatio(order[mid], id) >= 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    System.arraycopy(order, lo, order, lo + 1, orderSize - lo);
+    order[lo] = id;
+    orderSize++;
+  }
+
+  private void removeFromOrder(int id) {
+    // first position with the same ratio, then scan the ties
+    int lo = 0;
+    int hi = orderSize;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (compareRatio(order[mid], id) > 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    while (order[lo] != id) {
+      lo++;
+    }
+    System.arraycopy(order, lo + 1, order, lo, orderSize - lo - 1);
+    orderSize--;
+  }
+
+  private void checkId(int id) {
+    if (id < 0 || id >= ids || !alive[id]) {
+      throw new IllegalArgumentException("No item with id " + id);
+    }
+  }
+}
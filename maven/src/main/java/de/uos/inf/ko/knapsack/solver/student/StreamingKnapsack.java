@@ -0,0 +1,474 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * A knapsack for an unbounded stream of items with O(k) memory. The items are numbered by their
+ * position in the stream and offered one at a time. Two kinds of decisions are supported at once:
+ * <ul>
+ * <li>Online: an {@link OnlinePolicy} decides irrevocably whether an item is accepted. Only the
+ * total value and weight of the accepted items are kept.</li>
+ * <li>Semi-online: a sketch keeps the k items with the highest ratio seen so far (a min-heap on
+ * the ratio), the most valuable single item and a uniform reservoir sample of k items. At any point
+ * {@link #getSolution()} packs the sketch greedily and compares it with the single item, which
+ * gives at least half of the optimum over the sketch.</li>
+ * </ul>
+ *
+ * Every item outside the sketch has a ratio of at most the lowest ratio in the sketch. Therefore
+ * the sketch packed fractionally and filled up with that ratio is an upper bound on the optimum of
+ * the whole stream, and each solution reports the certified factor between both.
+ *
+ * The sketch belongs to a single stream and is not thread-safe.
+ *
+ * @author
+ */
+public class StreamingKnapsack {
+  /**
+   * Decides online whether an item is accepted.
+   */
+  public interface OnlinePolicy {
+    /**
+     * Decides whether to accept an item that fits into the residual capacity.
+     *
+     * @param value the value of the item
+     * @param weight the weight of the item
+     * @param knapsack the state of the knapsack before the item is added
+     */
+    boolean accept(int value, int weight, StreamingKnapsack knapsack);
+
+    /**
+     * Returns the competitive ratio guaranteed by the policy, or infinity if there is none
+     */
+    double getCompetitiveRatio();
+  }
+
+  /**
+   * Accepts every item with a ratio of at least a fixed threshold.
+   */
+  public static class FixedThreshold implements OnlinePolicy {
+    private final double threshold;
+
+    public FixedThreshold(double threshold) {
+      this.threshold = threshold;
+    }
+
+    @Override
+    public boolean accept(int value, int weight, StreamingKnapsack knapsack) {
+      return (double) value >= threshold * weight;
+    }
+
+    @Override
+    public double getCompetitiveRatio() {
+      return Double.POSITIVE_INFINITY;
+    }
+  }
+
+  /**
+   * The threshold policy of Zhou, Chakrabarty and Lukose: if all ratios are within [L, U] and the
+   * items are small compared to the capacity, an item is accepted if its ratio is at least
+   * (U e / L)^z (L / e), where z is the fraction of the capacity already used. The policy is
+   * ln(U / L) + 1 competitive.
+   */
+  public static class ExponentialThreshold implements OnlinePolicy {
+    private final double lower;
+    private final double upper;
+
+    /**
+     * @param lower the lower bound L on the ratios
+     * @param upper the upper bound U on the ratios
+     */
+    public ExponentialThreshold(double lower, double upper) {
+      this.lower = lower;
+      this.upper = upper;
+    }
+
+    @Override
+    public boolean accept(int value, int weight, StreamingKnapsack knapsack) {
+      final double z = (double) knapsack.getAcceptedWeight() / knapsack.getCapacity();
+      final double threshold = Math.pow(upper * Math.E / lower, z) * lower / Math.E;
+      return (double) value >= threshold * weight;
+    }
+
+    @Override
+    public double getCompetitiveRatio() {
+      return Math.log(upper / lower) + 1;
+    }
+  }
+
+  /**
+   * Estimates the threshold from the reservoir sample: the lowest ratio such that the items of the
+   * sample with at least this ratio, scaled up to the number of items seen so far, fill the
+   * residual capacity. Nothing is accepted until the sample is full. The threshold is recomputed
+   * whenever the number of seen items has grown by k.
+   */
+  public static class SampledThreshold implements OnlinePolicy {
+    private double threshold = Double.POSITIVE_INFINITY;
+    private long computedAt = -1;
+
+    @Override
+    public boolean accept(int value, int weight, StreamingKnapsack knapsack) {
+      if (knapsack.sampleSize < knapsack.k) {
+        return false;
+      }
+      if (computedAt < 0 || knapsack.seen - computedAt >= knapsack.k) {
+        threshold = knapsack.estimateThreshold();
+        computedAt = knapsack.seen;
+      }
+      return (double) value >= threshold * weight;
+    }
+
+    @Override
+    public double getCompetitiveRatio() {
+      return Double.POSITIVE_INFINITY;
+    }
+  }
+
+  /**
+   * A solution packed from the sketch.
+   */
+  public static class StreamSolution {
+    private final long[] items;
+    private final long value;
+    private final long weight;
+    private final double upperBound;
+
+    private StreamSolution(long[] items, long value, long weight, double upperBound) {
+      this.items = items;
+      this.value = value;
+      this.weight = weight;
+      this.upperBound = upperBound;
+    }
+
+    /**
+     * Returns the stream positions of the packed items
+     */
+    public long[] getItems() {
+      return items;
+    }
+
+    public long getValue() {
+      return value;
+    }
+
+    public long getWeight() {
+      return weight;
+    }
+
+    /**
+     * Returns an upper bound on the optimum of all items seen so far
+     */
+    public double getUpperBound() {
+      return upperBound;
+    }
+
+    /**
+     * Returns the factor by which the optimum of the stream may exceed the value of the solution
+     */
+    public double getCompetitiveBound() {
+      return value > 0 ? upperBound / value : (upperBound > 0 ? Double.POSITIVE_INFINITY : 1);
+    }
+  }
+
+  private final int capacity;
+  private final int k;
+  private final OnlinePolicy policy;
+  private final Random random;
+
+  private long seen = 0;
+
+  // online decisions
+  private long acceptedValue = 0;
+  private long acceptedWeight = 0;
+  private long acceptedItems = 0;
+
+  // sketch: min-heap on the ratio
+  private final int[] heapValues;
+  private final int[] heapWeights;
+  private final long[] heapItems;
+  private int heapSize = 0;
+  // the highest ratio of an item that fits but is not in the heap
+  private double outsideRatio = 0;
+
+  private long bestItem = -1;
+  private int bestValue = 0;
+  private int bestWeight = 0;
+
+  // reservoir sample
+  private final int[] sampleValues;
+  private final int[] sampleWeights;
+  private int sampleSize = 0;
+
+  /**
+   * Creates a streaming knapsack.
+   *
+   * @param capacity the capacity of the knapsack
+   * @param k the size of the sketch and of the sample
+   * @param policy the online policy, or null to decide nothing online
+   * @param seed the seed of the reservoir sampling
+   */
+  public StreamingKnapsack(int capacity, int k, OnlinePolicy policy, long seed) {
+    if (k < 1) {
+      throw new IllegalArgumentException("The sketch needs at least one item");
+    }
+    this.capacity = capacity;
+    this.k = k;
+    this.policy = policy;
+    this.random = new Random(seed);
+    heapValues = new int[k];
+    heapWeights = new int[k];
+    heapItems = new long[k];
+    sampleValues = new int[k];
+    sampleWeights = new int[k];
+  }
+
+  /**
+   * Offers the next item of the stream.
+   *
+   * @param value the value of the item
+   * @param weight the weight of the item
+   * @return true if the online policy accepted the item
+   */
+  public boolean offer(int value, int weight) {
+    final long item = seen++;
+
+    // reservoir sampling (algorithm R)
+    if (sampleSize < k) {
+      sampleValues[sampleSize] = value;
+      sampleWeights[sampleSize] = weight;
+      sampleSize++;
+    } else {
+      final long slot = (long) (random.nextDouble() * seen);
+      if (slot < k) {
+        sampleValues[(int) slot] = value;
+        sampleWeights[(int) slot] = weight;
+      }
+    }
+
+    if (weight > capacity || value <= 0) {
+      return false;
+    }
+
+    if (value > bestValue) {
+      bestItem = item;
+      bestValue = value;
+      bestWeight = weight;
+    }
+    addToSketch(item, value, weight);
+
+    if (policy != null && acceptedWeight + weight <= capacity
+        && policy.accept(value, weight, this)) {
+      acceptedValue += value;
+      acceptedWeight += weight;
+      acceptedItems++;
+      return true;
+    }
+    return false;
+  }
+
+  private void addToSketch(long item, int value, int weight) {
+    if (heapSize < k) {
+      heapValues[heapSize] = value;
+      heapWeights[heapSize] = weight;
+      heapItems[heapSize] = item;
+      siftUp(heapSize++);
+      return;
+    }
+    if (compareRatio(value, weight, heapValues[0], heapWeights[0]) <= 0) {
+      outsideRatio = Math.max(outsideRatio, ratio(value, weight));
+      return;
+    }
+    outsideRatio = Math.max(outsideRatio, ratio(heapValues[0], heapWeights[0]));
+    heapValues[0] = value;
+    heapWeights[0] = weight;
+    heapItems[0] = item;
+    siftDown(0);
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      final int parent = (i - 1) / 2;
+      if (compareRatio(heapValues[i], heapWeights[i], heapValues[parent],
+          heapWeights[parent]) >= 0) {
+        return;
+      }
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      int smallest = i;
+      for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+        if (compareRatio(heapValues[child], heapWeights[child], heapValues[smallest],
+            heapWeights[smallest]) < 0) {
+          smallest = child;
+        }
+      }
+      if (smallest == i) {
+        return;
+      }
+      swap(i, smallest);
+      i = smallest;
+    }
+  }
+
+  private void swap(int i, int j) {
+    final int value = heapValues[i];
+    final int weight = heapWeights[i];
+    final long item = heapItems[i];
+    heapValues[i] = heapValues[j];
+    heapWeights[i] = heapWeights[j];
+    heapItems[i] = heapItems[j];
+    heapValues[j] = value;
+    heapWeights[j] = weight;
+    heapItems[j] = item;
+  }
+
+  /**
+   * Compares the ratios of two items without division, a weight of 0 counts as infinite ratio.
+   */
+  private static int compareRatio(int value1, int weight1, int value2, int weight2) {
+    if (weight1 == 0 || weight2 == 0) {
+      return weight1 == weight2 ? Integer.compare(value1, value2) : (weight1 == 0 ? 1 : -1);
+    }
+    return Long.compare((long) value1 * weight2, (long) value2 * weight1);
+  }
+
+  private static double ratio(int value, int weight) {
+    return weight == 0 ? Double.POSITIVE_INFINITY : (double) value / weight;
+  }
+
+  /**
+   * Sketch positions in descending order of the ratio.
+   */
+  private Integer[] sortedSketch() {
+    final Integer[] sorted = new Integer[heapSize];
+    for (int j = 0; j < heapSize; j++) {
+      sorted[j] = j;
+    }
+    Arrays.sort(sorted, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return compareRatio(heapValues[o2], heapWeights[o2], heapValues[o1], heapWeights[o1]);
+      }
+    });
+    return sorted;
+  }
+
+  /**
+   * Computes the threshold of the {@link SampledThreshold} policy.
+   */
+  private double estimateThreshold() {
+    final Integer[] sorted = new Integer[sampleSize];
+    for (int j = 0; j < sampleSize; j++) {
+      sorted[j] = j;
+    }
+    Arrays.sort(sorted, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return compareRatio(sampleValues[o2], sampleWeights[o2], sampleValues[o1],
+            sampleWeights[o1]);
+      }
+    });
+
+    final double scale = (double) seen / sampleSize;
+    final long residual = capacity - acceptedWeight;
+    double weight = 0;
+    for (int j : sorted) {
+      if (sampleWeights[j] > capacity) {
+        continue;
+      }
+      weight += scale * sampleWeights[j];
+      if (weight >= residual) {
+        return ratio(sampleValues[j], sampleWeights[j]);
+      }
+    }
+    // the expected items do not fill the knapsack: accept everything
+    return 0;
+  }
+
+  /**
+   * Packs the sketch greedily and returns the better of this packing and the most valuable single
+   * item, together with an upper bound on the optimum of all items seen so far.
+   */
+  public StreamSolution getSolution() {
+    final Integer[] sorted = sortedSketch();
+
+    // greedy packing and fractional bound over the sketch
+    final long[] packed = new long[heapSize];
+    int count = 0;
+    long value = 0;
+    long weight = 0;
+    double bound = 0;
+    long boundWeight = 0;
+    boolean full = false;
+    for (int j : sorted) {
+      if (weight + heapWeights[j] <= capacity) {
+        packed[count++] = heapItems[j];
+        value += heapValues[j];
+        weight += heapWeights[j];
+      }
+      if (!full) {
+        if (boundWeight + heapWeights[j] <= capacity) {
+          bound += heapValues[j];
+          boundWeight += heapWeights[j];
+        } else {
+          bound += (capacity - boundWeight) * ratio(heapValues[j], heapWeights[j]);
+          boundWeight = capacity;
+          full = true;
+        }
+      }
+    }
+    if (!full) {
+      // the remaining capacity could be filled by items outside the sketch
+      bound += (capacity - boundWeight) * outsideRatio;
+    }
+
+    if (bestValue > value) {
+      return new StreamSolution(new long[] {bestItem}, bestValue, bestWeight, bound);
+    }
+    return new StreamSolution(Arrays.copyOf(packed, count), value, weight, bound);
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of items offered so far
+   */
+  public long getSeen() {
+    return seen;
+  }
+
+  /**
+   * Returns the total value of the items accepted online
+   */
+  public long getAcceptedValue() {
+    return acceptedValue;
+  }
+
+  /**
+   * Returns the total weight of the items accepted online
+   */
+  public long getAcceptedWeight() {
+    return acceptedWeight;
+  }
+
+  /**
+   * Returns the number of items accepted online
+   */
+  public long getAcceptedItems() {
+    return acceptedItems;
+  }
+
+  /**
+   * Returns the competitive ratio of the online policy
+   */
+  public double getCompetitiveRatio() {
+    return policy != null ? policy.getCompetitiveRatio() : Double.POSITIVE_INFINITY;
+  }
+}
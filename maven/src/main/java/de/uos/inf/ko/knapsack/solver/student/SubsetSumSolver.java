@@ -0,0 +1,238 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+
+/**
+ * An exact solver for subset-sum instances (the value of every item equals its weight, see
+ * {@link Instance#isSubsetSum()}). Other instances are passed on to a fallback solver.
+ *
+ * The reachable weights are stored as a bitset in a long array and adding an item is a single
+ * word-parallel operation (reachable |= reachable << weight), i.e. 64 capacities per instruction.
+ * For large capacities the words are split into chunks that are shifted by several threads.
+ *
+ * Instead of one bitset per item, only the bitsets before every k-th item are kept as checkpoints,
+ * with k about the square root of the number of items. The packing is reconstructed backwards
+ * block by block: the bitsets within a block are recomputed from its checkpoint, and an item is
+ * packed if the current target weight is not reachable without it.
+ *
+ * The control is checked before every item. If the forward pass is stopped, the best packing of
+ * the items processed so far is reconstructed; the upper bound adds the weights of the remaining
+ * items.
+ *
+ * Every processed item counts as a node of the {@link SolveStats}, and every item heavier than the
+ * capacity as an infeasible prune.
+ *
+ * @author
+ */
+public class SubsetSumSolver implements AnytimeSolver {
+  private final SolverInterface<Solution> fallback;
+  private final int threads;
+  private final int parallelWords;
+
+  /**
+   * Uses the Nemhauser-Ullmann algorithm as fallback and all available processors for bitsets of
+   * at least 2^15 words (a capacity of about two million).
+   */
+  public SubsetSumSolver() {
+    this(new NemhauserUllmann(), Runtime.getRuntime().availableProcessors(), 1 << 15);
+  }
+
+  /**
+   * Creates a subset-sum solver.
+   *
+   * @param fallback the solver for instances that are not subset-sum instances
+   * @param threads the number of threads shifting a bitset
+   * @param parallelWords the minimum number of words of a bitset to be shifted by several threads
+   */
+  public SubsetSumSolver(SolverInterface<Solution> fallback, int threads, int parallelWords) {
+    this.fallback = fallback;
+    this.threads = threads;
+    this.parallelWords = parallelWords;
+  }
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return pack(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult pack(Instance instance, SolveControl control, SolveStats stats) {
+    if (!instance.isSubsetSum()) {
+      if (fallback instanceof AnytimeSolver) {
+        return ((AnytimeSolver) fallback).solve(instance, control);
+      }
+      control.offer(fallback.solve(instance), fallback.getName());
+      return control.result(Bounds.upperBound(instance));
+    }
+
+    final int capacity = instance.getCapacity();
+    final Solution solution = new Solution(instance);
+
+    // only items with a positive weight that fits can change the reachable weights
+    final int[] items = new int[instance.getSize()];
+    int m = 0;
+    for (int i = 0; i < instance.getSize(); i++) {
+      if (instance.getWeight(i) > 0 && instance.getWeight(i) <= capacity) {
+        items[m++] = i;
+      } else if (instance.getWeight(i) > capacity) {
+        stats.prune(SolveStats.Prune.INFEASIBLE);
+      }
+    }
+
+    long upperBound = 0;
+    final int words = (capacity >>> 6) + 1;
+    final ExecutorService pool =
+        threads > 1 && words >= parallelWords ? Executors.newFixedThreadPool(threads) : null;
+    try {
+      final int interval = Math.max(1, (int) Math.ceil(Math.sqrt(m)));
+      final long[][] checkpoints = new long[(m + interval - 1) / interval][];
+
+      long[] reachable = new long[words];
+      long[] spare = pool != null ? new long[words] : null;
+      reachable[0] = 1L;
+
+      // forward pass, stops as soon as the capacity itself is reachable
+      int processed = 0;
+      while (processed < m && !test(reachable, capacity) && !control.shouldStop()) {
+        if (processed % interval == 0) {
+          checkpoints[processed / interval] = reachable.clone();
+        }
+        final long[] result =
+            add(reachable, spare, instance.getWeight(items[processed]), capacity, pool);
+        spare = result == reachable ? spare : reachable;
+        reachable = result;
+        processed++;
+      }
+      stats.addNodes(processed);
+
+      int target = capacity;
+      while (!test(reachable, target)) {
+        target--;
+      }
+      upperBound = target;
+      for (int k = processed; k < m; k++) {
+        upperBound += instance.getWeight(items[k]);
+      }
+      upperBound = Math.min(upperBound, capacity);
+
+      // backward pass over the blocks of processed items
+      final long[][] block = new long[interval][];
+      for (int b = (processed - 1) / interval; b >= 0 && target > 0; b--) {
+        final int from = b * interval;
+        final int to = Math.min(processed, from + interval);
+        block[0] = checkpoints[b];
+        for (int k = from + 1; k < to; k++) {
+          final long[] previous = block[k - from - 1];
+          final int weight = instance.getWeight(items[k - 1]);
+          block[k - from] = pool != null ? add(previous, new long[words], weight, capacity, pool)
+              : add(previous.clone(), null, weight, capacity, pool);
+        }
+        for (int k = to - 1; k >= from; k--) {
+          // block[k - from] holds the weights reachable before item k
+          if (!test(block[k - from], target)) {
+            solution.set(items[k], 1);
+            target -= instance.getWeight(items[k]);
+          }
+        }
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+    control.offer(solution, getName());
+    return control.result(upperBound);
+  }
+
+  private static boolean test(long[] bits, int index) {
+    return (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   * Adds an item of the given weight to the reachable weights. Sequentially the bitset is updated
+   * in place; with a thread pool the result is written to spare. Returns the updated bitset.
+   */
+  private long[] add(long[] bits, long[] spare, int weight, int capacity, ExecutorService pool) {
+    final int words = bits.length;
+    if (pool == null) {
+      shift(bits, bits, weight, 0, words);
+      clearAbove(bits, capacity);
+      return bits;
+    }
+
+    final int chunk = (words + threads - 1) / threads;
+    final List<Callable<Void>> tasks = new ArrayList<>(threads);
+    for (int from = 0; from < words; from += chunk) {
+      final int start = from;
+      final int end = Math.min(words, from + chunk);
+      tasks.add(() -> {
+        shift(bits, spare, weight, start, end);
+        return null;
+      });
+    }
+    try {
+      for (Future<Void> future : pool.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while shifting the bitset", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Shifting the bitset failed", e.getCause());
+    }
+    clearAbove(spare, capacity);
+    return spare;
+  }
+
+  /**
+   * Computes dst[i] = src[i] | (src << weight)[i] for the words from, ..., to-1. The words are
+   * processed in descending order, so src and dst may be the same array.
+   */
+  private static void shift(long[] src, long[] dst, int weight, int from, int to) {
+    final int wordShift = weight >>> 6;
+    final int bitShift = weight & 63;
+    for (int i = to - 1; i >= from; i--) {
+      long shifted = 0;
+      if (i - wordShift >= 0) {
+        shifted = src[i - wordShift] << bitShift;
+        if (bitShift != 0 && i - wordShift - 1 >= 0) {
+          shifted |= src[i - wordShift - 1] >>> (64 - bitShift);
+        }
+      }
+      dst[i] = src[i] | shifted;
+    }
+  }
+
+  /**
+   * Clears the bits for weights above the capacity in the last word.
+   */
+  private static void clearAbove(long[] bits, int capacity) {
+    final int bit = (capacity & 63) + 1;
+    if (bit < 64) {
+      bits[bits.length - 1] &= (1L << bit) - 1;
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "SubsetSum";
+  }
+}
@@ -1,23 +1,27 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import de.uos.inf.ko.knapsack.AnytimeSolver;
 import de.uos.inf.ko.knapsack.Solution;
-import de.uos.inf.ko.knapsack.SolverInterface;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
 import de.uos.inf.ko.knapsack.Instance;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * TabuSearch is an implementation of the SolverInterface that uses the Tabu Search algorithm to solve the knapsack problem.
  * It generates an initial solution and then iteratively explores the neighborhood of the current solution by flipping one bit at a time.
  * The algorithm keeps track of a tabu list to prevent revisiting previously explored solutions.
  * The search terminates based on a specified termination condition, such as a maximum number of iterations or a limit on the number of iterations without improvement.
+ * It also terminates when the control asks to; improvements are published to the control and the upper bound is the Martello-Toth bound of the instance.
+ * The solver keeps no state between calls and may be shared between threads.
  */
-public class TabuSearch implements SolverInterface<Solution> {
+public class TabuSearch implements AnytimeSolver {
 
-  private int tabuListSize = 100;
-
-  private final Random random = new Random();
+  private final int tabuListSize = 100;
 
   public enum InitialSolutionType {
     RANDOM, GREEDY
@@ -57,16 +61,20 @@ public class TabuSearch implements SolverInterface<Solution> {
    * Solves the knapsack problem using the Tabu Search algorithm.
    * 
    * @param instance  The instance of the problem.
-   * @return  The best solution found.
+   * @param control  The deadline and the best known solution.
+   * @return  The best solution found and the upper bound.
    */
   @Override
-  public Solution solve(Instance instance) {
-    // Print configuration
-    System.out.println("Initial solution type: " + initialSolutionType);
-    System.out.println("Termination condition: " + terminationCondition);
-    System.out.println("Attribute type: " + attributeType);
-    System.out.println("Allowed solutions: " + allowedSolutions);
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return search(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
 
+  private SolveResult search(Instance instance, SolveControl control, SolveStats stats) {
     // Values for different variants of the algorithm
     final int improvementLimit = 100;
     int lastImprovement = 0;
@@ -77,6 +85,7 @@ public class TabuSearch implements SolverInterface<Solution> {
 
     // Initialize the best solution
     Solution bestSolution = currentSolution;
+    control.offer(bestSolution, getName());
 
     // Initialize the tabu list for solutions
     List<Solution> tabuList = new ArrayList<>();
@@ -90,7 +99,7 @@ public class TabuSearch implements SolverInterface<Solution> {
     // Start the tabu search
     int iteration = 0;
     boolean stop = false;
-    while (!stop) {
+    while (!stop && !control.shouldStop()) {
       // Generate the neighborhood solutions
       List<Tuple> neighborhood = generateNeighborhood(currentSolution, instance);
 
@@ -133,6 +142,9 @@ public class TabuSearch implements SolverInterface<Solution> {
         }
       }
 
+      // every neighbor is an evaluated move, the best one is made
+      stats.addMoves(neighborhood.size(), bestNeighbor != null ? 1 : 0);
+
       // To continue the procedure, delete the oldest entry in the tabu list until a feasible neighbor exists
       if (bestNeighbor == null) {
         tabuList.remove(0);
@@ -147,6 +159,7 @@ public class TabuSearch implements SolverInterface<Solution> {
       if (currentSolution.getValue() > bestSolution.getValue() && currentSolution.isFeasible()) {
         bestSolution = currentSolution;
         lastImprovement = iteration;
+        control.offer(bestSolution, getName());
       }
 
       // Add the current solution to the tabu list
@@ -182,7 +195,7 @@ public class TabuSearch implements SolverInterface<Solution> {
       }
     }
 
-    return bestSolution;
+    return control.result(Bounds.upperBound(instance));
   }
 
   @Override
@@ -221,6 +234,9 @@ public class TabuSearch implements SolverInterface<Solution> {
    * @return  The generated solution.
    */
   private Solution generateRandomSolution(Instance instance) {
+    // a generator per thread instead of a shared one, which is contended under concurrent calls
+    Random random = ThreadLocalRandom.current();
+
     // random permutation of indices of items
     int[] indices = new int[instance.getWeightArray().length];
     for (int i = 0; i < indices.length; i++) {
@@ -239,7 +255,7 @@ public class TabuSearch implements SolverInterface<Solution> {
     for (int i = 0; i < indices.length; i++) {
       int index = indices[i];
 
-      if (Math.random() < 0.5) {
+      if (random.nextBoolean()) {
         continue;
       }
 
@@ -0,0 +1,166 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+
+/**
+ * An exact solver for the unbounded knapsack problem, i.e. every item may be packed arbitrarily
+ * often.
+ *
+ * First, dominated items are removed: an item j is dominated by a lighter item i if floor(w_j /
+ * w_i) copies of i are at least as valuable as j. The remaining items are solved by dynamic
+ * programming over the capacities, but not necessarily up to the capacity of the knapsack:
+ * there is an optimal solution in which the items other than the best item b (with the highest
+ * ratio) have a total weight of at most (w_b - 1) * w_max, since otherwise a subset of them with a
+ * total weight divisible by w_b could be replaced by copies of b. Therefore the table only covers
+ * the capacities up to that limit (periodicity), and the rest of the knapsack is filled with
+ * copies of b.
+ *
+ * The control is checked every 1024 capacities of the table. If the computation is stopped, the
+ * solution is built from the part of the table computed so far and the upper bound is the capacity
+ * times the ratio of b.
+ *
+ * Every computed capacity of the table counts as a node of the {@link SolveStats}; items that do
+ * not fit or are dominated count as pruned.
+ *
+ * @author
+ */
+public class UnboundedKnapsack implements AnytimeSolver {
+
+  @Override
+  public SolveResult solve(Instance instance, SolveControl control) {
+    final SolveStats stats = SolveStats.begin();
+    try {
+      return pack(instance, control, stats);
+    } finally {
+      stats.end();
+    }
+  }
+
+  private SolveResult pack(Instance instance, SolveControl control, SolveStats stats) {
+    final int n = instance.getSize();
+    final int capacity = instance.getCapacity();
+    final Solution solution = new Solution(instance);
+
+    // candidates: items that fit and have a positive value
+    Integer[] candidates = new Integer[n];
+    int size = 0;
+    for (int i = 0; i < n; i++) {
+      if (instance.getValue(i) > 0 && instance.getWeight(i) <= capacity) {
+        if (instance.getWeight(i) == 0) {
+          throw new IllegalArgumentException(
+              "Item " + i + " has a positive value but no weight, the problem is unbounded");
+        }
+        candidates[size++] = i;
+      } else if (instance.getWeight(i) > capacity) {
+        stats.prune(SolveStats.Prune.INFEASIBLE);
+      }
+    }
+    if (size == 0) {
+      control.offer(solution, getName());
+      return control.result(0);
+    }
+    candidates = Arrays.copyOf(candidates, size);
+
+    // ascending weight, descending value for equal weights
+    Arrays.sort(candidates, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        if (instance.getWeight(o1) != instance.getWeight(o2)) {
+          return Integer.compare(instance.getWeight(o1), instance.getWeight(o2));
+        }
+        return Integer.compare(instance.getValue(o2), instance.getValue(o1));
+      }
+    });
+
+    // dominance: compare with all lighter items that are not dominated themselves
+    final int[] items = new int[size];
+    int m = 0;
+    for (int candidate : candidates) {
+      final long weight = instance.getWeight(candidate);
+      final long value = instance.getValue(candidate);
+      boolean dominated = false;
+      for (int k = 0; k < m && !dominated; k++) {
+        dominated = (weight / instance.getWeight(items[k])) * instance.getValue(items[k]) >= value;
+      }
+      if (!dominated) {
+        items[m++] = candidate;
+      } else {
+        stats.prune(SolveStats.Prune.DOMINANCE);
+      }
+    }
+
+    // the best item, lighter items first on ties
+    int best = items[0];
+    int maxWeight = 0;
+    for (int k = 0; k < m; k++) {
+      final int i = items[k];
+      if ((long) instance.getValue(i) * instance.getWeight(best)
+          > (long) instance.getValue(best) * instance.getWeight(i)) {
+        best = i;
+      }
+      maxWeight = Math.max(maxWeight, instance.getWeight(i));
+    }
+    final int bestWeight = instance.getWeight(best);
+    final int limit = (int) Math.min(capacity, (long) (bestWeight - 1) * maxWeight);
+
+    // table[r]: best value with a weight of at most r, choice[r]: last item or -1 for table[r - 1]
+    final long[] table = new long[limit + 1];
+    final int[] choice = new int[limit + 1];
+    choice[0] = -1;
+    int computed = limit;
+    for (int r = 1; r <= limit; r++) {
+      if ((r & 1023) == 0 && control.shouldStop()) {
+        computed = r - 1;
+        break;
+      }
+      table[r] = table[r - 1];
+      choice[r] = -1;
+      for (int k = 0; k < m && instance.getWeight(items[k]) <= r; k++) {
+        final int i = items[k];
+        final long value = table[r - instance.getWeight(i)] + instance.getValue(i);
+        if (value > table[r]) {
+          table[r] = value;
+          choice[r] = i;
+        }
+      }
+    }
+    stats.addNodes(computed);
+
+    // fill the rest of the knapsack with copies of the best item
+    int rest = 0;
+    long bestValue = -1;
+    for (int r = 0; r <= computed; r++) {
+      final long value = table[r] + (long) ((capacity - r) / bestWeight) * instance.getValue(best);
+      if (value > bestValue) {
+        bestValue = value;
+        rest = r;
+      }
+    }
+
+    solution.set(best, (capacity - rest) / bestWeight);
+    for (int r = rest; r > 0;) {
+      if (choice[r] < 0) {
+        r--;
+      } else {
+        solution.set(choice[r], solution.get(choice[r]) + 1);
+        r -= instance.getWeight(choice[r]);
+      }
+    }
+    control.offer(solution, getName());
+    return control.result(computed == limit ? bestValue
+        : (long) capacity * instance.getValue(best) / bestWeight);
+  }
+
+  @Override
+  public String getName() {
+    return "Unbounded";
+  }
+}
@@ -0,0 +1,138 @@
+package de.uos.inf.ko.knapsack;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.reader.Reader;
+import de.uos.inf.ko.knapsack.solver.student.BranchAndBound;
+import de.uos.inf.ko.knapsack.solver.student.GreedyHeuristic;
+import de.uos.inf.ko.knapsack.solver.student.NemhauserUllmann;
+
+public class BenchmarkRunnerTest {
+  private static final String KNAPSACK_INSTANCES_PATH = "./src/test/resources/knapsack/";
+
+  private static Instance read(String filename) throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + filename);
+    instance.setFilename(filename);
+    return instance;
+  }
+
+  /**
+   * A solver that cannot be stopped and takes longer than any timeout of the tests.
+   */
+  private static class SleepingSolver implements SolverInterface<Solution> {
+    @Override
+    public Solution solve(Instance instance) {
+      try {
+        Thread.sleep(60000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new Solution(instance);
+    }
+
+    @Override
+    public String getName() {
+      return "Sleeping";
+    }
+  }
+
+  @Test
+  public void testGrid() throws IOException, InterruptedException {
+    final BenchmarkRunner runner = new BenchmarkRunner(2, 1, 5, 10000);
+    runner.addInstance(read("rucksack00040-1.txt"));
+    runner.addInstance(read("rucksack00100-1.txt"), 705);
+    runner.addSolver(GreedyHeuristic::new);
+    runner.addSolver(NemhauserUllmann::new, 40);
+
+    final List<BenchmarkRunner.Cell> cells = runner.run();
+    assertEquals(4, cells.size());
+    for (BenchmarkRunner.Cell cell : cells) {
+      if (cell.getStatus() == BenchmarkRunner.Status.SKIPPED) {
+        assertEquals("rucksack00100-1.txt", cell.getInstance().getFilename());
+        assertEquals(0, cell.getRuns());
+        continue;
+      }
+      assertEquals(BenchmarkRunner.Status.OK, cell.getStatus());
+      assertEquals(5, cell.getRuns());
+      assertTrue(cell.getMinNanos() > 0);
+      assertTrue(cell.getMinNanos() <= cell.getMedianNanos());
+      assertTrue(cell.getMedianNanos() <= cell.getP95Nanos());
+      assertTrue(cell.getGap() >= 0);
+    }
+
+    // the optimum of the first instance is found by Nemhauser-Ullmann, the second one is given
+    assertEquals(BenchmarkRunner.Status.OK, cells.get(2).getStatus());
+    assertEquals(375, cells.get(2).getValue(), 0);
+    assertEquals(0, cells.get(2).getGap(), 0);
+    assertEquals(375, cells.get(0).getBestKnown());
+    assertEquals(705, cells.get(1).getBestKnown());
+    assertEquals(BenchmarkRunner.Status.SKIPPED, cells.get(3).getStatus());
+    assertTrue(cells.get(2).getStats().getNodes() > 0);
+    assertEquals(0, cells.get(3).getStats().getNodes());
+
+    final StringWriter csv = new StringWriter();
+    BenchmarkRunner.writeCsv(cells, csv);
+    final String[] lines = csv.toString().split("\n");
+    assertEquals(5, lines.length);
+    assertTrue(lines[0].startsWith("solver,file,items,capacity,status"));
+    assertTrue(lines[3].contains(",rucksack00040-1.txt,40,"));
+    assertTrue(lines[3].contains(",OK,5,375,375,0,"));
+
+    final StringWriter json = new StringWriter();
+    BenchmarkRunner.writeJson(cells, json);
+    assertTrue(json.toString().trim().startsWith("["));
+    assertTrue(json.toString().contains("\"status\": \"SKIPPED\""));
+    assertTrue(json.toString().contains("\"value\": null"));
+  }
+
+  @Test
+  public void testTimeout() throws IOException, InterruptedException {
+    final BenchmarkRunner runner = new BenchmarkRunner(2, 0, 3, 200);
+    runner.addInstance(read("rucksack10000-1.txt"));
+    runner.addSolver(BranchAndBound::new);
+    runner.addSolver(SleepingSolver::new);
+
+    final long start = System.nanoTime();
+    final List<BenchmarkRunner.Cell> cells = runner.run();
+    assertTrue(System.nanoTime() - start < 10000000000L);
+
+    // the anytime solver is stopped with its best solution, the other one is abandoned
+    assertEquals(BenchmarkRunner.Status.TIMEOUT, cells.get(0).getStatus());
+    assertEquals(1, cells.get(0).getRuns());
+    assertTrue(cells.get(0).getValue() > 0);
+    assertEquals(BenchmarkRunner.Status.TIMEOUT, cells.get(1).getStatus());
+    assertEquals(0, cells.get(1).getRuns());
+  }
+
+  @Test
+  public void testFailure() throws IOException, InterruptedException {
+    final BenchmarkRunner runner = new BenchmarkRunner(1, 0, 2, 1000);
+    runner.addInstance(read("rucksack00010-1.txt"));
+    runner.addSolver(() -> new SolverInterface<Solution>() {
+      @Override
+      public Solution solve(Instance instance) {
+        throw new UnsupportedOperationException("not implemented");
+      }
+
+      @Override
+      public String getName() {
+        return "Failing, \"quoted\"";
+      }
+    });
+
+    final List<BenchmarkRunner.Cell> cells = runner.run();
+    assertEquals(BenchmarkRunner.Status.FAILED, cells.get(0).getStatus());
+    assertTrue(cells.get(0).getError().contains("not implemented"));
+
+    final StringWriter csv = new StringWriter();
+    BenchmarkRunner.writeCsv(cells, csv);
+    assertTrue(csv.toString().contains("\"Failing, \"\"quoted\"\"\""));
+    final StringWriter json = new StringWriter();
+    BenchmarkRunner.writeJson(cells, json);
+    assertTrue(json.toString().contains("\"solver\": \"Failing, \\\"quoted\\\"\""));
+  }
+}
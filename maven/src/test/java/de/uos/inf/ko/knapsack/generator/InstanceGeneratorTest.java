@@ -0,0 +1,112 @@
+package de.uos.inf.ko.knapsack.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.generator.InstanceGenerator.Type;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class InstanceGeneratorTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (Type type : Type.values()) {
+      final InstanceGenerator generator = new InstanceGenerator(type, 1000, 7);
+      final Path file = folder.getRoot().toPath().resolve(generator.getFilename());
+      generator.write(file);
+
+      final Instance written = Reader.readInstance(file.toString());
+      final Instance generated = generator.generate();
+      assertEquals(generated.getCapacity(), written.getCapacity());
+      assertArrayEquals(generated.getValueArray(), written.getValueArray());
+      assertArrayEquals(generated.getWeightArray(), written.getWeightArray());
+    }
+    assertEquals(Type.values().length, folder.getRoot().list().length);
+  }
+
+  @Test
+  public void testDeterminism() {
+    for (Type type : Type.values()) {
+      final Instance first = new InstanceGenerator(type, 100, 1).generate();
+      final Instance second = new InstanceGenerator(type, 100, 1).generate();
+      final Instance other = new InstanceGenerator(type, 100, 2).generate();
+      assertArrayEquals(first.getValueArray(), second.getValueArray());
+      assertArrayEquals(first.getWeightArray(), second.getWeightArray());
+      assertFalse(Arrays.equals(first.getWeightArray(), other.getWeightArray()));
+    }
+  }
+
+  @Test
+  public void testClasses() {
+    final int range = 1000;
+    for (Type type : Type.values()) {
+      final Instance instance = new InstanceGenerator(type, 10000, range, 0.3, 5).generate();
+      long total = 0;
+      for (int i = 0; i < instance.getSize(); i++) {
+        final int value = instance.getValue(i);
+        final int weight = instance.getWeight(i);
+        assertTrue(value >= 1 && weight >= 1);
+        total += weight;
+        switch (type) {
+          case UNCORRELATED:
+            assertTrue(value <= range && weight <= range);
+            break;
+          case WEAKLY_CORRELATED:
+            assertTrue(Math.abs(value - weight) <= range / 10);
+            break;
+          case STRONGLY_CORRELATED:
+            assertEquals(weight + range / 10, value);
+            break;
+          case INVERSE_STRONGLY_CORRELATED:
+            assertEquals(value + range / 10, weight);
+            break;
+          case ALMOST_STRONGLY_CORRELATED:
+            assertTrue(Math.abs(value - weight - range / 10) <= range / 500);
+            break;
+          case SUBSET_SUM:
+            assertEquals(weight, value);
+            break;
+          case SPANNER:
+            assertTrue(value > weight && weight <= 2 * range + 10);
+            break;
+          default:
+            fail();
+        }
+      }
+      assertEquals((long) (0.3 * total), instance.getCapacity());
+    }
+    assertTrue(new InstanceGenerator(Type.SUBSET_SUM, 10, 3).generate().isSubsetSum());
+  }
+
+  @Test
+  public void testCapacityOverflow() {
+    // rejected before any item is generated
+    try {
+      new InstanceGenerator(Type.SUBSET_SUM, 10000000, 1 << 20, 0.5, 1);
+      fail("The capacity does not fit into an int");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    // the spanner items weigh up to about twice the range
+    try {
+      new InstanceGenerator(Type.SPANNER, 10000000, 300, 0.5, 1);
+      fail("The capacity may not fit into an int");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    for (Type type : Type.values()) {
+      new InstanceGenerator(type, 10000000, 200, 0.5, 1);
+    }
+  }
+}
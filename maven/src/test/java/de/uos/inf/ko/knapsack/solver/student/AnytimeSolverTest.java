@@ -0,0 +1,91 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class AnytimeSolverTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+
+  private static List<AnytimeSolver> solvers() {
+    return Arrays.asList(new GreedyHeuristic(), new BranchAndBound(), new NemhauserUllmann(),
+        new ConstraintProgramming(), new LargeNeighbourhoodSearch(), new SimulatedAnnealing(),
+        new TabuSearch(), new SubsetSumSolver(), new ReducedSolver(new BranchAndBound()),
+        new SolverDispatcher(), new SolverPortfolio());
+  }
+
+  @Test
+  public void testExpiredDeadline() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack01000-1.txt");
+    final long optimum = new NemhauserUllmann().solve(instance).getValue();
+
+    for (AnytimeSolver solver : solvers()) {
+      final SolveResult result = solver.solve(instance, new SolveControl(0));
+      assertTrue(solver.getName(), result.getSolution().isFeasible());
+      assertTrue(solver.getName(), result.getValue() <= optimum);
+      assertTrue(solver.getName(), result.getUpperBound() >= optimum);
+      assertTrue(solver.getName(), result.getGap() >= 0 && result.getGap() <= 1);
+    }
+
+    // the enumeration only works for small instances
+    final Instance small = Reader.readInstance(PATH + "rucksack00030-1.txt");
+    final SolveResult result = new Enumeration().solve(small, new SolveControl(0));
+    assertTrue(result.getSolution().isFeasible());
+    assertTrue(result.getUpperBound() >= 307);
+  }
+
+  @Test
+  public void testExactSolversProveOptimality() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00100-1.txt");
+    final long optimum = new NemhauserUllmann().solve(instance).getValue();
+
+    final AnytimeSolver[] exact = {new BranchAndBound(), new NemhauserUllmann(),
+        new ConstraintProgramming(), new SubsetSumSolver(),
+        new ReducedSolver(new NemhauserUllmann()), new SolverDispatcher(), new SolverPortfolio()};
+    for (AnytimeSolver solver : exact) {
+      final SolveResult result = solver.solve(instance, new SolveControl());
+      assertEquals(solver.getName(), optimum, result.getValue());
+      assertTrue(solver.getName(), result.isOptimal());
+      assertEquals(solver.getName(), 0, result.getGap(), 0);
+    }
+  }
+
+  @Test
+  public void testListener() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack05000-1.txt");
+    final List<Long> values = new ArrayList<>();
+    final SolveControl control = new SolveControl();
+    control.setListener((solution, source) -> values.add((long) solution.getValue()));
+
+    final SolveResult result =
+        new BranchAndBound(Bounds.Type.MARTELLO_TOTH).solve(instance, control);
+    assertTrue(result.isOptimal());
+    assertEquals(result.getValue(), (long) values.get(values.size() - 1));
+    for (int i = 1; i < values.size(); i++) {
+      assertTrue(values.get(i) > values.get(i - 1));
+    }
+  }
+
+  @Test
+  public void testDeadline() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack10000-1.txt");
+    final long start = System.nanoTime();
+    final SolveResult result = new LargeNeighbourhoodSearch(60000, Integer.MAX_VALUE, 60, 10, 42)
+        .solve(instance, new SolveControl(100));
+    assertTrue((System.nanoTime() - start) / 1000000 < 5000);
+    assertTrue(result.getSolution().isFeasible());
+    assertTrue(result.getUpperBound() >= 7889997);
+  }
+}
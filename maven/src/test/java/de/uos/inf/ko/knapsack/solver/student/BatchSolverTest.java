@@ -0,0 +1,168 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class BatchSolverTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+  private static final String[] FILES = {"rucksack00010-1.txt", "rucksack00020-1.txt",
+      "rucksack00040-1.txt", "rucksack00050-1.txt", "rucksack00100-1.txt"};
+
+  private static final List<Instance> instances = new ArrayList<>();
+  private static final List<Long> optima = new ArrayList<>();
+
+  @BeforeClass
+  public static void readInstances() throws IOException {
+    for (String file : FILES) {
+      final Instance instance = Reader.readInstance(PATH + file);
+      instances.add(instance);
+      optima.add((long) new NemhauserUllmann().solve(instance).getValue());
+    }
+  }
+
+  private static Stream<Instance> stream(int count) {
+    return IntStream.range(0, count).mapToObj(i -> instances.get(i % instances.size()));
+  }
+
+  @Test
+  public void testCallback() {
+    final BatchSolver batch = new BatchSolver(new BranchAndBound(), 4, 4, 0);
+    final Set<Long> indices = new HashSet<>();
+    final long count = batch.solve(stream(200), result -> {
+      assertTrue(indices.add(result.getIndex()));
+      assertNull(result.getError());
+      final int file = (int) (result.getIndex() % instances.size());
+      assertEquals(instances.get(file), result.getInstance());
+      assertEquals((long) optima.get(file), result.getResult().getValue());
+      assertTrue(result.getResult().isOptimal());
+    });
+    assertEquals(200, count);
+    assertEquals(200, indices.size());
+  }
+
+  @Test
+  public void testBackPressure() {
+    final int threads = 3;
+    final int queueSize = 2;
+    final AtomicInteger produced = new AtomicInteger();
+    final AtomicInteger completed = new AtomicInteger();
+    final AtomicInteger maxPending = new AtomicInteger();
+
+    final Stream<Instance> lazy = stream(100).peek(instance -> {
+      final int pending = produced.incrementAndGet() - completed.get();
+      maxPending.accumulateAndGet(pending, Math::max);
+    });
+    new BatchSolver(new NemhauserUllmann(), threads, queueSize, 0).solve(lazy,
+        result -> completed.incrementAndGet());
+
+    assertEquals(100, completed.get());
+    assertTrue(maxPending.get() <= threads + queueSize);
+  }
+
+  @Test
+  public void testTimeLimit() throws IOException {
+    final Instance large = Reader.readInstance(PATH + "rucksack10000-1.txt");
+    final BatchSolver batch = new BatchSolver(
+        new LargeNeighbourhoodSearch(60000, Integer.MAX_VALUE, 60, 10, 42), 2, 0, 100);
+    final long start = System.nanoTime();
+    final long count = batch.solve(Stream.of(large, large, large), result -> {
+      assertTrue(result.getResult().getSolution().isFeasible());
+      assertTrue(result.getResult().getUpperBound() >= 7889997);
+    });
+    assertEquals(3, count);
+    assertTrue((System.nanoTime() - start) / 1000000 < 10000);
+  }
+
+  @Test
+  public void testSolverFailure() {
+    final AnytimeSolver failing = new AnytimeSolver() {
+      private final AnytimeSolver solver = new NemhauserUllmann();
+
+      @Override
+      public SolveResult solve(Instance instance, SolveControl control) {
+        if (instance.getSize() == 20) {
+          throw new IllegalArgumentException("unsupported");
+        }
+        return solver.solve(instance, control);
+      }
+
+      @Override
+      public String getName() {
+        return "Failing";
+      }
+    };
+
+    final AtomicInteger errors = new AtomicInteger();
+    final long count = new BatchSolver(failing, 2, 2, 0).solve(stream(10), result -> {
+      if (result.getInstance().getSize() == 20) {
+        assertNull(result.getResult());
+        assertNotNull(result.getError());
+        errors.incrementAndGet();
+      } else {
+        assertNotNull(result.getResult());
+      }
+    });
+    assertEquals(10, count);
+    assertEquals(2, errors.get());
+  }
+
+  @Test
+  public void testCancelled() {
+    final SolveControl control = new SolveControl();
+    control.cancel();
+    final long count = new BatchSolver(new NemhauserUllmann()).solve(stream(10).iterator(),
+        result -> {
+        }, control);
+    assertEquals(0, count);
+  }
+
+  @Test
+  public void testIterator() {
+    final Set<Long> indices = new HashSet<>();
+    try (BatchSolver.Results results = new BatchSolver(new NemhauserUllmann(), 2, 1, 0)
+        .solve(stream(50))) {
+      while (results.hasNext()) {
+        final BatchSolver.Result result = results.next();
+        assertTrue(indices.add(result.getIndex()));
+        final int file = (int) (result.getIndex() % instances.size());
+        assertEquals((long) optima.get(file), result.getResult().getValue());
+      }
+    }
+    assertEquals(50, indices.size());
+  }
+
+  @Test
+  public void testIteratorClosed() {
+    // an endless stream stops once the consumer closes the iterator
+    final Stream<Instance> endless = Stream.generate(() -> instances.get(0));
+    final BatchSolver.Results results =
+        new BatchSolver(new NemhauserUllmann(), 2, 2, 0).solve(endless);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(results.hasNext());
+      results.next();
+    }
+    results.close();
+    assertFalse(results.hasNext());
+  }
+}
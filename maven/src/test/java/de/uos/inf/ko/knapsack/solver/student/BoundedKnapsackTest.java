@@ -0,0 +1,59 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.BoundedInstance;
+import de.uos.inf.ko.knapsack.Solution;
+
+public class BoundedKnapsackTest extends ExtendedGenericExactSolverTest<Solution> {
+  public BoundedKnapsackTest() {
+    super(new BoundedKnapsack());
+  }
+
+  /**
+   * Optimal value of the items i, ..., n-1 for the given capacity by enumerating all quantities
+   */
+  private static long optimum(BoundedInstance instance, int i, int capacity) {
+    if (i == instance.getSize()) {
+      return 0;
+    }
+    long best = 0;
+    for (int q = 0; q <= instance.getBound(i) && q * instance.getWeight(i) <= capacity; q++) {
+      best = Math.max(best, q * instance.getValue(i)
+          + optimum(instance, i + 1, capacity - q * instance.getWeight(i)));
+    }
+    return best;
+  }
+
+  @Test
+  public void testBoundedInstances() {
+    final Random random = new Random(11);
+    for (int round = 0; round < 100; round++) {
+      final int n = 1 + random.nextInt(5);
+      final BoundedInstance instance = new BoundedInstance(n, random.nextInt(60));
+      for (int i = 0; i < n; i++) {
+        instance.set(i, random.nextInt(30), 1 + random.nextInt(15), random.nextInt(7));
+      }
+      final Solution solution = solver.solve(instance);
+      assertTrue(solution.isFeasible());
+      assertTrue(instance.isWithinBounds(solution));
+      assertEquals(optimum(instance, 0, instance.getCapacity()), solution.getValue().longValue());
+    }
+  }
+
+  @Test
+  public void testValueOverflow() {
+    // the binary item with 2 copies has the value 2^31
+    final BoundedInstance instance = new BoundedInstance(1, 4);
+    instance.set(0, 1 << 30, 1, 4);
+    try {
+      solver.solve(instance);
+      fail("The value of the binary item does not fit into an int");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+
+public class BoundsTest {
+
+  /**
+   * Optimal value of the items at the sorted positions depth, ..., n-1 for the given capacity
+   */
+  private static long optimum(Bounds bounds, int depth, long capacity) {
+    final int free = bounds.getSize() - depth;
+    long best = 0;
+    for (int mask = 0; mask < (1 << free); mask++) {
+      long weight = 0;
+      long value = 0;
+      for (int j = 0; j < free; j++) {
+        if ((mask & (1 << j)) != 0) {
+          weight += bounds.getWeight(depth + j);
+          value += bounds.getValue(depth + j);
+        }
+      }
+      if (weight <= capacity && value > best) {
+        best = value;
+      }
+    }
+    return best;
+  }
+
+  @Test
+  public void testBoundsAreValid() {
+    final Random random = new Random(42);
+    for (int round = 0; round < 200; round++) {
+      final int n = 1 + random.nextInt(12);
+      final Instance instance = new Instance(n, 1 + random.nextInt(100));
+      for (int i = 0; i < n; i++) {
+        final int weight = 1 + random.nextInt(40);
+        // alternate between uncorrelated and strongly correlated items
+        final int value = round % 2 == 0 ? 1 + random.nextInt(40) : weight + 10;
+        instance.set(i, value, weight);
+      }
+      final Bounds bounds = new Bounds(instance);
+
+      for (int depth = 0; depth <= n; depth++) {
+        final long capacity = random.nextInt(instance.getCapacity() + 1);
+        final long opt = optimum(bounds, depth, capacity);
+        final long u1 = bounds.dantzig(depth, capacity);
+        final long u2 = bounds.martelloToth(depth, capacity);
+
+        assertTrue(u1 >= opt);
+        assertTrue(u2 >= opt);
+        assertTrue(u2 <= u1);
+
+        // the surrogate bound must not cut off a solution reaching the target
+        for (long target = 0; target <= opt; target++) {
+          assertTrue(bounds.surrogate(depth, capacity, target) >= opt);
+        }
+      }
+    }
+  }
+}
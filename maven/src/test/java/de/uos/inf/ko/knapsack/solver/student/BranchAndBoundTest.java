@@ -1,9 +1,49 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
 import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class BranchAndBoundTest extends ExtendedGenericExactSolverTest<Solution> {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
 
-public class BranchAndBoundTest extends GenericExactSolverTest<Solution> {
   public BranchAndBoundTest() {
     super(new BranchAndBound());
   }
+
+  @Test
+  public void testCheckpoint() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack05000-1.txt");
+    final Path file = folder.getRoot().toPath().resolve("bb.ckpt");
+
+    // stop at the first check of the control, which writes a checkpoint
+    final SolveControl stopped = new SolveControl();
+    stopped.cancel();
+    final SolveResult first =
+        new BranchAndBound().solve(instance, stopped, new Checkpointer(file));
+    assertFalse(first.isOptimal());
+    assertTrue(Files.exists(file));
+
+    final SolveResult resumed =
+        new BranchAndBound().solve(instance, new SolveControl(), new Checkpointer(file));
+    assertTrue(resumed.isOptimal());
+    assertEquals(35066, resumed.getValue());
+    assertTrue(resumed.getSolution().isFeasible());
+    assertFalse(Files.exists(file));
+  }
 }
@@ -0,0 +1,51 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class CachingSolverTest extends ExtendedGenericExactSolverTest<Solution> {
+  public CachingSolverTest() {
+    super(new CachingSolver(new BranchAndBound(), true, new SolutionCache(1 << 20)));
+  }
+
+  @Test
+  public void testCachedOptimum() throws IOException {
+    final CachingSolver caching =
+        new CachingSolver(new NemhauserUllmann(), true, new SolutionCache(1 << 20));
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    assertEquals(375, caching.solve(instance).getValue().intValue());
+    assertEquals(1, caching.getCache().getMisses());
+
+    // even an expired deadline gets the optimum from the cache
+    final SolveResult result = caching.solve(instance, new SolveControl(0));
+    assertEquals(375, result.getValue());
+    assertTrue(result.isOptimal());
+    assertEquals(1, caching.getCache().getHits());
+  }
+
+  @Test
+  public void testHeuristicResult() throws IOException {
+    final SolutionCache cache = new SolutionCache(1 << 20);
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00100-1.txt");
+    new CachingSolver(new GreedyHeuristic(), false, cache).solve(instance);
+    assertFalse(cache.get(instance).isOptimal());
+
+    // the exact solver starts from the cached solution and upgrades the entry
+    final SolveResult result =
+        new CachingSolver(new BranchAndBound(), true, cache).solve(instance, new SolveControl());
+    assertTrue(result.isOptimal());
+    assertTrue(cache.get(instance).isOptimal());
+    assertEquals(result.getValue(), (long) cache.get(instance).getValue());
+  }
+}
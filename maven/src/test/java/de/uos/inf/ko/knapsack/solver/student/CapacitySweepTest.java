@@ -0,0 +1,56 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class CapacitySweepTest {
+
+  @Test
+  public void testAllCapacities() {
+    final Random random = new Random(3);
+    for (int round = 0; round < 50; round++) {
+      final int n = 1 + random.nextInt(20);
+      final Instance instance = new Instance(n, 1 + random.nextInt(200));
+      for (int i = 0; i < n; i++) {
+        instance.set(i, random.nextInt(50), 1 + random.nextInt(50));
+      }
+      final int maxCapacity = instance.getCapacity();
+      final CapacitySweep sweep = new CapacitySweep(instance);
+
+      final int[] capacities = new int[maxCapacity + 1];
+      for (int c = 0; c <= maxCapacity; c++) {
+        capacities[c] = c;
+      }
+      final Solution[] solutions = sweep.getSolutions(capacities);
+
+      for (int c = 0; c <= maxCapacity; c++) {
+        instance.setCapacity(c);
+        final long optimum = new NemhauserUllmann().solve(instance).getValue();
+        assertEquals(optimum, sweep.getValue(c));
+        assertEquals(optimum, solutions[c].getValue().longValue());
+        assertTrue(solutions[c].getWeight() <= c);
+      }
+    }
+  }
+
+  @Test
+  public void testRequestedCapacities() throws IOException {
+    final Instance instance =
+        Reader.readInstance(GenericSolverTest.KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final CapacitySweep sweep = new CapacitySweep(instance);
+    assertEquals(375, sweep.getValue(instance.getCapacity()));
+
+    final Solution solution = sweep.getSolution(instance.getCapacity());
+    assertTrue(solution.isFeasible());
+    assertEquals(375, solution.getValue().intValue());
+    // cached
+    assertSame(solution, sweep.getSolutions(0, instance.getCapacity())[1]);
+  }
+}
@@ -0,0 +1,83 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class CheckpointerTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    final Path file = folder.getRoot().toPath().resolve("run.ckpt");
+    final Checkpointer checkpointer = new Checkpointer(file, 0, Long.MAX_VALUE);
+    assertTrue(checkpointer.isDue());
+    assertNull(checkpointer.read("Test", instance, in -> in.readInt()));
+
+    final boolean[] bits = new boolean[21];
+    for (int k = 0; k < bits.length; k += 3) {
+      bits[k] = true;
+    }
+    checkpointer.write("Test", instance, out -> {
+      out.writeInt(42);
+      Checkpointer.writeBits(out, bits, bits.length);
+    });
+    assertTrue(Files.exists(file));
+    assertEquals(1, checkpointer.getCheckpoints());
+    assertTrue(checkpointer.getBytes() > 0);
+
+    final boolean[] read = new boolean[bits.length];
+    assertEquals(42, (int) checkpointer.read("Test", instance, in -> {
+      final int value = in.readInt();
+      Checkpointer.readBits(in, read, read.length);
+      return value;
+    }));
+    assertArrayEquals(bits, read);
+
+    // checkpoints of another solver or instance are ignored
+    assertNull(checkpointer.read("Other", instance, in -> in.readInt()));
+    final Instance other = Reader.readInstance(PATH + "rucksack00100-2.txt");
+    assertNull(new Checkpointer(file).read("Test", other, in -> in.readInt()));
+
+    checkpointer.delete();
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  public void testCadence() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    final Path file = folder.getRoot().toPath().resolve("run.ckpt");
+
+    final Checkpointer interval = new Checkpointer(file, 60000, Long.MAX_VALUE);
+    assertFalse(interval.isDue());
+
+    // 1000 bytes at 10 bytes per second delay the next checkpoint by 100 seconds
+    final Checkpointer bandwidth = new Checkpointer(file, 0, 10);
+    assertTrue(bandwidth.isDue());
+    bandwidth.write("Test", instance, out -> out.write(new byte[1000]));
+    assertFalse(bandwidth.isDue());
+
+    // the next checkpoint waits for a hundred times the time of writing the last one
+    final Checkpointer overhead = new Checkpointer(file, 0, Long.MAX_VALUE);
+    overhead.write("Test", instance, out -> out.writeInt(1));
+    assertFalse(overhead.isDue());
+    assertTrue(overhead.getNanos() > 0);
+  }
+}
@@ -0,0 +1,142 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.FractionalSolution;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+/**
+ * Runs a single instance of each solver from many threads at once and compares the results with
+ * the optima computed sequentially.
+ */
+public class ConcurrentSolverTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+  private static final String[] FILES = {"rucksack00010-1.txt", "rucksack00015-1.txt",
+      "rucksack00020-1.txt", "rucksack00020-2.txt", "rucksack00040-1.txt", "rucksack00050-1.txt",
+      "rucksack00100-1.txt"};
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 3;
+
+  private static final List<Instance> instances = new ArrayList<>();
+  private static final List<Long> optima = new ArrayList<>();
+
+  private interface Check {
+    void check(Instance instance, long optimum);
+  }
+
+  @BeforeClass
+  public static void readInstances() throws IOException {
+    for (String file : FILES) {
+      final Instance instance = Reader.readInstance(PATH + file);
+      instances.add(instance);
+      optima.add((long) new NemhauserUllmann().solve(instance).getValue());
+    }
+  }
+
+  @Test
+  public void testExactSolvers() throws Exception {
+    final List<SolverInterface<Solution>> solvers = Arrays.asList(new BranchAndBound(),
+        new NemhauserUllmann(), new ConstraintProgramming(), new SubsetSumSolver(),
+        new ReducedSolver(new BranchAndBound()), new SolverDispatcher(), new SolverPortfolio());
+    for (SolverInterface<Solution> solver : solvers) {
+      runConcurrently((instance, optimum) -> {
+        final Solution solution = solver.solve(instance);
+        assertTrue(solver.getName(), solution.isFeasible());
+        assertEquals(solver.getName(), optimum, (long) solution.getValue());
+      });
+    }
+  }
+
+  @Test
+  public void testEnumeration() throws Exception {
+    final Enumeration solver = new Enumeration();
+    runConcurrently((instance, optimum) -> {
+      if (instance.getSize() <= 15) {
+        assertEquals(optimum, (long) solver.solve(instance).getValue());
+      }
+    });
+  }
+
+  @Test
+  public void testFractionalSolver() throws Exception {
+    final FractionalSolver solver = new FractionalSolver();
+    final FractionalSolver sequential = new FractionalSolver();
+    runConcurrently((instance, optimum) -> {
+      final FractionalSolution solution = solver.solve(instance);
+      assertTrue(solution.getValue() >= optimum);
+      assertEquals(sequential.solve(instance).getValue(), solution.getValue(), 1e-9);
+    });
+  }
+
+  @Test
+  public void testHeuristics() throws Exception {
+    final List<SolverInterface<Solution>> solvers = Arrays.asList(new GreedyHeuristic(),
+        new LargeNeighbourhoodSearch(50, 100, 20, 10, 42), new SimulatedAnnealing(),
+        new TabuSearch());
+    for (SolverInterface<Solution> solver : solvers) {
+      runConcurrently((instance, optimum) -> {
+        // the tabu search takes quadratic time per iteration
+        if (instance.getSize() <= 50) {
+          final Solution solution = solver.solve(instance);
+          assertTrue(solver.getName(), solution.isFeasible());
+          assertTrue(solver.getName(), solution.getValue() <= optimum);
+        }
+      });
+    }
+  }
+
+  /**
+   * Starts all threads at the same time; every thread runs the check on all instances, starting
+   * at a different one, for several rounds. Rethrows the first failure.
+   */
+  private static void runConcurrently(Check check) throws Exception {
+    final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        final int offset = t;
+        futures.add(pool.submit(() -> {
+          start.await();
+          for (int round = 0; round < ROUNDS; round++) {
+            for (int k = 0; k < instances.size(); k++) {
+              final int i = (k + offset) % instances.size();
+              check.check(instances.get(i), optima.get(i));
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+          throw (Exception) e.getCause();
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
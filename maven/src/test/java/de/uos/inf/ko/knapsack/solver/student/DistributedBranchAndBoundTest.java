@@ -0,0 +1,157 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class DistributedBranchAndBoundTest extends ExtendedGenericExactSolverTest<Solution> {
+  private final List<DistributedBranchAndBound> coordinators = new ArrayList<>();
+
+  public DistributedBranchAndBoundTest() throws IOException {
+    super(startWorkers(new DistributedBranchAndBound(0, 16), 2));
+    coordinators.add((DistributedBranchAndBound) solver);
+  }
+
+  /**
+   * Connects workers running as threads of this process.
+   */
+  private static DistributedBranchAndBound startWorkers(DistributedBranchAndBound coordinator,
+      int workers) {
+    for (int i = 0; i < workers; i++) {
+      final Thread thread =
+          new Thread(new BranchAndBoundWorker("127.0.0.1", coordinator.getPort()), "worker");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    return coordinator;
+  }
+
+  @After
+  public void close() {
+    for (DistributedBranchAndBound coordinator : coordinators) {
+      coordinator.close();
+    }
+  }
+
+  @Test
+  public void testWorkerProcesses() throws Exception {
+    final DistributedBranchAndBound coordinator = new DistributedBranchAndBound();
+    coordinators.add(coordinator);
+    final List<Process> processes = new ArrayList<>();
+    try {
+      for (int i = 0; i < 3; i++) {
+        processes.add(BranchAndBoundWorker.start(coordinator.getPort()));
+      }
+      assertTrue(coordinator.awaitWorkers(3, 30000));
+
+      final Instance instance =
+          Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack05000-1.txt");
+      final SolveResult result = coordinator.solve(instance, new SolveControl());
+      assertTrue(result.isOptimal());
+      assertEquals(35066, result.getValue());
+      assertTrue(result.getSolution().isFeasible());
+
+      // the workers stay connected for the next instance
+      final Instance next = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack01000-1.txt");
+      assertEquals(1199, coordinator.solve(next, new SolveControl()).getValue());
+    } finally {
+      for (Process process : processes) {
+        process.destroy();
+      }
+    }
+  }
+
+  @Test
+  public void testRebalance() throws Exception {
+    // a single subproblem, so the idle workers only get work given back by the busy one
+    final DistributedBranchAndBound coordinator =
+        startWorkers(new DistributedBranchAndBound(0, 1), 3);
+    coordinators.add(coordinator);
+    assertTrue(coordinator.awaitWorkers(3, 10000));
+
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack05000-1.txt");
+    final SolveResult result = coordinator.solve(instance, new SolveControl());
+    assertTrue(result.isOptimal());
+    assertEquals(35066, result.getValue());
+    assertTrue(coordinator.getDonations() > 0);
+  }
+
+  @Test
+  public void testTimeLimit() throws Exception {
+    final DistributedBranchAndBound coordinator = (DistributedBranchAndBound) solver;
+    assertTrue(coordinator.awaitWorkers(2, 10000));
+
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack10000-1.txt");
+    final SolveResult result = coordinator.solve(instance, new SolveControl(200));
+    assertFalse(result.isOptimal());
+    assertTrue(result.getSolution().isFeasible());
+    assertTrue(result.getUpperBound() >= 7889997);
+  }
+
+  /**
+   * Waits until at most the given number of workers are connected.
+   */
+  private static boolean awaitAtMost(DistributedBranchAndBound coordinator, int count)
+      throws InterruptedException {
+    for (int i = 0; i < 1000 && coordinator.getWorkers() > count; i++) {
+      Thread.sleep(10);
+    }
+    return coordinator.getWorkers() <= count;
+  }
+
+  @Test(timeout = 60000)
+  public void testWorkerThatDoesNotRead() throws Exception {
+    // a backlog of at most 1 MB
+    final DistributedBranchAndBound coordinator =
+        new DistributedBranchAndBound(0, 16, 1 << 20, 30000);
+    coordinators.add(coordinator);
+    try (Socket socket = new Socket("127.0.0.1", coordinator.getPort())) {
+      assertTrue(coordinator.awaitWorkers(1, 10000));
+
+      // every solve sends the whole instance, until the socket buffers and the backlog are full
+      final Instance instance =
+          Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack10000-1.txt");
+      for (int i = 0; i < 100; i++) {
+        assertTrue(coordinator.solve(instance, new SolveControl(10)).getSolution().isFeasible());
+      }
+      assertTrue(awaitAtMost(coordinator, 0));
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testStalledWorker() throws Exception {
+    final DistributedBranchAndBound coordinator =
+        new DistributedBranchAndBound(0, 16, 64L << 20, 500);
+    coordinators.add(coordinator);
+    try (Socket socket = new Socket("127.0.0.1", coordinator.getPort())) {
+      // the stalled worker connects first, so it is given the first subproblem
+      assertTrue(coordinator.awaitWorkers(1, 10000));
+      startWorkers(coordinator, 1);
+      assertTrue(coordinator.awaitWorkers(2, 10000));
+
+      // without a deadline, the solve only ends once the subproblem of the stalled worker is
+      // given to the live one
+      final Instance instance =
+          Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack05000-1.txt");
+      final SolveResult result = coordinator.solve(instance, new SolveControl());
+      assertTrue(result.isOptimal());
+      assertEquals(35066, result.getValue());
+      assertTrue(coordinator.getReassignments() > 0);
+      assertEquals(1, coordinator.getWorkers());
+    }
+  }
+}
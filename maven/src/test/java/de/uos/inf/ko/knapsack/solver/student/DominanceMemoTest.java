@@ -0,0 +1,54 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class DominanceMemoTest {
+
+  @Test
+  public void testDominance() {
+    final DominanceMemo memo = new DominanceMemo(64);
+    assertFalse(memo.dominated(3, 10, 20));
+    assertTrue(memo.dominated(3, 10, 20));
+    assertTrue(memo.dominated(3, 10, 15));
+    assertFalse(memo.dominated(3, 10, 25));
+    assertTrue(memo.dominated(3, 10, 25));
+
+    // different depth or weight
+    assertFalse(memo.dominated(4, 10, 5));
+    assertFalse(memo.dominated(3, 11, 5));
+    assertEquals(0, memo.getEvictions());
+  }
+
+  @Test
+  public void testEviction() {
+    final DominanceMemo memo = new DominanceMemo(8);
+    for (int weight = 0; weight < 100; weight++) {
+      assertFalse(memo.dominated(0, weight, 1));
+    }
+    assertEquals(92, memo.getEvictions());
+
+    // the most recent entries are kept
+    assertTrue(memo.dominated(0, 99, 1));
+  }
+
+  @Test
+  public void testClear() {
+    final DominanceMemo memo = new DominanceMemo(8);
+    for (int weight = 0; weight < 20; weight++) {
+      memo.dominated(0, weight, 1);
+    }
+    memo.clear();
+    assertEquals(0, memo.getEvictions());
+
+    // the table is empty again
+    assertFalse(memo.dominated(0, 19, 1));
+    for (int weight = 0; weight < 7; weight++) {
+      assertFalse(memo.dominated(1, weight, 1));
+    }
+    assertEquals(0, memo.getEvictions());
+    assertTrue(memo.dominated(0, 19, 1));
+  }
+}
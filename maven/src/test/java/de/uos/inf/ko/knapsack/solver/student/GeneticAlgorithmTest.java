@@ -1,10 +1,65 @@
 package de.uos.inf.ko.knapsack.solver.student;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
 import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
 
 public class GeneticAlgorithmTest extends GenericSolverTest<Solution> {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
 
   public GeneticAlgorithmTest() {
     super(new GeneticAlgorithm());
   }
+
+  @Test
+  public void testQuality() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final SolveResult result = new GeneticAlgorithm().solve(instance, new SolveControl());
+    assertTrue(result.getSolution().isFeasible());
+    assertTrue(result.getValue() >= 0.98 * 375);
+    assertTrue(result.getUpperBound() >= 375);
+  }
+
+  @Test
+  public void testCheckpoint() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack10000-1.txt");
+    final Path file = folder.getRoot().toPath().resolve("ga.ckpt");
+    final long expected =
+        new GeneticAlgorithm(20, 1000, 7).solve(instance, new SolveControl()).getValue();
+
+    // stop after a few improvements, which writes a checkpoint
+    final AtomicInteger improvements = new AtomicInteger();
+    final SolveControl stopped = new SolveControl();
+    stopped.setListener((solution, source) -> {
+      if (improvements.incrementAndGet() == 5) {
+        stopped.cancel();
+      }
+    });
+    new GeneticAlgorithm(20, 1000, 7).solve(instance, stopped, new Checkpointer(file));
+    assertTrue(stopped.getValue() < expected);
+    assertTrue(Files.exists(file));
+
+    // the population and the generator are restored, so the run ends as the uninterrupted one
+    final SolveResult resumed = new GeneticAlgorithm(20, 1000, 7).solve(instance,
+        new SolveControl(), new Checkpointer(file));
+    assertEquals(expected, resumed.getValue());
+    assertTrue(resumed.getSolution().isFeasible());
+    assertFalse(Files.exists(file));
+  }
 }
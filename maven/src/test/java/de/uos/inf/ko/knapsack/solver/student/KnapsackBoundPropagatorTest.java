@@ -0,0 +1,88 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.junit.Test;
+
+public class KnapsackBoundPropagatorTest {
+  // sorted by ratio: (10, 5), (9, 5), (8, 5), (1, 10); the optimum packs the first two items
+  private static final int[] VALUES = {10, 9, 8, 1};
+  private static final int[] WEIGHTS = {5, 5, 5, 10};
+  private static final int CAPACITY = 10;
+
+  private final Model model = new Model();
+  private final IntVar[] items = model.intVarArray("item", VALUES.length, 0, 1);
+  private IntVar value;
+
+  /**
+   * Posts the propagator alone, with the objective variable raised above the incumbent as Choco
+   * does once a solution has been found.
+   */
+  private void post(int incumbent) {
+    value = model.intVar("value", incumbent + 1, 100);
+    new Constraint("KnapsackBound",
+        new KnapsackBoundPropagator(items, value, VALUES, WEIGHTS, CAPACITY)).post();
+  }
+
+  @Test
+  public void testReducedCostFixing() throws ContradictionException {
+    post(4);
+    model.getSolver().propagate();
+
+    // the critical item has a ratio of 1.6, so the Dantzig bound is 10 + 9 + 1.6 * 0 = 19 and the
+    // reduced costs are 2, 1, 0 and 1 - 16 = -15
+    assertEquals(19, value.getUB());
+    // packing the last item leaves at most 19 - 15 = 4, which does not beat the incumbent
+    assertTrue(items[3].isInstantiatedTo(0));
+    for (int i = 0; i < 3; i++) {
+      assertFalse(items[i].isInstantiated());
+    }
+  }
+
+  @Test
+  public void testNoFixingWithoutIncumbent() throws ContradictionException {
+    post(3);
+    model.getSolver().propagate();
+
+    assertEquals(19, value.getUB());
+    for (IntVar item : items) {
+      assertFalse(item.isInstantiated());
+    }
+  }
+
+  @Test
+  public void testBoundFailsBranch() {
+    post(17);
+    // without the first item the Dantzig bound is 9 + 8 + 0.1 * 0 = 17, no better than the
+    // incumbent
+    try {
+      items[0].instantiateTo(0, Cause.Null);
+      model.getSolver().propagate();
+      fail("A branch whose bound does not beat the incumbent must fail");
+    } catch (ContradictionException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testBoundKeepsBranch() throws ContradictionException {
+    post(17);
+    items[0].instantiateTo(1, Cause.Null);
+    model.getSolver().propagate();
+
+    // with the first item the bound of 19 still beats the incumbent; the first item is seen by the
+    // initial propagation and by its event, but counted once, so only the last item is fixed
+    assertEquals(19, value.getUB());
+    assertTrue(items[3].isInstantiatedTo(0));
+    assertFalse(items[1].isInstantiated());
+    assertFalse(items[2].isInstantiated());
+  }
+}
@@ -0,0 +1,50 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class LargeNeighbourhoodSearchTest extends GenericSolverTest<Solution> {
+
+  public LargeNeighbourhoodSearchTest() {
+    super(new LargeNeighbourhoodSearch(1000, 200, 20, 10, 42));
+  }
+
+  @Test
+  public void testBetweenGreedyAndOptimum() throws IOException {
+    for (String name : new String[] {"rucksack00100-1.txt", "rucksack01000-1.txt"}) {
+      final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + name);
+      final Solution solution = solver.solve(instance);
+      assertTrue(solution.isFeasible());
+      assertTrue(solution.getValue() >= new GreedyHeuristic().solve(instance).getValue());
+      assertTrue(solution.getValue() <= new NemhauserUllmann().solve(instance).getValue());
+    }
+  }
+
+  @Test
+  public void testSingleItem() {
+    // without a time slice every repair counts as too slow
+    final Instance instance = new Instance(1, 10);
+    instance.set(0, 5, 7);
+    for (long seed = 0; seed < 10; seed++) {
+      final Solution solution = new LargeNeighbourhoodSearch(1000, 20, 60, 0, seed).solve(instance);
+      assertEquals(5, solution.getValue().intValue());
+    }
+  }
+
+  @Test
+  public void testDeadlineStopsRepair() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack10000-1.txt");
+    // subproblems of all items with a time slice far beyond the deadline
+    final LargeNeighbourhoodSearch lns =
+        new LargeNeighbourhoodSearch(100, Integer.MAX_VALUE, 10000, 100000, 42);
+    final long start = System.nanoTime();
+    assertTrue(lns.solve(instance, new SolveControl()).getSolution().isFeasible());
+    assertTrue((System.nanoTime() - start) / 1000000 < 1000);
+  }
+}
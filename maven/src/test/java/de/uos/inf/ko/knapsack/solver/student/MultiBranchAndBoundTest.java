@@ -0,0 +1,69 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.multi.MultiInstance;
+import de.uos.inf.ko.knapsack.multi.MultiSolution;
+
+public class MultiBranchAndBoundTest {
+
+  static MultiInstance randomInstance(Random random, int n, int m) {
+    final MultiInstance instance = new MultiInstance(n, m);
+    for (int i = 0; i < n; i++) {
+      final int[] weights = new int[m];
+      int sum = 0;
+      for (int d = 0; d < m; d++) {
+        weights[d] = random.nextInt(30);
+        sum += weights[d];
+      }
+      instance.set(i, sum / m + random.nextInt(20), weights);
+    }
+    for (int d = 0; d < m; d++) {
+      instance.setCapacity(d, random.nextInt(15 * n));
+    }
+    return instance;
+  }
+
+  static long optimum(MultiInstance instance) {
+    final int n = instance.getSize();
+    long best = 0;
+    final boolean[] packed = new boolean[n];
+    for (int mask = 0; mask < (1 << n); mask++) {
+      long value = 0;
+      for (int i = 0; i < n; i++) {
+        packed[i] = (mask & (1 << i)) != 0;
+        if (packed[i]) {
+          value += instance.getValue(i);
+        }
+      }
+      if (value > best && instance.isFeasible(packed)) {
+        best = value;
+      }
+    }
+    return best;
+  }
+
+  @Test
+  public void testOptimality() {
+    final Random random = new Random(23);
+    for (int round = 0; round < 100; round++) {
+      final MultiInstance instance =
+          randomInstance(random, 1 + random.nextInt(12), 1 + random.nextInt(4));
+      final MultiSolution solution = new MultiBranchAndBound().solve(instance);
+      assertTrue(solution.isFeasible());
+      assertEquals(optimum(instance), solution.getValue());
+    }
+  }
+
+  @Test
+  public void testNodeLimit() {
+    final MultiInstance instance = randomInstance(new Random(1), 60, 5);
+    final MultiBranchAndBound solver = new MultiBranchAndBound(1000);
+    final MultiSolution solution = solver.solve(instance);
+    assertTrue(solution.isFeasible());
+    assertTrue(solver.getNodes() <= 1000);
+    assertTrue(solution.getValue() >= new MultiSurrogateGreedy().solve(instance).getValue());
+  }
+}
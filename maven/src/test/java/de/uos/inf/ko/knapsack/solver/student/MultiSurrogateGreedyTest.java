@@ -0,0 +1,38 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.multi.MultiInstance;
+import de.uos.inf.ko.knapsack.multi.MultiSolution;
+
+public class MultiSurrogateGreedyTest {
+
+  @Test
+  public void testFeasibility() {
+    final Random random = new Random(29);
+    for (int round = 0; round < 100; round++) {
+      final MultiInstance instance =
+          MultiBranchAndBoundTest.randomInstance(random, 1 + random.nextInt(12),
+              1 + random.nextInt(4));
+      final MultiSolution solution = new MultiSurrogateGreedy().solve(instance);
+      assertTrue(solution.isFeasible());
+      assertTrue(solution.getValue() <= MultiBranchAndBoundTest.optimum(instance));
+
+      // the incremental slack matches the packing
+      final boolean[] packed = new boolean[instance.getSize()];
+      for (int d = 0; d < instance.getDimensions(); d++) {
+        long weight = 0;
+        for (int i = 0; i < instance.getSize(); i++) {
+          packed[i] = solution.isPacked(i);
+          if (packed[i]) {
+            weight += instance.getWeight(i, d);
+          }
+        }
+        assertEquals(instance.getCapacity(d) - weight, solution.getSlack(d));
+      }
+      assertTrue(instance.isFeasible(packed));
+    }
+  }
+}
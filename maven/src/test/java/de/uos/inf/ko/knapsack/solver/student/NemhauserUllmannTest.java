@@ -0,0 +1,9 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import de.uos.inf.ko.knapsack.Solution;
+
+public class NemhauserUllmannTest extends ExtendedGenericExactSolverTest<Solution> {
+  public NemhauserUllmannTest() {
+    super(new NemhauserUllmann());
+  }
+}
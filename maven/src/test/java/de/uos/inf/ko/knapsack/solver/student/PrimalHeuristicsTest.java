@@ -0,0 +1,127 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class PrimalHeuristicsTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+
+  /**
+   * Heuristics that never improve and count their runs, so the search tree does not depend on the
+   * frequency.
+   */
+  private static class CountingHeuristics extends PrimalHeuristics {
+    private long runs = 0;
+
+    CountingHeuristics(int frequency) {
+      super(frequency, 0, 0, 0);
+    }
+
+    @Override
+    public long improve(Bounds bounds, long capacity, boolean[] x, int depth, long incumbent,
+        boolean[] result) {
+      runs++;
+      return -1;
+    }
+  }
+
+  private static Bounds bounds(int capacity, int... items) {
+    final Instance instance = new Instance(items.length / 2, capacity);
+    for (int i = 0; i < items.length / 2; i++) {
+      instance.set(i, items[2 * i], items[2 * i + 1]);
+    }
+    return new Bounds(instance);
+  }
+
+  @Test
+  public void testGreedyCompletion() {
+    // sorted: (12, 6), (9, 5), (9, 5); greedy packs the first item only, the optimum is 18
+    final Bounds bounds = bounds(10, 9, 5, 12, 6, 9, 5);
+    final PrimalHeuristics heuristics = new PrimalHeuristics(1, 0, 0, 0);
+    final boolean[] result = new boolean[3];
+
+    assertEquals(12, heuristics.improve(bounds, 10, new boolean[3], 0, -1, result));
+    assertArrayEquals(new boolean[] {true, false, false}, result);
+
+    // the decisions of the node are kept and only the free items are completed
+    assertEquals(18, heuristics.improve(bounds, 10, new boolean[] {false}, 1, -1, result));
+    assertArrayEquals(new boolean[] {false, true, true}, result);
+
+    // no improvement of the incumbent
+    assertEquals(-1, heuristics.improve(bounds, 10, new boolean[3], 0, 12, result));
+  }
+
+  @Test
+  public void testCoreBudget() {
+    final Bounds bounds = bounds(10, 9, 5, 12, 6, 9, 5);
+    final boolean[] result = new boolean[3];
+
+    // 3 items times 11 capacities fit into the budget, so the core covers all items
+    assertEquals(18, new PrimalHeuristics(1, 0, 40, 33).improve(bounds, 10, new boolean[3], 0, -1,
+        result));
+    assertArrayEquals(new boolean[] {false, true, true}, result);
+
+    // one cell less shrinks the core to the first two items
+    assertEquals(12, new PrimalHeuristics(1, 0, 40, 32).improve(bounds, 10, new boolean[3], 0, -1,
+        result));
+    // a core of a single item is skipped
+    assertEquals(12, new PrimalHeuristics(1, 0, 1, 1 << 20).improve(bounds, 10, new boolean[3], 0,
+        -1, result));
+    assertEquals(18, new PrimalHeuristics(1, 0, 3, 1 << 20).improve(bounds, 10, new boolean[3], 0,
+        -1, result));
+  }
+
+  @Test
+  public void testMoveBudget() {
+    // sorted: (10, 5), (6, 4), (7, 5); greedy packs the first two, exchanging (6, 4) for (7, 5)
+    // is the first move evaluated
+    final Bounds bounds = bounds(10, 6, 4, 10, 5, 7, 5);
+    final boolean[] result = new boolean[3];
+
+    assertEquals(16, new PrimalHeuristics(1, 0, 0, 0).improve(bounds, 10, new boolean[3], 0, -1,
+        result));
+    assertEquals(17, new PrimalHeuristics(1, 1, 0, 0).improve(bounds, 10, new boolean[3], 0, -1,
+        result));
+    assertArrayEquals(new boolean[] {true, false, true}, result);
+  }
+
+  @Test
+  public void testFrequencyCountsPromisingNodes() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00100-1.txt");
+    final CountingHeuristics every = new CountingHeuristics(1);
+    new BranchAndBound(Bounds.Type.MARTELLO_TOTH, Bounds.Type.MARTELLO_TOTH, 0, every)
+        .solve(instance, new SolveControl());
+    final SolveStats stats = SolveStats.last();
+    final long promising = stats.getBoundEvaluations() - stats.getPrunes(SolveStats.Prune.BOUND);
+    assertEquals(promising, every.runs);
+    assertTrue(promising > 7);
+
+    final CountingHeuristics seventh = new CountingHeuristics(7);
+    new BranchAndBound(Bounds.Type.MARTELLO_TOTH, Bounds.Type.MARTELLO_TOTH, 0, seventh)
+        .solve(instance, new SolveControl());
+    assertEquals((promising + 6) / 7, seventh.runs);
+  }
+
+  @Test
+  public void testInvalidFrequency() {
+    for (int frequency : new int[] {0, -1}) {
+      try {
+        new PrimalHeuristics(frequency, 0, 0, 0);
+        fail("A frequency of " + frequency + " must be rejected");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+}
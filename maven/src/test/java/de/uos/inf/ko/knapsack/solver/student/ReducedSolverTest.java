@@ -0,0 +1,10 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import de.uos.inf.ko.knapsack.Solution;
+
+public class ReducedSolverTest extends ExtendedGenericExactSolverTest<Solution> {
+
+  public ReducedSolverTest() {
+    super(new ReducedSolver(new ConstraintProgramming()));
+  }
+}
@@ -0,0 +1,177 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class SolutionCacheTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testFingerprint() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    final Instance copy = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    copy.setFilename("another name");
+    assertEquals(SolutionCache.fingerprint(instance), SolutionCache.fingerprint(copy));
+
+    copy.setCapacity(copy.getCapacity() + 1);
+    assertNotEquals(SolutionCache.fingerprint(instance), SolutionCache.fingerprint(copy));
+    copy.setCapacity(instance.getCapacity());
+    copy.setWeight(3, copy.getWeight(3) + 1);
+    assertNotEquals(SolutionCache.fingerprint(instance), SolutionCache.fingerprint(copy));
+  }
+
+  @Test
+  public void testHitAndMiss() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    final SolutionCache cache = new SolutionCache(1 << 20);
+    assertNull(cache.get(instance));
+
+    final Solution optimum = new NemhauserUllmann().solve(instance);
+    assertTrue(cache.put(instance, optimum, true, "NU"));
+    final SolutionCache.CachedSolution cached =
+        cache.get(Reader.readInstance(PATH + "rucksack00040-1.txt"));
+    assertEquals(375, cached.getValue().intValue());
+    assertTrue(cached.isFeasible());
+    assertTrue(cached.isOptimal());
+    assertEquals("NU", cached.getSource());
+
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(0.5, cache.getHitRate(), 1e-9);
+  }
+
+  @Test
+  public void testOptimumIsKept() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    final SolutionCache cache = new SolutionCache(1 << 20);
+    // the empty packing is worse than the optimum
+    final Solution empty = new Solution(instance);
+    final Solution optimum = new NemhauserUllmann().solve(instance);
+
+    assertTrue(cache.put(instance, empty, false, "Empty"));
+    assertFalse(cache.put(instance, empty, false, "Empty"));
+    assertTrue(cache.put(instance, optimum, false, "LNS"));
+    // a proof upgrades a heuristic solution of the same value
+    assertTrue(cache.put(instance, optimum, true, "NU"));
+    assertFalse(cache.put(instance, empty, false, "Empty"));
+    assertFalse(cache.put(instance, optimum, false, "LNS"));
+
+    final SolutionCache.CachedSolution cached = cache.get(instance);
+    assertTrue(cached.isOptimal());
+    assertEquals("NU", cached.getSource());
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    final SolutionCache probe = new SolutionCache(Long.MAX_VALUE);
+    final String[] files = {"rucksack00010-1.txt", "rucksack00015-1.txt", "rucksack00020-1.txt",
+        "rucksack00030-1.txt", "rucksack00040-1.txt"};
+    final Instance[] instances = new Instance[files.length];
+    for (int i = 0; i < files.length; i++) {
+      instances[i] = Reader.readInstance(PATH + files[i]);
+      probe.put(instances[i], new GreedyHeuristic().solve(instances[i]), false, "G");
+    }
+
+    // room for all but about one entry
+    final SolutionCache cache = new SolutionCache(probe.getBytes() - 1);
+    for (Instance instance : instances) {
+      cache.put(instance, new GreedyHeuristic().solve(instance), false, "G");
+      if (instance == instances[1]) {
+        // the first entry becomes the most recently used one
+        assertTrue(cache.get(instances[0]) != null);
+      }
+    }
+    assertEquals(1, cache.getEvictions());
+    assertTrue(cache.getBytes() < probe.getBytes());
+    assertTrue(cache.get(instances[0]) != null);
+    assertNull(cache.get(instances[1]));
+  }
+
+  @Test
+  public void testDiskTier() throws IOException {
+    final Path directory = folder.getRoot().toPath().resolve("cache");
+    final Instance instance = Reader.readInstance(PATH + "rucksack00100-1.txt");
+    final Solution optimum = new NemhauserUllmann().solve(instance);
+    new SolutionCache(1 << 20, directory).put(instance, optimum, true, "NU");
+
+    // a new cache, e.g. of a later job, finds the entry on disk and keeps it in memory
+    final SolutionCache cache = new SolutionCache(1 << 20, directory);
+    assertEquals(optimum.getValue(), cache.get(instance).getValue());
+    assertEquals(1, cache.getDiskHits());
+    assertTrue(cache.get(instance).isOptimal());
+    assertEquals(1, cache.getHits());
+
+    // a damaged file counts as a miss
+    final Path file = directory.resolve(SolutionCache.fingerprint(instance) + ".sol");
+    Files.write(file, new byte[] {1, 2, 3});
+    assertNull(new SolutionCache(1 << 20, directory).get(instance));
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    final Path directory = folder.getRoot().toPath().resolve("cache");
+    final String[] files = {"rucksack00020-1.txt", "rucksack00030-1.txt", "rucksack00040-1.txt"};
+    final Instance[] instances = new Instance[files.length];
+    final Solution[] optima = new Solution[files.length];
+    for (int i = 0; i < files.length; i++) {
+      instances[i] = Reader.readInstance(PATH + files[i]);
+      optima[i] = new NemhauserUllmann().solve(instances[i]);
+    }
+
+    // the threads store worse solutions, lookups and the optima of the same instances at once
+    final SolutionCache cache = new SolutionCache(1 << 20, directory);
+    final List<Thread> threads = new ArrayList<>();
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    for (int t = 0; t < 4; t++) {
+      final Thread thread = new Thread(() -> {
+        try {
+          for (int i = 0; i < instances.length; i++) {
+            cache.put(instances[i], new Solution(instances[i]), false, "Empty");
+            cache.get(instances[i]);
+            cache.put(instances[i], optima[i], true, "NU");
+            cache.put(instances[i], new GreedyHeuristic().solve(instances[i]), false, "G");
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(errors.toString(), errors.isEmpty());
+    assertEquals(4 * instances.length, cache.getHits() + cache.getDiskHits() + cache.getMisses());
+
+    // the optima are kept in memory and on disk
+    final SolutionCache reopened = new SolutionCache(1 << 20, directory);
+    for (int i = 0; i < instances.length; i++) {
+      assertTrue(cache.get(instances[i]).isOptimal());
+      final SolutionCache.CachedSolution cached = reopened.get(instances[i]);
+      assertTrue(cached.isOptimal());
+      assertEquals(optima[i].getValue(), cached.getValue());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.AnytimeSolver;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class SolveStatsTest {
+  private static final String PATH = GenericSolverTest.KNAPSACK_INSTANCES_PATH;
+
+  @Test
+  public void testBranchAndBound() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00100-1.txt");
+    final SolveResult result = new BranchAndBound().solve(instance, new SolveControl());
+    final SolveStats stats = result.getStats();
+
+    assertTrue(result.isOptimal());
+    assertTrue(stats.getNodes() > 0);
+    assertTrue(stats.getBoundEvaluations() > 0);
+    assertTrue(stats.getPrunes(SolveStats.Prune.BOUND) > 0);
+    assertTrue(stats.getPrunes() <= stats.getNodes());
+    assertTrue(stats.getTimeToBest() >= 0 && stats.getTimeToBest() <= stats.getNanos());
+    assertEquals(0, stats.getMovesEvaluated());
+  }
+
+  @Test
+  public void testEnumeration() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00010-1.txt");
+    final SolveStats stats = new Enumeration().solve(instance, new SolveControl()).getStats();
+    assertEquals(1 << 10, stats.getNodes());
+    assertTrue(stats.getPrunes(SolveStats.Prune.INFEASIBLE) > 0);
+  }
+
+  @Test
+  public void testLocalSearch() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00100-1.txt");
+    for (AnytimeSolver solver : new AnytimeSolver[] {new TabuSearch(), new SimulatedAnnealing(),
+        new LargeNeighbourhoodSearch(200, 100, 20, 10, 1)}) {
+      final SolveStats stats = solver.solve(instance, new SolveControl()).getStats();
+      assertTrue(solver.getName(), stats.getMovesEvaluated() > 0);
+      assertTrue(solver.getName(), stats.getMovesAccepted() <= stats.getMovesEvaluated());
+      assertTrue(solver.getName(), stats.getTimeToBest() >= 0);
+    }
+  }
+
+  @Test
+  public void testNesting() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack05000-1.txt");
+    final SolveStats stats =
+        new ReducedSolver(new BranchAndBound()).solve(instance, new SolveControl()).getStats();
+
+    // the reduction and the branch-and-bound of the reduced instance count into the same run
+    assertTrue(stats.getPrunes(SolveStats.Prune.BOUND) > 0);
+    assertTrue(stats.getNodes() > 0);
+    assertFalse(SolveStats.current().isRunning());
+    assertEquals(stats.getNodes(), SolveStats.last().getNodes());
+
+    // a new run starts from zero
+    new GreedyHeuristic().solve(instance);
+    assertEquals(0, SolveStats.last().getNodes());
+    assertTrue(SolveStats.last().getTimeToBest() >= 0);
+  }
+
+  @Test
+  public void testPortfolio() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00100-1.txt");
+    final SolveStats stats = new SolverPortfolio().solve(instance, new SolveControl()).getStats();
+    // the members run on threads of the portfolio
+    assertTrue(stats.getNodes() > 0);
+  }
+
+  @Test
+  public void testNoOutput() throws IOException {
+    final Instance instance = Reader.readInstance(PATH + "rucksack00040-1.txt");
+    final PrintStream out = System.out;
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(buffer));
+    try {
+      new BranchAndBound().solve(instance);
+      new Enumeration().solve(Reader.readInstance(PATH + "rucksack00015-1.txt"));
+      new TabuSearch().solve(instance);
+      new NemhauserUllmann().solve(instance);
+    } finally {
+      System.setOut(out);
+    }
+    assertEquals("", buffer.toString());
+  }
+}
@@ -0,0 +1,121 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class SolverDispatcherTest extends ExtendedGenericExactSolverTest<Solution> {
+  public SolverDispatcherTest() {
+    super(new SolverDispatcher());
+  }
+
+  @Test
+  public void testFeatures() throws IOException {
+    final Instance instance = new Instance(3, 10);
+    instance.set(0, 4, 4);
+    instance.set(1, 7, 7);
+    instance.set(2, 12, 12);
+    final SolverDispatcher.Features features = new SolverDispatcher.Features(instance);
+    assertTrue(features.isSubsetSum());
+    assertEquals(2, features.getFitting());
+    assertEquals(1.0, features.getCorrelation(), 1e-9);
+    assertEquals(SolverDispatcher.Engine.SUBSET_SUM, new SolverDispatcher().route(features));
+
+    final Instance correlated =
+        Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack10000-1.txt");
+    assertEquals(SolverDispatcher.Engine.NEMHAUSER_ULLMANN,
+        new SolverDispatcher().route(new SolverDispatcher.Features(correlated)));
+  }
+
+  @Test
+  public void testLogAndRefine() {
+    final Random random = new Random(31);
+    final SolverDispatcher dispatcher = new SolverDispatcher(0.95, 1000, 0.5, 7);
+    for (int round = 0; round < 20; round++) {
+      final int n = 20 + random.nextInt(300);
+      final Instance instance = new Instance(n, 25 * n);
+      for (int i = 0; i < n; i++) {
+        instance.set(i, 1 + random.nextInt(100), 1 + random.nextInt(100));
+      }
+      final Solution solution = dispatcher.solve(instance);
+      assertTrue(solution.isFeasible());
+      assertEquals(new NemhauserUllmann().solve(instance).getValue(), solution.getValue());
+    }
+    assertEquals(20, dispatcher.getLog().size());
+
+    final int threshold = dispatcher.refine();
+    assertEquals(threshold, dispatcher.getBranchAndBoundMaxItems());
+    assertTrue(threshold >= 0);
+  }
+
+  @Test
+  public void testNoExplorationOnCorrelated() throws IOException {
+    final Instance correlated =
+        Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack10000-1.txt");
+    final SolverDispatcher dispatcher = new SolverDispatcher(0.95, 1000, 1, 7);
+    for (int round = 0; round < 3; round++) {
+      dispatcher.solve(correlated);
+    }
+    for (SolverDispatcher.Decision decision : dispatcher.getLog()) {
+      assertEquals(SolverDispatcher.Engine.NEMHAUSER_ULLMANN, decision.getEngine());
+    }
+  }
+
+  @Test
+  public void testRefineWithoutCrossing() {
+    final Random random = new Random(5);
+    final SolverDispatcher dispatcher = new SolverDispatcher(0.95, 1000, 0, 7);
+    for (int n = 10; n <= 1000; n *= 10) {
+      final Instance instance = new Instance(n, 25 * n);
+      for (int i = 0; i < n; i++) {
+        instance.set(i, 1 + random.nextInt(100), 1 + random.nextInt(100));
+      }
+      final SolverDispatcher.Features features = new SolverDispatcher.Features(instance);
+      // the branch-and-bound is a hundred times faster for every size
+      dispatcher.log(new SolverDispatcher.Decision(features,
+          SolverDispatcher.Engine.BRANCH_AND_BOUND, 10L * n));
+      dispatcher.log(new SolverDispatcher.Decision(features,
+          SolverDispatcher.Engine.NEMHAUSER_ULLMANN, 1000L * n));
+    }
+    assertEquals(Integer.MAX_VALUE, dispatcher.refine());
+  }
+
+  @Test
+  public void testSubsetSumMemoryBudget() {
+    // the bitsets of a capacity close to 2^31 take hundreds of MB each
+    final Instance instance = new Instance(3, Integer.MAX_VALUE - 1);
+    instance.set(0, 1 << 30, 1 << 30);
+    instance.set(1, 1 << 29, 1 << 29);
+    instance.set(2, (1 << 30) + 7, (1 << 30) + 7);
+    final SolverDispatcher dispatcher = new SolverDispatcher();
+    final SolverDispatcher.Features features = new SolverDispatcher.Features(instance);
+    assertTrue(SolverDispatcher.subsetSumBytes(features) > 1L << 30);
+    dispatcher.setSubsetSumMaxBytes(1L << 30);
+    assertEquals(SolverDispatcher.Engine.BRANCH_AND_BOUND, dispatcher.route(features));
+    assertEquals((1 << 30) + 7 + (1 << 29), dispatcher.solve(instance).getValue().intValue());
+
+    instance.setCapacity(1000);
+    assertEquals(SolverDispatcher.Engine.SUBSET_SUM,
+        dispatcher.route(new SolverDispatcher.Features(instance)));
+  }
+
+  @Test
+  public void testLogIsBounded() {
+    final Instance instance = new Instance(1, 10);
+    instance.set(0, 3, 5);
+    final SolverDispatcher.Features features = new SolverDispatcher.Features(instance);
+    final SolverDispatcher dispatcher = new SolverDispatcher();
+    for (int i = 0; i < 3000; i++) {
+      dispatcher.log(new SolverDispatcher.Decision(features,
+          SolverDispatcher.Engine.BRANCH_AND_BOUND, i));
+    }
+    assertEquals(1024, dispatcher.getLog().size());
+    // the oldest decisions are dropped
+    assertEquals(3000 - 1024, dispatcher.getLog().get(0).getNanos());
+  }
+}
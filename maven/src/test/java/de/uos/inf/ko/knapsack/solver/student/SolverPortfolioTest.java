@@ -0,0 +1,116 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveControl;
+import de.uos.inf.ko.knapsack.SolveResult;
+import de.uos.inf.ko.knapsack.Solution;
+import de.uos.inf.ko.knapsack.SolverInterface;
+import de.uos.inf.ko.knapsack.reader.Reader;
+
+public class SolverPortfolioTest extends ExtendedGenericExactSolverTest<Solution> {
+  public SolverPortfolioTest() {
+    super(new SolverPortfolio());
+  }
+
+  @Test
+  public void testProvenance() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final SolverPortfolio.PortfolioSolution solution =
+        (SolverPortfolio.PortfolioSolution) solver.solve(instance);
+    assertEquals(375, solution.getValue().intValue());
+    assertTrue(solution.isFeasible());
+    assertTrue(solution.isOptimal());
+    assertTrue(solution.getProvenance().contains(solution.getSource()));
+  }
+
+  @Test
+  public void testHeuristicsOnly() throws IOException {
+    final SolverPortfolio portfolio = new SolverPortfolio(2);
+    portfolio.register(new GreedyHeuristic(), false);
+    portfolio.register(new LargeNeighbourhoodSearch(50, Integer.MAX_VALUE, 20, 10, 42), false);
+
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final SolveResult result = portfolio.solve(instance, new SolveControl());
+    final SolverPortfolio.PortfolioSolution solution =
+        (SolverPortfolio.PortfolioSolution) result.getSolution();
+    assertTrue(solution.isFeasible());
+    // a heuristic only proves optimality if its solution reaches the upper bound
+    assertEquals(result.isOptimal(), solution.isOptimal());
+    if (!solution.isOptimal()) {
+      assertEquals(solution.getSource(), solution.getProvenance());
+    }
+  }
+
+  @Test
+  public void testPruningWithSharedIncumbent() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final SolveControl control = new SolveControl();
+    control.offer(new NemhauserUllmann().solve(instance), "NU");
+
+    // the optimum is known already, so the branch-and-bound only proves it
+    final SolveResult result = new BranchAndBound().solve(instance, control);
+    assertEquals(375, result.getValue());
+    assertTrue(result.isOptimal());
+    assertEquals("NU", result.getSource());
+  }
+
+  @Test
+  public void testCancelled() throws IOException {
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final SolveControl control = new SolveControl();
+    control.cancel();
+    final SolveResult result =
+        new LargeNeighbourhoodSearch(60000, Integer.MAX_VALUE, 20, 10, 42).solve(instance, control);
+    assertTrue(result.getSolution().isFeasible());
+    assertTrue(result.getUpperBound() >= 375);
+  }
+
+  /**
+   * A member that runs out of memory
+   */
+  private static class FailingSolver implements SolverInterface<Solution> {
+    @Override
+    public Solution solve(Instance instance) {
+      throw new OutOfMemoryError("Java heap space");
+    }
+
+    @Override
+    public String getName() {
+      return "Failing";
+    }
+  }
+
+  @Test
+  public void testFailingMember() throws IOException {
+    final SolverPortfolio portfolio = new SolverPortfolio(2);
+    portfolio.register(new FailingSolver(), true);
+    portfolio.register(new NemhauserUllmann(), true);
+
+    final Instance instance = Reader.readInstance(KNAPSACK_INSTANCES_PATH + "rucksack00040-1.txt");
+    final SolveResult result = portfolio.solve(instance, new SolveControl());
+    final SolverPortfolio.PortfolioSolution solution =
+        (SolverPortfolio.PortfolioSolution) result.getSolution();
+    assertEquals(375, result.getValue());
+    assertTrue(result.isOptimal());
+    assertEquals(Collections.singletonList("Failing"), solution.getFailed());
+
+    // without any other member the race fails
+    final SolverPortfolio failing = new SolverPortfolio(1);
+    failing.register(new FailingSolver(), true);
+    try {
+      failing.solve(instance, new SolveControl());
+      fail("No solver produced a result");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getCause() instanceof OutOfMemoryError);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.SolveStats;
+import de.uos.inf.ko.knapsack.Solution;
+
+public class SolverSessionTest {
+
+  private static void testDeltas(long memoryBudget) {
+    final Random random = new Random(13);
+    final Instance initial = new Instance(50, 300);
+    for (int i = 0; i < initial.getSize(); i++) {
+      initial.set(i, 1 + random.nextInt(100), 1 + random.nextInt(60));
+    }
+    final SolverSession session = new SolverSession(initial, memoryBudget);
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < initial.getSize(); i++) {
+      ids.add(i);
+    }
+
+    for (int round = 0; round < 200; round++) {
+      switch (random.nextInt(5)) {
+        case 0:
+          ids.add(session.addItem(1 + random.nextInt(100), 1 + random.nextInt(60)));
+          break;
+        case 1:
+          if (ids.size() > 1) {
+            session.removeItem(ids.remove(random.nextInt(ids.size())));
+          }
+          break;
+        case 2:
+          session.setValue(ids.get(random.nextInt(ids.size())), 1 + random.nextInt(100));
+          break;
+        case 3:
+          session.setWeight(ids.get(random.nextInt(ids.size())), 1 + random.nextInt(60));
+          break;
+        default:
+          session.setCapacity(Math.max(0, session.getCapacity() + random.nextInt(81) - 40));
+          break;
+      }
+
+      final Solution solution = session.solve();
+      final Instance instance = solution.getInstance();
+      assertTrue(solution.isFeasible());
+      assertEquals(new NemhauserUllmann().solve(instance).getValue(), solution.getValue());
+
+      final int[] live = session.getIds();
+      for (int i = 0; i < live.length; i++) {
+        assertEquals(solution.get(i) == 1, session.isPacked(live[i]));
+      }
+    }
+  }
+
+  @Test
+  public void testDynamicProgramming() {
+    testDeltas(64L << 20);
+  }
+
+  @Test
+  public void testBranchAndBound() {
+    testDeltas(0);
+  }
+
+  @Test
+  public void testRecomputedLayers() {
+    final Random random = new Random(3);
+    final Instance initial = new Instance(200, 1000);
+    for (int i = 0; i < initial.getSize(); i++) {
+      initial.set(i, 1 + random.nextInt(100), 1 + random.nextInt(60));
+    }
+    final SolverSession session = new SolverSession(initial);
+    session.solve();
+    assertEquals(200, SolveStats.last().getNodes());
+
+    // a new item only needs the layers from the last checkpoint on
+    session.addItem(50, 20);
+    session.solve();
+    assertTrue(SolveStats.last().getNodes() <= 32);
+
+    // the first change of the first item is the worst case, the next one is cheap
+    session.setValue(0, 77);
+    session.solve();
+    assertEquals(201, SolveStats.last().getNodes());
+    session.setWeight(0, 13);
+    final Solution solution = session.solve();
+    assertTrue(SolveStats.last().getNodes() <= 32);
+    assertEquals(new NemhauserUllmann().solve(solution.getInstance()).getValue(),
+        solution.getValue());
+  }
+
+  @Test
+  public void testInvalidId() {
+    final Instance initial = new Instance(3, 10);
+    for (int i = 0; i < initial.getSize(); i++) {
+      initial.set(i, i + 1, 2);
+    }
+    final SolverSession session = new SolverSession(initial);
+    session.removeItem(1);
+    for (int id : new int[] {-1, 1, 3, 1000}) {
+      try {
+        session.setValue(id, 5);
+        fail("Item " + id + " does not exist");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      try {
+        session.setWeight(id, 5);
+        fail("Item " + id + " does not exist");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+}
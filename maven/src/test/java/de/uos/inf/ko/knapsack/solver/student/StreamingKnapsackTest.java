@@ -0,0 +1,62 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+
+public class StreamingKnapsackTest {
+
+  /**
+   * Streams random items with ratios between 1 and 10 and checks the solution of the sketch
+   * against the optimum of the whole stream.
+   */
+  private static void testStream(StreamingKnapsack.OnlinePolicy policy, int n, int maxWeight) {
+    final Random random = new Random(17);
+    final int capacity = 1000;
+    final StreamingKnapsack knapsack = new StreamingKnapsack(capacity, 64, policy, 1);
+    final Instance instance = new Instance(n, capacity);
+    for (int i = 0; i < n; i++) {
+      final int weight = 1 + random.nextInt(maxWeight);
+      final int value = weight * (1 + random.nextInt(10)) + random.nextInt(weight);
+      instance.set(i, value, weight);
+      knapsack.offer(value, weight);
+    }
+    final long optimum = new NemhauserUllmann().solve(instance).getValue();
+
+    final StreamingKnapsack.StreamSolution solution = knapsack.getSolution();
+    long value = 0;
+    long weight = 0;
+    for (long item : solution.getItems()) {
+      value += instance.getValue((int) item);
+      weight += instance.getWeight((int) item);
+    }
+    assertEquals(solution.getValue(), value);
+    assertEquals(solution.getWeight(), weight);
+    assertTrue(weight <= capacity);
+    assertTrue(value <= optimum);
+    assertTrue(solution.getUpperBound() >= optimum);
+    assertTrue(solution.getCompetitiveBound() >= 1);
+
+    assertTrue(knapsack.getAcceptedWeight() <= capacity);
+    assertTrue(knapsack.getAcceptedValue() <= optimum);
+    assertTrue(knapsack.getAcceptedValue() * knapsack.getCompetitiveRatio() >= optimum);
+  }
+
+  @Test
+  public void testExponentialThreshold() {
+    testStream(new StreamingKnapsack.ExponentialThreshold(1, 11), 5000, 10);
+  }
+
+  @Test
+  public void testSampledThreshold() {
+    testStream(new StreamingKnapsack.SampledThreshold(), 5000, 10);
+  }
+
+  @Test
+  public void testLargeItems() {
+    // the sketch does not fill the knapsack, so the bound is completed with the outside ratio
+    testStream(new StreamingKnapsack.FixedThreshold(5), 300, 200);
+  }
+}
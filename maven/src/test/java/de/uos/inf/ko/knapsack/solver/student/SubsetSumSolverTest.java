@@ -0,0 +1,38 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+
+public class SubsetSumSolverTest extends ExtendedGenericExactSolverTest<Solution> {
+  public SubsetSumSolverTest() {
+    super(new SubsetSumSolver());
+  }
+
+  @Test
+  public void testSubsetSumInstances() {
+    final Random random = new Random(7);
+    // sequential and with several threads for every bitset
+    final SubsetSumSolver sequential = new SubsetSumSolver(new NemhauserUllmann(), 1, 0);
+    final SubsetSumSolver parallel = new SubsetSumSolver(new NemhauserUllmann(), 3, 0);
+    for (int round = 0; round < 100; round++) {
+      final int n = 1 + random.nextInt(30);
+      final Instance instance = new Instance(n, random.nextInt(2000));
+      for (int i = 0; i < n; i++) {
+        final int weight = random.nextInt(300);
+        instance.set(i, weight, weight);
+      }
+      assertTrue(instance.isSubsetSum());
+
+      final long optimum = new NemhauserUllmann().solve(instance).getValue();
+      for (SubsetSumSolver solver : new SubsetSumSolver[] {sequential, parallel}) {
+        final Solution solution = solver.solve(instance);
+        assertTrue(solution.isFeasible());
+        assertEquals(optimum, solution.getValue().longValue());
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package de.uos.inf.ko.knapsack.solver.student;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+import de.uos.inf.ko.knapsack.Instance;
+import de.uos.inf.ko.knapsack.Solution;
+
+public class UnboundedKnapsackTest extends GenericSolverTest<Solution> {
+  public UnboundedKnapsackTest() {
+    super(new UnboundedKnapsack());
+  }
+
+  @Test
+  public void testUnboundedInstances() {
+    final Random random = new Random(5);
+    for (int round = 0; round < 200; round++) {
+      final int n = 1 + random.nextInt(8);
+      final Instance instance = new Instance(n, random.nextInt(500));
+      for (int i = 0; i < n; i++) {
+        instance.set(i, random.nextInt(50), 1 + random.nextInt(40));
+      }
+
+      // table over all capacities
+      final long[] table = new long[instance.getCapacity() + 1];
+      for (int r = 1; r <= instance.getCapacity(); r++) {
+        table[r] = table[r - 1];
+        for (int i = 0; i < n; i++) {
+          if (instance.getWeight(i) <= r) {
+            table[r] = Math.max(table[r], table[r - instance.getWeight(i)] + instance.getValue(i));
+          }
+        }
+      }
+
+      final Solution solution = solver.solve(instance);
+      assertTrue(solution.isFeasible());
+      assertEquals(table[instance.getCapacity()], solution.getValue().longValue());
+    }
+  }
+}